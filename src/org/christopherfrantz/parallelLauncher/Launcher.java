@@ -13,7 +13,9 @@ import java.util.Map.Entry;
 
 import org.apache.commons.io.FileUtils;
 import org.christopherfrantz.parallelLauncher.util.ConfigFileEntryHandler;
+import org.christopherfrantz.parallelLauncher.util.coordination.ChangeNotifier;
 import org.christopherfrantz.parallelLauncher.util.processhandlers.LinuxProcessReader;
+import org.christopherfrantz.parallelLauncher.util.processhandlers.ProcessHandleReader;
 import org.christopherfrantz.parallelLauncher.util.processhandlers.ProcessReader;
 import org.christopherfrantz.parallelLauncher.util.processhandlers.WindowsProcessReader;
 
@@ -161,7 +163,10 @@ public abstract class Launcher {
 		 * Initialise ProcessReader depending on OS.
 		 */
 		if (processReader == null) {
-			if (ProcessReader.runsOnLinux()) {
+			if (!ProcessReader.runsOnWindows() && ProcessHandleReader.isSupported()) {
+				// Use JDK-internal process information (Java 9+) where full command lines are available
+				processReader = new ProcessHandleReader();
+			} else if (ProcessReader.runsOnLinux()) {
 				processReader = new LinuxProcessReader();
 			} else if (ProcessReader.runsOnWindows()) {
 				processReader = new WindowsProcessReader();
@@ -290,6 +295,24 @@ public abstract class Launcher {
 	 * 		else 0 (simply timed out). Return -1 upon error.
 	 */
 	protected static int awaitUserInput(long maxWaitingTime, String action, String... specialInput){
+		return awaitUserInputOrNotification(maxWaitingTime, null, action, specialInput);
+	}
+	
+	/**
+	 * Variant of {@link #awaitUserInput(long, String, String...)} that additionally 
+	 * returns as soon as the given notifier signals a state change (e.g. a terminated 
+	 * process), so the maximum waiting time only serves as fallback. 
+	 * Returns 0 if notified (as for timeouts).
+	 * 
+	 * @param maxWaitingTime Maximum waiting time
+	 * @param notifier Notifier to wait for (if null, only user input and timeout are considered)
+	 * @param action String representation for action (for console output)
+	 * @param specialInput Pairs of testing input and action description.
+	 * @return Returns 1 if user has pressed key,
+	 * 		2 or higher if user entered value specified in specialInput parameter prior to pressing enter, 
+	 * 		else 0 (timed out or notified). Return -1 upon error.
+	 */
+	protected static int awaitUserInputOrNotification(long maxWaitingTime, ChangeNotifier notifier, String action, String... specialInput){
 		StringBuilder builder = new StringBuilder("Press return in console to ").append(action);
 		HashMap<String, Integer> specialInputs = new HashMap<>();
 		if(specialInput != null && specialInput.length > 0){
@@ -318,10 +341,17 @@ public abstract class Launcher {
 			BufferedReader br = new BufferedReader(
 				new InputStreamReader(System.in));
 			long totalSleeptime = 0;
-			// Read console and check if user entered anything
-			while(!br.ready() && totalSleeptime < maxWaitingTime){
-				totalSleeptime += 200;
-				Thread.sleep(200);
+			long waitStart = System.currentTimeMillis();
+			boolean notified = false;
+			// Read console and check if user entered anything (or notification arrived)
+			while(!br.ready() && !notified && totalSleeptime < maxWaitingTime){
+				if(notifier != null){
+					notified = notifier.awaitNotification(Math.min(200, maxWaitingTime - totalSleeptime));
+					totalSleeptime = System.currentTimeMillis() - waitStart;
+				} else {
+					totalSleeptime += 200;
+					Thread.sleep(200);
+				}
 			}
 			if(br.ready()){
 				String userInput = br.readLine();
@@ -340,6 +370,10 @@ public abstract class Launcher {
 					// User just pressed enter, no special characters
 					returnValue = 1;
 				}
+			} else if(notified){
+				if(debug){
+					System.out.println("Received change notification, doing recheck ...");
+				}
 			} else {
 				if(debug){
 					System.out.println("Waiting timed out, doing recheck ...");
@@ -1,9 +1,11 @@
 package org.christopherfrantz.parallelLauncher;
 
 import java.io.File;
+import java.io.FilenameFilter;
 import java.io.IOException;
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -219,15 +221,21 @@ public class MetaLauncher extends Launcher {
 				}
 			}
 			// Check for deletion of unified JAR file if activated
-			if(launchingFinished && createOneJarFileForAllLaunchers && runningProcesses.isEmpty()){
+			if(launchingFinished && createOneJarFileForAllLaunchers && runningProcesses.isEmpty() 
+					&& !ParallelLauncher.usesClasspathSnapshots() && ParallelLauncher.usesJarCache()){
+				// Unified JAR(s) have been retrieved from JAR cache - release them for deletion once unused
+				ParallelLauncher.releaseJarCacheReferences();
+				ParallelLauncher.cleanUpTemporaryJarFiles();
+			} else if(launchingFinished && createOneJarFileForAllLaunchers && runningProcesses.isEmpty()){
 				// If launching has finished and all processes have finished, then delete JAR file
 				File subfolder = new File(System.getProperty("user.dir") + FOLDER_SEPARATOR + ParallelLauncher.tempJarSubfolder);
 				if (debug) {
 					System.out.println(PREFIX + "Subfolder " + subfolder + " to be deleted.");
 				}
-				// Search for all files starting with this prefix (and ending with .jar) and delete them
+				// Search for all files (or classpath snapshot directories) starting with this prefix and delete them
+				File[] unifiedJarFiles = subfolder.listFiles((FilenameFilter)FileFilterUtils.prefixFileFilter(unifiedJarFile + "_"));
 				ArrayList<File> unifiedJars = 
-						new ArrayList<>(FileUtils.listFiles(subfolder, FileFilterUtils.prefixFileFilter(unifiedJarFile + "_"), null));
+						new ArrayList<>(unifiedJarFiles != null ? Arrays.asList(unifiedJarFiles) : Collections.<File>emptyList());
 				if(!unifiedJars.isEmpty()){
 					System.out.println(ParallelLauncher.getCurrentTimeString(true) + 
 							": " + PREFIX + "Deleting unified JAR(s) after termination of all ParallelLaunchers: " + unifiedJars.toString());
@@ -819,6 +827,8 @@ public class MetaLauncher extends Launcher {
 		if(!launcherClassesToConsider.contains(launcherClass)){
 			launcherClassesToConsider.add(launcherClass);
 		}
+		// New check cycle - capture current process table once for all subsequent queries
+		processReader.invalidateProcessInformation();
 		for(int i = 0; i < launcherClassesToConsider.size(); i++){
 			output.addAll(processReader.getCreationTimesOfRunningInstances(launcherClassesToConsider.get(i), null));
 		}
@@ -5,19 +5,52 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.math.BigInteger;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.christopherfrantz.parallelLauncher.util.processhandlers.ProcessReader;
 import org.christopherfrantz.parallelLauncher.util.CombinedClassAndStatusListener;
 import org.christopherfrantz.parallelLauncher.util.DataStructurePrettyPrinter;
 import org.christopherfrantz.parallelLauncher.util.ProcessMonitorGui;
+import org.christopherfrantz.parallelLauncher.util.admission.AdmissionPolicy;
+import org.christopherfrantz.parallelLauncher.util.admission.MemoryAdmissionPolicy;
+import org.christopherfrantz.parallelLauncher.util.admission.PressureAdmissionPolicy;
+import org.christopherfrantz.parallelLauncher.util.affinity.LinuxCoreAllocator;
+import org.christopherfrantz.parallelLauncher.util.affinity.NumaTopology;
+import org.christopherfrantz.parallelLauncher.util.coordination.ChangeNotifier;
+import org.christopherfrantz.parallelLauncher.util.coordination.LauncherTicketQueue;
+import org.christopherfrantz.parallelLauncher.util.coordination.SlotBroker;
+import org.christopherfrantz.parallelLauncher.util.coordination.SlotBrokerClient;
+import org.christopherfrantz.parallelLauncher.util.jars.ClasspathSnapshot;
+import org.christopherfrantz.parallelLauncher.util.jars.IncrementalJarBuilder;
+import org.christopherfrantz.parallelLauncher.util.jars.JarBuilder;
+import org.christopherfrantz.parallelLauncher.util.jars.JarCache;
+import org.christopherfrantz.parallelLauncher.util.jars.PathingJar;
+import org.christopherfrantz.parallelLauncher.util.jars.TemporaryFileLease;
 import org.christopherfrantz.parallelLauncher.util.listeners.ProcessStatusListener;
+import org.christopherfrantz.parallelLauncher.util.scheduling.RuntimeHistory;
+import org.christopherfrantz.parallelLauncher.util.wrappers.ClassDataSharingTrainer;
+import org.christopherfrantz.parallelLauncher.util.wrappers.InJvmProcess;
+import org.christopherfrantz.parallelLauncher.util.wrappers.ProcessCompletionService;
 import org.christopherfrantz.parallelLauncher.util.wrappers.ProcessWrapper;
+import org.christopherfrantz.parallelLauncher.util.wrappers.WorkerPool;
 import org.christopherfrantz.parallelLauncher.util.wrappers.WrapperExecutable;
 
 
@@ -353,11 +386,6 @@ public class ParallelLauncher extends Launcher {
 		System.out.println(PREFIX + "Process Launch checking frequency set to " + frequencyInMinutes + " minute(s).");
 	}
 	
-	/**
-	 * File name for log file that keeps track of temporary created JAR files.
-	 */
-	public static final String CLEANUP_LOG_FILE = "ParallelLauncher_CleanUpLog";
-	
 	/**
 	 * File name for file holding previously specified JDK bin path.
 	 * If deleted, the user will be prompted to specify it again if necessary.
@@ -396,6 +424,77 @@ public class ParallelLauncher extends Launcher {
 	 */
 	protected static boolean createTemporaryJarFilesForQueueing = true;
 	
+	/**
+	 * If switched on, launchers determine their queue position from tickets
+	 * drawn from a file-based queue in {@link #sharedRuntimeDirectory} instead 
+	 * of inferring it from the creation times of running processes. This makes
+	 * the queue position available immediately after startup, so further 
+	 * launchers can be started right away. Falls back to process-based 
+	 * inference if the queue directory is not accessible.
+	 * (Recommended: true)
+	 */
+	protected static boolean useTicketQueueForLauncherOrdering = true;
+	
+	/**
+	 * Directory shared by all launchers for coordination, such as ticket queues 
+	 * (one subfolder per launcher class) and change notifications.
+	 * If null, a user-specific folder in the system's temporary directory is used,
+	 * so all launchers of one user on this machine are coordinated together.
+	 */
+	protected static String sharedRuntimeDirectory = null;
+	
+	/**
+	 * If switched on, terminating processes and launchers signal their termination 
+	 * via a notification file in {@link #sharedRuntimeDirectory}, and waiting launchers 
+	 * recheck as soon as they observe it. Regular check frequencies then only serve 
+	 * as fallback timeout, which shortens the idle time between consecutive launchers.
+	 * (Recommended: true)
+	 */
+	protected static boolean useChangeNotificationsForQueueChecks = true;
+	
+	/**
+	 * Notifier used to signal and await state changes (null if not used)
+	 */
+	private static ChangeNotifier changeNotifier = null;
+	
+	/**
+	 * If switched on and a {@link SlotBroker} is running for the 
+	 * {@link #sharedRuntimeDirectory}, the launcher acquires one slot lease from 
+	 * the broker per launched process instead of checking running processes 
+	 * against {@link #maxNumberOfRunningLaunchedProcesses}. The broker's slot count 
+	 * then determines the number of processes running on this machine.
+	 * (Recommended: true)
+	 */
+	protected static boolean useSlotBrokerIfAvailable = true;
+	
+	/**
+	 * Client for running slot broker (null if not used)
+	 */
+	private static SlotBrokerClient slotBroker = null;
+	
+	/**
+	 * Indicates whether the slot broker became unreachable after the start-up check 
+	 * for running processes had been skipped
+	 */
+	private static boolean slotBrokerLost = false;
+	
+	/**
+	 * Ticket queue of this launcher's class (null if not used)
+	 */
+	private static LauncherTicketQueue ticketQueue = null;
+	
+	/**
+	 * Indicates whether this launcher was the only one queued when drawing its ticket 
+	 * (null if no ticket has been drawn). Feedback on starting further launchers is 
+	 * deferred until the classpath has been frozen.
+	 */
+	private static Boolean onlyQueuedLauncherWhenDrawingTicket = null;
+	
+	/**
+	 * Ticket queue of running blocking launchers (null if not used)
+	 */
+	private static LauncherTicketQueue blockingLauncherTicketQueue = null;
+	
 	/**
 	 * If switched on, the ParallelLauncher uses a temporary classpath 
 	 * variable instead of concatenating the classpath to the command line.
@@ -406,10 +505,89 @@ public class ParallelLauncher extends Launcher {
 	protected static boolean createTemporaryClasspathVariable = true;
 	
 	/**
-	 * Temporary map to keep information on generated jar file names for 
-	 * later clean up logging once process has been started
+	 * If switched on, the (JARified) classpath is referenced by a single 'pathing' 
+	 * JAR file whose manifest lists all classpath entries. Launched processes then 
+	 * only receive the pathing JAR as classpath (whether via parameter, temporary 
+	 * classpath variable or environment), so launch commands remain short and do 
+	 * not grow with the classpath. The pathing JAR is created once per launcher, or, 
+	 * if using the JAR cache (see {@link #useJarCache}), shared by all launchers 
+	 * with the same classpath (which lets them share the Class Data Sharing archive).
+	 * (Recommended: true)
+	 */
+	protected static boolean usePathingJarForClasspath = true;
+	
+	/**
+	 * Ending of pathing JAR file names (see {@link #usePathingJarForClasspath})
+	 */
+	private static final String PATHING_JAR_FILE_ENDING = "_classpath" + JAR_FILE_ENDING;
+
+	/**
+	 * Name of the pathing JAR file created by this launcher (null if not used)
+	 */
+	private static String pathingJarName = null;
+
+	/**
+	 * If switched on, the launcher performs a training run on the final (frozen) classpath
+	 * that loads {@link WrapperExecutable} and all classes to be launched, and dumps them
+	 * into an AppCDS (Class Data Sharing) archive (-XX:ArchiveClassesAtExit). All launched
+	 * processes then start with this archive (-XX:SharedArchiveFile), which reduces their
+	 * startup time and lets concurrently running processes share read-only class metadata.
+	 * Requires Java 13 or higher for launched processes (no training run is performed for 
+	 * older JVMs), and is only applied if the classpath of launched processes is known upfront, 
+	 * i.e. for direct launches or when using pathing JARs (see {@link #usePathingJarForClasspath}).
+	 * Launches do not wait for the training run: processes launched before the archive 
+	 * is available start without it. If using the JAR cache (see {@link #useJarCache}), 
+	 * archives are cached, so launchers with unchanged classpath reuse them without training run.
+	 * (Recommended: true)
+	 */
+	protected static boolean useClassDataSharingArchive = true;
+
+	/**
+	 * Maximum time (in milliseconds) the Class Data Sharing training run may take
+	 * (see {@link #useClassDataSharingArchive}). If exceeded, the training run is
+	 * terminated and processes are launched without archive.
+	 * Default: 30000
+	 */
+	public static long classDataSharingTrainingTimeout = 30000;
+
+	/**
+	 * Minimum Java version supporting dynamic Class Data Sharing archives (-XX:ArchiveClassesAtExit)
+	 */
+	private static final int MINIMUM_JAVA_VERSION_FOR_CLASS_DATA_SHARING_ARCHIVE = 13;
+
+	/**
+	 * Ending of Class Data Sharing archive file names (see {@link #useClassDataSharingArchive})
+	 */
+	private static final String CLASS_DATA_SHARING_ARCHIVE_FILE_ENDING = "_classes.jsa";
+
+	/**
+	 * Thread running the Class Data Sharing training run (null if not started)
+	 */
+	private static Thread classDataSharingTraining = null;
+
+	/**
+	 * Class Data Sharing archive used by launched processes (null if not available)
+	 */
+	private static volatile File classDataSharingArchive = null;
+	
+	/**
+	 * Lease on temporary files (JAR files, classpath snapshots, etc.) created by this launcher 
+	 * (see {@link TemporaryFileLease}), held by the launcher and its processes. Temporary files 
+	 * are deleted once the lease is released or has expired.
+	 */
+	private static TemporaryFileLease temporaryFileLease = null;
+	
+	/**
+	 * Interval (in milliseconds) in which each launcher deletes temporary files of expired 
+	 * leases, i.e. of launchers that have terminated (or crashed) along with all of their processes.
+	 * Default: 60000
 	 */
-	private static LinkedHashMap<String, String> jarNameMapper = new LinkedHashMap<String, String>();
+	public static long temporaryFileJanitorInterval = 60000;
+	
+	/**
+	 * Executor running the janitor for temporary files (null if not started)
+	 */
+	private static ScheduledExecutorService temporaryFileJanitor = null;
 	
 	/**
      * Constrain the number of cores the application uses. 
@@ -449,6 +627,157 @@ public class ParallelLauncher extends Launcher {
      */  
   	protected static String processorsToRunOnAffinityMask = null;
   	
+  	/**
+  	 * If switched on (and {@link #runOnLimitedProcessors} is active), each process launched 
+  	 * on Linux is pinned to cores of its own ({@link #coresPerLaunchedProcess}) out of the cores 
+  	 * specified via {@link #setAffinityMaskForCores(boolean, int...)} (all but Core 0 by default), 
+  	 * which avoids migration of processes between cores and the associated cache misses. 
+  	 * Cores are returned once processes terminate and are coordinated with other launchers 
+  	 * on the same machine (see {@link LinuxCoreAllocator}). Processes for which no cores are 
+  	 * free run on all specified cores. If switched off, all processes run on all specified cores.
+  	 * Note that launched JVMs size their garbage collector, JIT compiler and common thread pool 
+  	 * according to the cores they are pinned to, so multithreaded classes should be given 
+  	 * multiple cores each. Requires the taskset tool (util-linux).
+  	 * Default: false
+  	 */
+  	public static boolean pinLaunchedProcessesToCores = false;
+  	
+  	/**
+  	 * Number of cores each launched process is pinned to (see {@link #pinLaunchedProcessesToCores}). 
+  	 * A JVM pinned to a single core runs with serial garbage collection and a single 
+  	 * thread in its common thread pool.
+  	 * Default: 1
+  	 */
+  	public static int coresPerLaunchedProcess = 1;
+  	
+  	/**
+  	 * Cores launched processes may run on under Linux (null if not restricted)
+  	 */
+  	private static List<Integer> coresForLaunchedProcessesOnLinux = null;
+  	
+  	/**
+  	 * Allocator pinning launched processes to cores under Linux (null if not pinning)
+  	 */
+  	private static LinuxCoreAllocator coreAllocator = null;
+  	
+  	/**
+  	 * If switched on (and {@link #runOnLimitedProcessors} is active), processes launched on Linux 
+  	 * machines with multiple NUMA nodes are spread evenly across nodes, and each process is bound 
+  	 * to the cores of a single node and prefers that node's memory (via numactl, or restricted to 
+  	 * the node's cores via taskset if numactl is not available), which avoids slow accesses to memory 
+  	 * of remote nodes. Processes are accounted for per node (across launchers on the same machine), 
+  	 * so each process is placed on the least occupied node (see {@link NumaTopology}). If processes 
+  	 * are pinned to cores (see {@link #pinLaunchedProcessesToCores}), their cores are taken from the 
+  	 * node they are placed on. Has no effect on machines with a single node.
+  	 * (Recommended: true)
+  	 */
+  	public static boolean useNumaAwarePlacement = true;
+  	
+  	/**
+  	 * If switched on, processes placed on a NUMA node (see {@link #useNumaAwarePlacement}) may 
+  	 * only allocate memory of that node (numactl --membind) instead of preferring it. Processes 
+  	 * whose memory demand exceeds the node's free memory then swap or are terminated by the OS 
+  	 * instead of spilling over to other nodes.
+  	 * Default: false
+  	 */
+  	public static boolean bindLaunchedProcessesToNumaNodeMemory = false;
+  	
+  	/**
+  	 * NUMA topology launched processes are placed on under Linux (null if not placing across nodes)
+  	 */
+  	private static NumaTopology numaTopology = null;
+  	
+  	/**
+  	 * Determines the cores launched processes may run on under Linux, i.e. the cores of 
+  	 * the affinity mask (if specified) or all cores but Core 0 (of those the launcher may 
+  	 * run on), and prepares the allocation of cores to launched processes. 
+  	 * Deactivates affinity support if no core remains.
+  	 */
+  	private static void initializeLinuxCoreAllocation(){
+  		ArrayList<Integer> cores = new ArrayList<>();
+  		for(Integer core: LinuxCoreAllocator.getAllowedCores()){
+  			if(processorsToRunOnAffinityMask == null ? core != 0 : new BigInteger(processorsToRunOnAffinityMask, 16).testBit(core)){
+  				cores.add(core);
+  			}
+  		}
+  		if(cores.isEmpty()){
+  			System.err.println(PREFIX + "No cores left for launched processes with given affinity specification. Affinity configuration ignored.");
+  			runOnLimitedProcessors = false;
+  			return;
+  		}
+  		coresForLaunchedProcessesOnLinux = cores;
+  		if(pinLaunchedProcessesToCores){
+  			try {
+  				coreAllocator = new LinuxCoreAllocator(new File(getSharedRuntimeDirectory(), "cores"), cores, coresPerLaunchedProcess);
+  				System.out.println(PREFIX + "Pinning launched processes to " + coresPerLaunchedProcess + " core(s) each out of cores " 
+  						+ LinuxCoreAllocator.formatCoreList(cores) + ".");
+  				return;
+  			} catch (IOException e) {
+  				System.err.println(PREFIX + "Cannot coordinate core allocation (" + e.getMessage() + "). Launched processes are not pinned.");
+  			}
+  		}
+  		System.out.println(PREFIX + "Running launched processes on cores " + LinuxCoreAllocator.formatCoreList(cores) + ".");
+  	}
+  	
+  	/**
+  	 * Reads the NUMA topology of the machine (restricted to the cores launched processes 
+  	 * may run on) for placing launched processes across nodes. Placement is deactivated 
+  	 * if the machine has a single node. Requires processor affinity support on Linux 
+  	 * (i.e. {@link #initializeLinuxCoreAllocation()} having been run).
+  	 */
+  	private static void initializeNumaPlacement(){
+  		try {
+  			numaTopology = NumaTopology.read(coresForLaunchedProcessesOnLinux, coresPerLaunchedProcess, 
+  					bindLaunchedProcessesToNumaNodeMemory, new File(getSharedRuntimeDirectory(), "numa"));
+  		} catch (IOException e) {
+  			System.err.println(PREFIX + "Cannot coordinate NUMA placement (" + e.getMessage() + "). NUMA-aware placement deactivated.");
+  			return;
+  		}
+  		if(numaTopology != null){
+  			System.out.println(PREFIX + "Placing launched processes across NUMA nodes " + numaTopology.getNodes() 
+  					+ " (binding via " + (numaTopology.usesNumactl() ? NumaTopology.NUMACTL : LinuxCoreAllocator.TASKSET) + ").");
+  		}
+  	}
+  	
+  	/**
+  	 * Returns the cores allocated to a launched process and its slot on the NUMA node 
+  	 * it has been placed on once it has terminated.
+  	 * @param wrapper ProcessWrapper of launched process
+  	 * @param allocation Cores allocated to process (may be null)
+  	 * @param placement Placement of process on NUMA node (may be null)
+  	 */
+  	private static void registerPlacement(ProcessWrapper wrapper, final LinuxCoreAllocator.Allocation allocation, final NumaTopology.Placement placement){
+  		// Both are released only once, even if process terminates during registration
+  		final Runnable release = new Runnable() {
+  			
+  			@Override
+  			public void run() {
+  				if(allocation != null){
+  					allocation.release();
+  				}
+  				if(placement != null){
+  					placement.release();
+  				}
+  			}
+  		};
+  		wrapper.registerListener(new ProcessStatusListener() {
+  			
+  			@Override
+  			public void executeDuringProcessLaunch(ProcessWrapper wrapper) {
+  				// Placed before launch
+  			}
+  			
+  			@Override
+  			public void executeAfterProcessTermination(ProcessWrapper wrapper) {
+  				release.run();
+  			}
+  		});
+  		if(wrapper.isFinished()){
+  			// Process has already terminated before listener could be registered
+  			release.run();
+  		}
+  	}
+  	
   	/**
   	 * Sets an affinity mask that specifies the run on all cores
   	 * but Core 0 (in order to keep system responsive). 
@@ -753,9 +1082,87 @@ public class ParallelLauncher extends Launcher {
 					new ArrayList<>(Arrays.asList("gnome-shell", "equinox.launcher", "intellij")) :
 					new ArrayList<>());
   	
+	/**
+	 * If switched on, temporary JAR files are generated by forking the JDK's 
+	 * jar tool via a batch file (legacy behaviour), which requires a JDK 
+	 * (see {@link #jdkBinPath}). Else JAR files are written in-process.
+	 * (Recommended: false)
+	 */
+	protected static boolean useJarToolForJarGeneration = false;
+	
+	/**
+	 * Compression level (0-9) used for in-process generation of temporary JAR files. 
+	 * 0 stores class files uncompressed, which is fastest for JARs that only 
+	 * live as long as the launcher. Default: 0
+	 */
+	protected static int temporaryJarCompressionLevel = 0;
+	
+	/**
+	 * Maximum number of threads used to scan classpath directories and 
+	 * to create temporary JAR files concurrently. 1 creates all JAR files 
+	 * on the launcher's main thread. Default: number of available cores
+	 */
+	protected static int numberOfThreadsForJarCreation = Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * Classpath directories with fewer class files than this threshold are 
+	 * packed on the launcher's main thread, as handing them to another thread 
+	 * does not pay off. Default: 50
+	 */
+	protected static int minimumNumberOfClassFilesForConcurrentJarCreation = 50;
+	
+	/**
+	 * If switched on, classpath directories are frozen by copying them into snapshot 
+	 * directories (in {@link #tempJarSubfolder}) instead of packing them into temporary 
+	 * JAR files, which avoids compression and unzipping upon start of launched processes. 
+	 * On file systems supporting copy-on-write clones (e.g. Btrfs, XFS under Linux), files 
+	 * are cloned instead of copied, so snapshots cost neither copying nor disk space. 
+	 * Just as temporary JAR files, snapshots are not affected by recompilation. 
+	 * Takes precedence over {@link #useJarCache}.
+	 * Default: false
+	 */
+	protected static boolean useClasspathSnapshotsInsteadOfJars = false;
+	
+	/**
+	 * Ending for classpath snapshot directories
+	 */
+	private static final String SNAPSHOT_DIRECTORY_ENDING = ".snapshot";
+	
+	/**
+	 * If switched on, temporary JAR files are kept in a persistent cache 
+	 * (see {@link #jarCacheDirectory}) and named by a digest of the packed 
+	 * directory's contents. Launchers (and MetaLaunchers) packing unchanged 
+	 * directories then reuse existing JARs instead of building their own. 
+	 * Cached JARs are only deleted once no running launcher references them 
+	 * (the most recent JAR of each directory is retained, so modified directories 
+	 * are packed incrementally).
+	 * Not used if {@link #useJarToolForJarGeneration} is switched on.
+	 * (Recommended: true)
+	 */
+	protected static boolean useJarCache = true;
+	
+	/**
+	 * If switched on, digests identifying cached JARs include the contents 
+	 * of class files (instead of only their paths, sizes and modification times).
+	 * Safer, but requires reading all class files upon each launcher start.
+	 */
+	protected static boolean hashClassFileContentsForJarCache = false;
+	
+	/**
+	 * Directory for cached JAR files. If null, subfolder 'cache' of 
+	 * {@link #tempJarSubfolder} in the working directory is used.
+	 */
+	protected static String jarCacheDirectory = null;
+	
+	/**
+	 * JAR cache (lazily initialized, see {@link #getJarCache()})
+	 */
+	private static JarCache jarCache = null;
+	
 	/**
 	 * Indicates if batch files for creation of JARs are deleted after 
-	 * start. Default: true
+	 * start (only relevant if {@link #useJarToolForJarGeneration} is 
+	 * switched on). Default: true
 	 */
 	protected static boolean deleteBatchFilesCreatingJarsAfterStart = true;
 	
@@ -885,6 +1292,15 @@ public class ParallelLauncher extends Launcher {
 			throw new RuntimeException(PREFIX + "Maximum number for ParallelLaunchers to be active in parallel is invalid: " + maxNumberOfActiveParallelLaunchers);
 		}
 		
+		// Enter launcher queue as early as possible to preserve start order
+		if(useTicketQueueForLauncherOrdering){
+			registerInTicketQueue();
+		}
+		// Watch for notifications before first queue check, so none is missed
+		if(useChangeNotificationsForQueueChecks){
+			initializeChangeNotifications();
+		}
+		
 		/*
 		 * Register global service handler. 
 		 * It is a listener implementation that monitors the processes 
@@ -944,11 +1360,13 @@ public class ParallelLauncher extends Launcher {
 						setAffinityMaskForAllButCore0();
 					}
 				}
-			} else if (ProcessReader.runsOnLinux()){
-				// Deactivate process affinity support on Linux
-				System.out.println(PREFIX + "Processor affinity support deactivated on Linux.");
-				// TODO: Introduce affinity for Linux
-				runOnLimitedProcessors = false;
+			} else if (ProcessReader.runsOnLinux() && Runtime.getRuntime().availableProcessors() > 1){
+				if(LinuxCoreAllocator.isSupported()){
+					initializeLinuxCoreAllocation();
+				} else {
+					System.out.println(PREFIX + "Processor affinity support deactivated on Linux as '" + LinuxCoreAllocator.TASKSET + "' is not available.");
+					runOnLimitedProcessors = false;
+				}
 			} else {
 				// Deactivate process affinity support if only one processor
 				System.out.println(PREFIX + "Processor affinity support deactivated as only one available core.");
@@ -956,6 +1374,10 @@ public class ParallelLauncher extends Launcher {
 			}
 		}
 		
+		// Check for multiple NUMA nodes to place launched processes on (bindings are applied along with affinity settings)
+		if(useNumaAwarePlacement && runOnLimitedProcessors && coresForLaunchedProcessesOnLinux != null){
+			initializeNumaPlacement();
+		}
 				
 		String classpath = System.getProperty("java.class.path");
 		// Opens self-closing console if not running on Windows Vista/7
@@ -1010,12 +1432,24 @@ public class ParallelLauncher extends Launcher {
 		// Print current configuration to console - passing information for actual launcher check frequency, and status of child processes of previous launcher
 		printCurrentConfiguration(launcherCheckFrequency, processCheckFrequencyForOtherLaunchersRunningProcesses);
 		
+		// Running launched classes inside launcher JVM requires interception of System.exit()
+		if(launchClassesInLauncherJvm){
+			try {
+				InJvmProcess.installTaskIsolation();
+			} catch (SecurityException | UnsupportedOperationException e) {
+				System.err.println(PREFIX + "Cannot intercept System.exit() of classes run in launcher JVM (" + e + "). Launching processes instead.");
+				launchClassesInLauncherJvm = false;
+			}
+		}
+		
 		/*
 		 * Creation of temporary JARs
 		 */
 		// Check if the launcher is supposed to build JAR files from class files to prevent side effects.
 		if(createTemporaryJarFilesForQueueing && !launcherClass.equals(BlockingParallelLauncher.class)){
-			if(createTemporaryClasspathVariable){
+			// Directly launched processes receive plain classpath via environment, classes run in launcher JVM 
+			// and pathing JARs require plain classpath
+			if(createTemporaryClasspathVariable && !launchesDirectly() && !launchClassesInLauncherJvm && !usePathingJarForClasspath){
 				// local-variable version (set CLASSPATH=%CLASSPATH%;newJarFile.jar)
 				classpath = createJARifiedClasspath(classpath, unifiedJarFilename, true);
 			} else {
@@ -1023,6 +1457,16 @@ public class ParallelLauncher extends Launcher {
 				classpath = createJARifiedClasspath(classpath, unifiedJarFilename, false);
 			}
 		}
+		if(usePathingJarForClasspath){
+			classpath = createPathingJarClasspath(classpath, createTemporaryClasspathVariable && !launchesDirectly() && !launchClassesInLauncherJvm);
+		}
+		if(useClassDataSharingArchive && !launchClassesInLauncherJvm){
+			startClassDataSharingTraining(classpath);
+		}
+		// Only now further launchers can be started (and classes recompiled) without affecting this one
+		if(ticketQueue != null && onlyQueuedLauncherWhenDrawingTicket != null){
+			printQueueRegistrationFeedback(onlyQueuedLauncherWhenDrawingTicket);
+		}
 	
 		// Build command (incl. classpath) but without launched class specification - note the different quotation marks to capture space issues
 		// see http://stackoverflow.com/questions/12891383/correct-quoting-for-cmd-exe-for-multiple-arguments for details on cmd /C syntax
@@ -1090,7 +1534,7 @@ public class ParallelLauncher extends Launcher {
 							+ ": Waiting for other launcher(s) to start. Next check in " 
 							+ actualSleepTime/1000 + " seconds.");
 					// Check if user presses enter to initiate recheck
-					int res = awaitUserInput(actualSleepTime, "to perform recheck", "debug", "toggle debug mode and perform recheck");
+					int res = awaitUserInputOrNotification(actualSleepTime, changeNotifier, "to perform recheck", "debug", "toggle debug mode and perform recheck");
 					// Toggle debug mode if requested
 					if(res == 2){
 						toggleDebugMode();
@@ -1139,11 +1583,19 @@ public class ParallelLauncher extends Launcher {
 			System.out.println(PREFIX + "Number of currently running processes: " + runningProcessesRunningJavaClasses.size());
 		}
 		
+		// Slot broker (if running) grants slots for individual processes, so no check for running processes necessary
+		if(useSlotBrokerIfAvailable){
+			slotBroker = SlotBrokerClient.connect(getSharedRuntimeDirectory());
+			if(slotBroker != null){
+				System.out.println(PREFIX + "Slot broker found. Acquiring process slots from broker instead of checking running processes.");
+			}
+		}
+		
 		if (knownRunningProcessNames == null) {
 			throw new RuntimeException(PREFIX + "Cannot test for running reference process, since OS could not be detected.");
 		}
 		
-		while(	/*
+		while(slotBroker == null && (	/*
 					Checks for number of running processes (if multiple launchers allowed);
 					also checking for known process name (such as eclipse.exe) as running process if check is activated, 
 					just to be sure WMI (if running Windows) is doing its job (implying that the actual process needs to be running!)
@@ -1160,7 +1612,7 @@ public class ParallelLauncher extends Launcher {
 				)
 				// and check if known process is found (if check is activated) - SHOULD be found if activated
 				|| (checkForKnownProcessAsWmiFailureBackupCheck ? 
-						processReader.retrieveProcessesWithNames(knownRunningProcessNames).isEmpty() : false)
+						processReader.retrieveProcessesWithNames(knownRunningProcessNames).isEmpty() : false))
 		){
 			String reason = null;
 			// Determine reason for wait
@@ -1215,14 +1667,15 @@ public class ParallelLauncher extends Launcher {
 			
 			System.out.println(getCurrentTimeString(true) + ": Waiting before performing recheck. Next check in " + (progressiveCheckDelay / 1000) + " seconds. (" + reason + ")");
 			// Pressing enter will abort timeout and recheck immediately
-			int res = awaitUserInput(progressiveCheckDelay, "recheck immediately", "debug", "toggle debug mode and recheck immediately");
+			int res = awaitUserInputOrNotification(progressiveCheckDelay, changeNotifier, "recheck immediately", "debug", "toggle debug mode and recheck immediately");
 			if(res == 2){
 				toggleDebugMode();
 			}
 			
 			// Check if launcher and process configuration has been updated
 			updateLauncherAndProcessConfiguration();
-			// Retrieve all running Java classes to recheck conditions for launching
+			// Retrieve all running Java classes to recheck conditions for launching (on fresh process table)
+			processReader.invalidateProcessInformation();
 			runningProcessesRunningJavaClasses = processReader.retrieveProcessesRunningJavaClasses(classesToBeTestedInRunningProcesses);
 			if(debug){
 				System.out.println(PREFIX + "Number of currently running processes: " + runningProcessesRunningJavaClasses.size());
@@ -1235,8 +1688,8 @@ public class ParallelLauncher extends Launcher {
 			System.out.println(PREFIX + "Running processes: " + DataStructurePrettyPrinter.decomposeRecursively(runningProcessesRunningJavaClasses, null));
 		}
 		
-		// Remove old temporary JAR files of previous launchers if existing
-		cleanUpTemporaryJarFiles();
+		// Remove temporary files of previous launchers (in the background) once their leases have expired
+		startTemporaryFileJanitor();
 				
 		
 		/*
@@ -1272,21 +1725,128 @@ public class ParallelLauncher extends Launcher {
 			listOfClassesActuallyLaunched.add(classesToBeLaunched.get(i).clazz);
 		}
 		
+		// Launch longest-running classes first
+		if(scheduleByRuntimeHistory){
+			orderByExpectedRuntime(listOfClassesActuallyLaunched);
+		}
+		
+		// Pre-start worker processes for upcoming launches
+		if(numberOfPrestartedWorkers > 0 && launchesDirectly() && !launchClassesInLauncherJvm && !listOfClassesActuallyLaunched.isEmpty()){
+			ArrayList<String> javaCommand = new ArrayList<>();
+			if(runOnLimitedProcessors && coresForLaunchedProcessesOnLinux != null){
+				// Workers are pinned to their own cores upon dispatch
+				javaCommand.addAll(LinuxCoreAllocator.buildCommandPrefix(coresForLaunchedProcessesOnLinux));
+			}
+			javaCommand.add(javaExeCommand);
+			javaCommand.addAll(getLaunchJvmOptions());
+			ArrayList<String> upcomingClassNames = new ArrayList<>();
+			for(Class upcomingClass: listOfClassesActuallyLaunched){
+				upcomingClassNames.add(upcomingClass.getCanonicalName());
+			}
+			workerPool = new WorkerPool(javaCommand, getDirectLaunchClasspath(classpath), 
+					(subfolderForStdOutAndStdErrRedirections != null ? new File(subfolderForStdOutAndStdErrRedirections) : null), 
+					numberOfPrestartedWorkers, upcomingClassNames);
+			System.out.println(PREFIX + "Pre-starting up to " + numberOfPrestartedWorkers + " worker processes for upcoming launches.");
+		}
+		
+		// Classpath for classes run in launcher JVM
+		URL[] inJvmClasspath = (launchClassesInLauncherJvm ? toClasspathUrls(classpath) : null);
+		
 		// Counter for launched classes
 		int launchCt = 0;
 		
+		// Defer launches that would exhaust memory
+		if(useMemoryAdmissionControl && !launchClassesInLauncherJvm && MemoryAdmissionPolicy.isSupported()){
+			addAdmissionPolicy(new MemoryAdmissionPolicy(getRuntimeHistory(), memoryHeadroom, memorySamplingInterval));
+		}
+		// Defer launches while machine is under pressure
+		if(usePressureAdmissionControl && !launchClassesInLauncherJvm && PressureAdmissionPolicy.isSupported()){
+			addAdmissionPolicy(new PressureAdmissionPolicy(maxCpuStallPercentage, maxMemoryStallPercentage, maxIoStallPercentage, 
+					maxRunnableTasksPerCore, pressureSettlingTime));
+		}
+		
 		for(Class classToBeLaunched: listOfClassesActuallyLaunched){
+			// Wait until launch is admitted (before occupying a slot with slot broker)
+			awaitAdmission(classToBeLaunched);
 			System.out.println(getCurrentTimeString(true) + ": Attempting to start instance '" + classToBeLaunched.getSimpleName() + "'.");
 			Process launchedClassProcess = null;
 			// Wrapper for launched process
 			ProcessWrapper wrapper = null;
+			// Slot lease for launched process (if using slot broker)
+			SlotBrokerClient.Lease slotLease = null;
+			if(slotBroker != null){
+				System.out.println(getCurrentTimeString(true) + ": Requesting process slot from slot broker for '" + classToBeLaunched.getSimpleName() + "'.");
+				try {
+					slotLease = slotBroker.acquire();
+				} catch (IOException e) {
+					System.err.println(PREFIX + "Slot broker not reachable (" + e.getMessage() + "). Falling back to slot checks on running processes.");
+					slotBroker = null;
+					slotBrokerLost = true;
+				}
+			}
+			if(slotBrokerLost){
+				// Processes of other launchers have not been accounted for at start-up
+				awaitProcessTableSlot(classToBeLaunched, processCheckFrequencyForOtherLaunchersRunningProcesses);
+			}
 			
-			// Generate OS-dependent launch script
-			File scriptFile = runLaunchScriptGeneration(classToBeLaunched, classpath, javaExeCommand, openConsoleWindow, openConsoleWindowIfNotUsingWindowsVistaAndHigher, processorAffinityPrefixWindowsVistaAndHigher, processorAffinityPrefix);
+			// NUMA node and cores for launched process (if placed or restricted under Linux)
+			NumaTopology.Node numaNode = null;
+			NumaTopology.Placement numaPlacement = null;
+			LinuxCoreAllocator.Allocation coreAllocation = null;
+			List<String> affinityPrefix = new ArrayList<>();
+			if(numaTopology != null && !launchClassesInLauncherJvm){
+				List<NumaTopology.Node> rankedNodes = numaTopology.rankNodes();
+				for(NumaTopology.Node node: rankedNodes){
+					// Nodes whose cores are taken (e.g. by other launchers) are skipped when pinning
+					coreAllocation = (coreAllocator != null ? coreAllocator.allocate(node.getCores()) : null);
+					if(coreAllocator == null || coreAllocation != null){
+						numaNode = node;
+						break;
+					}
+				}
+				if(numaNode == null){
+					numaNode = rankedNodes.get(0);
+					System.out.println(getCurrentTimeString(true) + ": No free cores to pin '" + classToBeLaunched.getSimpleName() 
+							+ "' to. Running it on " + numaNode + ".");
+				}
+				numaPlacement = numaTopology.acquire(numaNode);
+				affinityPrefix = numaTopology.buildCommandPrefix(numaNode, coreAllocation != null ? coreAllocation.getCores() : null);
+				if(debug){
+					System.out.println(getCurrentTimeString(true) + ": Placed '" + classToBeLaunched.getSimpleName() + "' on " + numaNode 
+							+ (coreAllocation != null ? ", core(s) " + coreAllocation : "") + " (Occupancy: " + numaTopology.getOccupancy() + ").");
+				}
+			} else if(runOnLimitedProcessors && coresForLaunchedProcessesOnLinux != null && !launchClassesInLauncherJvm){
+				coreAllocation = (coreAllocator != null ? coreAllocator.allocate() : null);
+				if(coreAllocation != null){
+					affinityPrefix = coreAllocation.getCommandPrefix();
+					if(debug){
+						System.out.println(getCurrentTimeString(true) + ": Allocated core(s) " + coreAllocation + " to '" + classToBeLaunched.getSimpleName() + "'.");
+					}
+				} else {
+					if(coreAllocator != null){
+						System.out.println(getCurrentTimeString(true) + ": No free cores to pin '" + classToBeLaunched.getSimpleName() 
+								+ "' to. Running it on cores " + LinuxCoreAllocator.formatCoreList(coresForLaunchedProcessesOnLinux) + ".");
+					}
+					affinityPrefix = LinuxCoreAllocator.buildCommandPrefix(coresForLaunchedProcessesOnLinux);
+				}
+			}
 			
+			// Generate OS-dependent launch script (unless launching directly)
+			File scriptFile = null;
+			// Unique identifier for launched process (based on script file name if used)
+			String identifier;
+			// Additional JVM options for launched process
+			List<String> jvmOptions = getLaunchJvmOptions();
+			if(!launchesDirectly() && !launchClassesInLauncherJvm){
+				scriptFile = runLaunchScriptGeneration(classToBeLaunched, classpath, javaExeCommand + buildJvmOptionString(jvmOptions), openConsoleWindow, openConsoleWindowIfNotUsingWindowsVistaAndHigher, processorAffinityPrefixWindowsVistaAndHigher, 
+						(ProcessReader.runsOnLinux() ? (affinityPrefix.isEmpty() ? null : String.join(" ", affinityPrefix) + " ") : processorAffinityPrefix));
+				identifier = scriptFile.getName().substring(0, scriptFile.getName().indexOf(LAUNCH_SCRIPT_FILE_ENDING));
+			} else {
+				identifier = String.valueOf(System.nanoTime());
+			}
 			
 			// Wait for batch file to be created (in case of delayed execution)
-			while(!scriptFile.exists()){
+			while(scriptFile != null && !scriptFile.exists()){
 				try {
 					System.out.println(PREFIX + "Waiting for batch file '" + scriptFile.getName() + "' to be created ...");
 					Thread.sleep(100);
@@ -1297,8 +1857,10 @@ public class ParallelLauncher extends Launcher {
 			}
 			// Run script file
 			try {
-				String startCommand;
-				if (ProcessReader.runsOnLinux()) {
+				String startCommand = null;
+				if (scriptFile == null) {
+					// Direct launch - command is assembled as argument list
+				} else if (ProcessReader.runsOnLinux()) {
 					// Use -hold to keep window open after finishing run (debug)
 					if (keepWindowOpen) {
 						startCommand = "xterm -hold -e bash " + scriptFile.getAbsolutePath() + " &";
@@ -1318,22 +1880,70 @@ public class ParallelLauncher extends Launcher {
 					throw new RuntimeException(PREFIX + "Attempting to run ParallelLauncher on unknown OS.");
 				}
 				
-				if(logBatchFileExecution){
+				if(logBatchFileExecution && startCommand != null){
 					startCommand += " > " + scriptFile.getName().substring(0, scriptFile.getName().indexOf(LAUNCH_SCRIPT_FILE_ENDING));
 				}
-				if(debug){
-					System.out.println(getCurrentTimeString(true) + ": Running command: " + startCommand);
+				if(launchClassesInLauncherJvm){
+					// Run inside launcher JVM
+					File outputFile = createDirectLaunchOutputFile(classToBeLaunched, identifier);
+					if(debug){
+						System.out.println(getCurrentTimeString(true) + ": Running in launcher JVM, output is written to " + outputFile.getAbsolutePath());
+					}
+					launchedClassProcess = InJvmProcess.start(classToBeLaunched.getCanonicalName(), identifier, inJvmClasspath, argumentsToBePassedToLaunchedClasses, outputFile);
+				} else if(startCommand == null && workerPool != null){
+					// Hand task to pre-started worker
+					File outputFile = createDirectLaunchOutputFile(classToBeLaunched, identifier);
+					if(debug){
+						System.out.println(getCurrentTimeString(true) + ": Dispatching to pre-started worker (" + workerPool.getNumberOfIdleWorkers() 
+								+ " idle), output is written to " + outputFile.getAbsolutePath());
+					}
+					launchedClassProcess = workerPool.dispatch(classToBeLaunched.getCanonicalName(), identifier, outputFile, 
+							getRedirectionType(), createRedirectOutFilename(classToBeLaunched), argumentsToBePassedToLaunchedClasses);
+					if(coreAllocation != null || numaNode != null){
+						// Worker has been started before cores were allocated (memory placement cannot be changed anymore)
+						List<Integer> workerCores = (coreAllocation != null ? coreAllocation.getCores() : numaNode.getCores());
+						Long pid = ProcessReader.getProcessId(launchedClassProcess);
+						if(pid == null || !LinuxCoreAllocator.pin(pid, workerCores)){
+							System.err.println(getCurrentTimeString(true) + ": Could not pin worker for '" + classToBeLaunched.getSimpleName() 
+									+ "' to core(s) " + LinuxCoreAllocator.formatCoreList(workerCores) + ".");
+						}
+					}
+				} else {
+					ProcessBuilder pb = (startCommand == null ? 
+							createDirectLaunchProcessBuilder(classToBeLaunched, classpath, affinityPrefix, javaExeCommand, jvmOptions, identifier) :
+							new ProcessBuilder(tokenizeCommandStringToArrayList(startCommand)));
+					if(debug){
+						System.out.println(getCurrentTimeString(true) + ": Running command: " + (startCommand == null ? pb.command() : startCommand));
+					}
+					launchedClassProcess = pb.start();
 				}
-				ProcessBuilder pb = new ProcessBuilder(tokenizeCommandStringToArrayList(startCommand));
-				launchedClassProcess = pb.start();
 				// Execute all registered listeners upon start (and register listeners for process termination)
 				wrapper = new ProcessWrapper(classToBeLaunched.getSimpleName(), launchedClassProcess, ParallelLauncher.class); 
+				// Registered ahead of other listeners, as the ServiceHandler terminates the launcher after the last process
+				if(scheduleByRuntimeHistory){
+					getRuntimeHistory().track(wrapper, classToBeLaunched.getCanonicalName(), argumentsToBePassedToLaunchedClasses);
+				}
+				for(AdmissionPolicy policy: admissionPolicies){
+					policy.processLaunched(wrapper, classToBeLaunched.getCanonicalName(), argumentsToBePassedToLaunchedClasses);
+				}
+				if(coreAllocation != null || numaPlacement != null){
+					registerPlacement(wrapper, coreAllocation, numaPlacement);
+				}
 				executeListeners(wrapper, classToBeLaunched);
+				if(slotLease != null){
+					// Slot is returned to broker once process terminates
+					serviceHandler.registerSlotLease(wrapper, slotLease);
+				}
 				
 				if(debug){
 					System.out.println(getCurrentTimeString(true) + ": Started in process " + launchedClassProcess.toString());
 				}
-				if(delay){
+				if(waitForReadinessOfLaunchedProcesses){
+					// Continue once enough launched processes have loaded their classes
+					bootingProcesses.add(new BootingProcess(identifier, classToBeLaunched.getSimpleName(), launchedClassProcess));
+					awaitBootingProcesses(Math.max(maxNumberOfConcurrentlyBootingProcesses, 1) - 1);
+				} else if(delay && scriptFile != null){
+					// Delay only required to let launch scripts complete
 					try {
 						Thread.sleep(3000);
 					} catch (InterruptedException e) {
@@ -1346,12 +1956,13 @@ public class ParallelLauncher extends Launcher {
 					int exitVal = launchedClassProcess.exitValue();
 					System.out.println(getCurrentTimeString(true) + ": Execution of batch file spawning process '" + classToBeLaunched.getSimpleName() + "' has finished. Exit code: " + exitVal);
 					if(exitVal != 0){
-						throw new RuntimeException(PREFIX + "Unexpected response for Process " + classToBeLaunched.getSimpleName() + ": " + printProcessOutput(launchedClassProcess, scriptFile.getAbsolutePath(), true));
+						throw new RuntimeException(PREFIX + "Unexpected response for Process " + classToBeLaunched.getSimpleName() + ": " + printProcessOutput(wrapper, 
+								(scriptFile != null ? scriptFile.getAbsolutePath() : classToBeLaunched.getCanonicalName()), true));
 					}
 				} catch(IllegalThreadStateException ex){
 					// no output necessary, ProcessWrappers and respective listeners should take care of that.
 				}
-				if(deleteBatchFilesAfterStart){
+				if(deleteBatchFilesAfterStart && scriptFile != null){
 					// registering launch batch file for deletion
 					wrapper.registerScriptFileToBeDeletedAfterProcessTermination(scriptFile);
 				}
@@ -1359,13 +1970,23 @@ public class ParallelLauncher extends Launcher {
 				// Some drama occurred. Most likely space issues or device failure
 				e.printStackTrace();
 				System.err.println(getCurrentTimeString(true) + ": Problems launching process. Check for available harddrive space!");
+				if(wrapper == null && slotLease != null){
+					// Process has not been started, so return slot immediately
+					slotLease.release();
+				}
+				if(wrapper == null && coreAllocation != null){
+					coreAllocation.release();
+				}
+				if(wrapper == null && numaPlacement != null){
+					numaPlacement.release();
+				}
 			}
 			
 			// Increase launch counter
 			launchCt++;
 			
 			// Check for number of permissible running processes before starting further ones within this launcher (if there are further to be launched)
-			if(maxNumberOfRunningLaunchedProcesses != -1){
+			if(maxNumberOfRunningLaunchedProcesses != -1 && slotBroker == null){
 				while((serviceHandler.getNumberOfRunningProcesses() >= maxNumberOfRunningLaunchedProcesses) 
 						&& (listOfClassesActuallyLaunched.size() - launchCt) > 0){
 					StringBuilder builder = new StringBuilder(getCurrentTimeString(true)).append(": Waiting for at least ") 
@@ -1378,27 +1999,22 @@ public class ParallelLauncher extends Launcher {
 								.append("Next check in ").append((processCheckFrequencyForProcessesStartedByLauncher / 1000))
 								.append(" seconds.");
 					System.out.println(builder);
-					int res = awaitUserInput(processCheckFrequencyForProcessesStartedByLauncher, "recheck immediately", "debug", "toggle debug mode and recheck");
+					int res = awaitUserInputOrNotification(processCheckFrequencyForProcessesStartedByLauncher, changeNotifier, "recheck immediately", "debug", "toggle debug mode and recheck");
 					if(res == 2){
 						toggleDebugMode();
 					}
-					//Note: Alternative to waiting: register listener with service handler to be notified once process finishes
 				}
 			}
 		}
 		
-		/*
-		 * Clean up-related activities once all processes have been started
-		 */
-		// Eventually write temporary Jar files into delete log once started, so they can be safely deleted by the next launcher
-		if(!jarNameMapper.isEmpty()){
-			try {
-				FileUtils.writeLines(new File(CLEANUP_LOG_FILE), jarNameMapper.values(), true);
-			} catch (IOException e) {
-				System.err.println(PREFIX + "Error when writing to clean up log file.");
-				e.printStackTrace();
-			}
+		// Wait for remaining processes to load their classes
+		awaitBootingProcesses(0);
+		// Discard remaining pre-started workers
+		if(workerPool != null){
+			workerPool.shutdown();
+			workerPool = null;
 		}
+		
 		// Final output indicating that launcher is done - all necessary operations (spawning of child processes, writing log information) has finished
 		System.out.println(getCurrentTimeString(true) + ": All parallel processes have been spawned. For information on their runtime status, please check their respective consoles.");
 		
@@ -1427,52 +2043,415 @@ public class ParallelLauncher extends Launcher {
 	public static String subfolderForStdOutAndStdErrRedirections = null;
 	
 	/**
-	 * Start time of this ParallelLauncher instance (in WMI).
+	 * If switched on, processes are started directly via ProcessBuilder on Linux, 
+	 * i.e. without generating launch scripts and without opening a terminal window 
+	 * (which requires xterm and an X server). The console output of each process (as far 
+	 * as not redirected via {@link #redirectStdErrForLaunchedProcesses} or 
+	 * {@link #redirectStdOutAndStdErrForLaunchedProcesses}) is written to a file named after 
+	 * its identifier and class (in {@link #subfolderForStdOutAndStdErrRedirections} if specified). 
+	 * Automatically used if the runtime environment is headless. Ignored on Windows.
 	 */
-	private static String myStartTime = null;
+	public static boolean launchDirectlyWithoutTerminal = false;
 	
 	/**
-	 * If activated, the execution of batch files is logged for debugging purposes
+	 * Number of worker processes that are pre-started for upcoming launches when 
+	 * launching directly (see {@link #launchDirectlyWithoutTerminal}). Workers boot their 
+	 * JVM and load the class to be launched ahead of time, and are handed their task 
+	 * (identifier and arguments) once it is their turn, so launches do not wait for JVM 
+	 * startup. The pool is refilled in the background. Note that idle workers occupy 
+	 * memory and count as running processes for other launchers. 0 deactivates pre-starting.
+	 * Default: 0
 	 */
-	protected static boolean logBatchFileExecution = false;
+	public static int numberOfPrestartedWorkers = 0;
 	
-    /**
-     * Checks for valid specification of cores for psexec tool. 
-     * Automatically generates parameters if not specified yet.
-     * @return 
-     */
-    private static boolean validCoreSpecificationForPsExec(){
-        if(runOnLimitedProcessors && processorsToRunOnForWindowsOsWithoutAffinitySupport == null){
-        	System.out.println(PREFIX + "Running on all cores other than Core 0");
-        	setAffinityMaskForAllButCore0();
-        }
-    	//very simple check on valid specification of cores - TODO to be extended to check for format 1,2,3 etc.
-        return (processorsToRunOnForWindowsOsWithoutAffinitySupport != null && !processorsToRunOnForWindowsOsWithoutAffinitySupport.isEmpty());
-    }
-    
-    /**
-     * Checks for valid affinity mask specification (for Windows 7 and higher)
-     */
-    private static boolean validAffinityMaskSpecification(){
-        //very simple check on not-null and being filled - TODO to be extended for better semantic checks
-        return (processorsToRunOnAffinityMask != null && !processorsToRunOnAffinityMask.isEmpty());
-    }
-    
-    /**
-     * Prints the current configuration to console.
-     * @param integers Custom values relevant for configuration output, determined at runtime
-     * Currently: 
-     * integers[0] - actual queue check delay for launchers
-     * integers[1] - Check delay for processes started by previous launcher
-     */
-    private static void printCurrentConfiguration(Integer... integers){
-    	String bar = "-------------------------------------------------------------------";
-    	StringBuffer configOutput = new StringBuffer();
-    	configOutput.append("ParallelLauncher Configuration for launcher '").append(launcherClass.getSimpleName()).append("':").append(System.getProperty("line.separator"));
-    	configOutput.append(bar).append(System.getProperty("line.separator"));
-    	configOutput.append("Max. Number of Active Launchers: ").append(maxNumberOfActiveParallelLaunchers).append(System.getProperty("line.separator"));
-    	configOutput.append("Max. Number of Running Processes: ").append(maxNumberOfRunningLaunchedProcesses).append(System.getProperty("line.separator"));
-    	if(metaLauncherIpcFile != null){
+	/**
+	 * Pool of pre-started workers (null if not used)
+	 */
+	private static WorkerPool workerPool = null;
+	
+	/**
+	 * If switched on, launched classes are not run in separate processes, but inside the 
+	 * launcher JVM, each on its own thread with a fresh class loader over the (JARified) 
+	 * classpath, so static state is isolated between launched classes (see {@link InJvmProcess}). 
+	 * Calls of System.exit() only terminate the respective launched class, and its console 
+	 * output is written to a file named after its identifier and class (in 
+	 * {@link #subfolderForStdOutAndStdErrRedirections} if specified). Listeners are notified 
+	 * just as for launched processes. Avoids process startup overhead for lightweight classes, 
+	 * but launched classes share the launcher's heap and cannot be terminated forcibly. 
+	 * Note that launched classes do not appear in the process table, so other launchers do not 
+	 * count them towards {@link #maxNumberOfRunningLaunchedProcesses} unless slots are acquired 
+	 * from a slot broker (see {@link #useSlotBrokerIfAvailable}). 
+	 * Requires permission to install a security manager (falls back to launching processes otherwise).
+	 * Default: false
+	 */
+	public static boolean launchClassesInLauncherJvm = false;
+	
+	/**
+	 * If switched on, the launcher waits for launched processes to signal that they 
+	 * have loaded the class to be launched (see {@link WrapperExecutable#READY_MARKER_FILE_ENDING}) 
+	 * before starting further processes, instead of waiting for a fixed delay after each start.
+	 * (Recommended: true)
+	 */
+	public static boolean waitForReadinessOfLaunchedProcesses = true;
+	
+	/**
+	 * Maximum number of launched processes that may be booting (i.e. have not 
+	 * signalled readiness yet) at the same time. Higher values speed up the 
+	 * launch of many processes at the cost of concurrent JVM startups.
+	 */
+	public static int maxNumberOfConcurrentlyBootingProcesses = 1;
+	
+	/**
+	 * Maximum time (in ms) to wait for a launched process to signal readiness.
+	 * The launch continues once exceeded.
+	 */
+	public static long readinessTimeout = 60000;
+	
+	/**
+	 * Interval (in ms) in which readiness of booting processes is checked
+	 */
+	private static final long READINESS_CHECK_INTERVAL = 20;
+	
+	/**
+	 * If switched on, the runtimes of launched classes (per class and set of arguments) are 
+	 * recorded in the history file {@link #RUNTIME_HISTORY_FILE}, and classes are launched in 
+	 * order of their expected runtime (longest first), so long-running classes do not extend 
+	 * the overall runtime by being started last once only few slots are left 
+	 * (see {@link #maxNumberOfRunningLaunchedProcesses}). Classes without recorded runtimes 
+	 * retain their position in the launch order.
+	 * (Recommended: true)
+	 */
+	public static boolean scheduleByRuntimeHistory = true;
+	
+	/**
+	 * Weight of the most recent runtime in the moving average of runtimes kept 
+	 * per launched class (between 0 and 1). Higher values adapt faster to changed runtimes.
+	 * Default: 0.3
+	 */
+	public static float runtimeHistorySmoothingFactor = 0.3f;
+	
+	/**
+	 * File (in working directory) holding runtimes of launched classes
+	 */
+	public static final String RUNTIME_HISTORY_FILE = "ParallelLauncher_RuntimeHistory";
+	
+	/**
+	 * Runtime history of launched classes (null if not used yet)
+	 */
+	private static RuntimeHistory runtimeHistory = null;
+	
+	/**
+	 * Returns the runtime history of launched classes (read from {@link #RUNTIME_HISTORY_FILE} upon first use).
+	 * @return Runtime history
+	 */
+	private static synchronized RuntimeHistory getRuntimeHistory(){
+		if(runtimeHistory == null){
+			runtimeHistory = new RuntimeHistory(new File(System.getProperty("user.dir"), RUNTIME_HISTORY_FILE), runtimeHistorySmoothingFactor);
+		}
+		return runtimeHistory;
+	}
+	
+	/**
+	 * Orders the given classes by expected runtime according to the runtime history 
+	 * (longest first). Classes without history retain their position.
+	 * @param classes Classes to be launched (reordered in place)
+	 */
+	private static void orderByExpectedRuntime(List<Class> classes){
+		RuntimeHistory runtimeHistory = getRuntimeHistory();
+		ArrayList<String> classNames = new ArrayList<>();
+		for(Class clazz: classes){
+			classNames.add(clazz.getCanonicalName());
+		}
+		List<Integer> order = runtimeHistory.orderLongestFirst(classNames, argumentsToBePassedToLaunchedClasses);
+		ArrayList<Class> ordered = new ArrayList<>();
+		StringBuilder builder = new StringBuilder();
+		boolean reordered = false;
+		for(int i = 0; i < order.size(); i++){
+			ordered.add(classes.get(order.get(i)));
+			reordered |= (order.get(i) != i);
+			Long expected = runtimeHistory.getExpectedRuntime(classNames.get(order.get(i)), argumentsToBePassedToLaunchedClasses);
+			builder.append(i == 0 ? "" : ", ").append(classes.get(order.get(i)).getSimpleName())
+				.append(" (").append(expected != null ? (expected / 1000) + " s" : "unknown").append(")");
+		}
+		classes.clear();
+		classes.addAll(ordered);
+		if(reordered || debug){
+			System.out.println(PREFIX + "Launch order by expected runtime: " + builder);
+		}
+	}
+	
+	/**
+	 * If switched on, launches are deferred while the available memory (less a headroom 
+	 * of {@link #memoryHeadroom}) does not cover the expected peak memory consumption of 
+	 * the next class, as learned from previous runs (see {@link MemoryAdmissionPolicy}), 
+	 * in order to avoid swapping or processes being killed for lack of memory. 
+	 * Only available on Linux, ignored for classes run inside the launcher JVM.
+	 * (Recommended: true)
+	 */
+	public static boolean useMemoryAdmissionControl = true;
+	
+	/**
+	 * Fraction of total memory that is to be kept available when admitting launches 
+	 * (see {@link #useMemoryAdmissionControl}).
+	 * Default: 0.1
+	 */
+	public static float memoryHeadroom = 0.1f;
+	
+	/**
+	 * Interval (in ms) in which the memory consumption of launched processes is sampled 
+	 * (see {@link #useMemoryAdmissionControl}).
+	 */
+	public static long memorySamplingInterval = 1000;
+	
+	/**
+	 * If switched on, launches are deferred while the machine is under pressure, i.e. 
+	 * while the share of time in which tasks stalled on CPU, memory or I/O exceeds 
+	 * {@link #maxCpuStallPercentage}, {@link #maxMemoryStallPercentage} or {@link #maxIoStallPercentage} 
+	 * (Pressure Stall Information, Linux 4.20 and higher). Without pressure information, launches 
+	 * are deferred while the number of runnable tasks exceeds {@link #maxRunnableTasksPerCore} per core. 
+	 * Useful on machines shared with other users, for which a fixed 
+	 * {@link #maxNumberOfRunningLaunchedProcesses} leaves cores idle or oversubscribes them 
+	 * (see {@link PressureAdmissionPolicy}). Only available on Linux.
+	 * Default: false
+	 */
+	public static boolean usePressureAdmissionControl = false;
+	
+	/**
+	 * Maximum percentage of time (during the last 10 seconds) in which tasks may have 
+	 * stalled on CPU for launches to be admitted (see {@link #usePressureAdmissionControl}).
+	 * Default: 20
+	 */
+	public static float maxCpuStallPercentage = 20f;
+	
+	/**
+	 * Maximum percentage of time (during the last 10 seconds) in which tasks may have 
+	 * stalled on memory for launches to be admitted (see {@link #usePressureAdmissionControl}).
+	 * Default: 5
+	 */
+	public static float maxMemoryStallPercentage = 5f;
+	
+	/**
+	 * Maximum percentage of time (during the last 10 seconds) in which tasks may have 
+	 * stalled on I/O for launches to be admitted (see {@link #usePressureAdmissionControl}).
+	 * Default: 20
+	 */
+	public static float maxIoStallPercentage = 20f;
+	
+	/**
+	 * Maximum number of runnable tasks per core for launches to be admitted if no 
+	 * pressure information is available (see {@link #usePressureAdmissionControl}).
+	 * Default: 1
+	 */
+	public static float maxRunnableTasksPerCore = 1f;
+	
+	/**
+	 * Minimum time (in ms) after a launch before pressure is checked for the next launch, 
+	 * so the load of the launched process shows in the readings.
+	 * Default: 2000
+	 */
+	public static long pressureSettlingTime = 2000;
+	
+	/**
+	 * Maximum time (in ms) before a deferred launch is checked for admission again. 
+	 * Deferred launches are rechecked immediately once a launched process terminates.
+	 */
+	public static long admissionCheckInterval = 5000;
+	
+	/**
+	 * Admission policies consulted before each launch
+	 */
+	private static ArrayList<AdmissionPolicy> admissionPolicies = new ArrayList<>();
+	
+	/**
+	 * Registers an admission policy that is consulted before each launch (in addition 
+	 * to the limit on running processes). Launches are deferred until all registered 
+	 * policies admit them.
+	 * @param policy Admission policy
+	 */
+	protected static void addAdmissionPolicy(AdmissionPolicy policy){
+		if(!admissionPolicies.contains(policy)){
+			admissionPolicies.add(policy);
+		}
+	}
+	
+	/**
+	 * Blocks until all registered admission policies admit the launch of the given class.
+	 * @param classToBeLaunched Class to be launched
+	 */
+	private static void awaitAdmission(Class classToBeLaunched){
+		for(int i = 0; i < admissionPolicies.size(); i++){
+			String reason = admissionPolicies.get(i).checkAdmission(classToBeLaunched.getCanonicalName(), argumentsToBePassedToLaunchedClasses);
+			if(reason != null && Thread.currentThread().isInterrupted()){
+				// Launch without further deferral if interrupted
+				return;
+			}
+			if(reason != null){
+				System.out.println(getCurrentTimeString(true) + ": Deferring start of instance '" + classToBeLaunched.getSimpleName() + "'. " 
+						+ reason + ". Next check in " + (admissionCheckInterval / 1000) + " seconds.");
+				int res = awaitUserInputOrNotification(admissionCheckInterval, changeNotifier, "recheck immediately", "debug", "toggle debug mode and recheck");
+				if(res == 2){
+					toggleDebugMode();
+				}
+				// Recheck all policies
+				i = -1;
+			}
+		}
+	}
+	
+	/**
+	 * Blocks until the number of running processes of launched classes (including the ones 
+	 * of other launchers) permits launching a further process. Used in place of the slot 
+	 * checks performed at start-up (which are skipped if a slot broker is used).
+	 * @param classToBeLaunched Class to be launched
+	 * @param checkFrequency Interval (in milliseconds) between checks
+	 */
+	private static void awaitProcessTableSlot(Class classToBeLaunched, int checkFrequency){
+		if(maxNumberOfActiveParallelLaunchers <= 1 || maxNumberOfRunningLaunchedProcesses == -1){
+			return;
+		}
+		while(true){
+			processReader.invalidateProcessInformation();
+			int running = processReader.retrieveProcessesRunningJavaClasses(classesToBeTestedInRunningProcesses).size();
+			if(running < maxNumberOfRunningLaunchedProcesses || Thread.currentThread().isInterrupted()){
+				return;
+			}
+			System.out.println(getCurrentTimeString(true) + ": Deferring start of instance '" + classToBeLaunched.getSimpleName() 
+					+ "'. Number of running processes across launchers: " + running + ", max. allowed: " + maxNumberOfRunningLaunchedProcesses 
+					+ ". Next check in " + (checkFrequency / 1000) + " seconds.");
+			int res = awaitUserInputOrNotification(checkFrequency, changeNotifier, "recheck immediately", "debug", "toggle debug mode and recheck");
+			if(res == 2){
+				toggleDebugMode();
+			}
+		}
+	}
+	
+	/**
+	 * Launched process that has not signalled readiness yet.
+	 */
+	private static class BootingProcess {
+		
+		final String identifier;
+		final String name;
+		final Process process;
+		final long startTime = System.currentTimeMillis();
+		
+		BootingProcess(String identifier, String name, Process process){
+			this.identifier = identifier;
+			this.name = name;
+			this.process = process;
+		}
+	}
+	
+	/**
+	 * Launched processes that have not signalled readiness yet
+	 */
+	private static ArrayList<BootingProcess> bootingProcesses = new ArrayList<>();
+	
+	/**
+	 * Blocks until at most the given number of launched processes is still booting. 
+	 * Processes are considered booted once they signal readiness, terminate, or 
+	 * exceed the {@link #readinessTimeout}. Readiness markers of processes that exceeded 
+	 * the timeout are deleted once the processes have terminated.
+	 * @param maxNumberOfBootingProcesses Maximum number of processes that may still be booting
+	 */
+	private static void awaitBootingProcesses(int maxNumberOfBootingProcesses){
+		while(bootingProcesses.size() > maxNumberOfBootingProcesses){
+			Iterator<BootingProcess> it = bootingProcesses.iterator();
+			while(it.hasNext()){
+				BootingProcess booting = it.next();
+				File marker = new File(booting.identifier + WrapperExecutable.READY_MARKER_FILE_ENDING);
+				if(marker.exists()){
+					if(debug){
+						System.out.println(getCurrentTimeString(true) + ": Process '" + booting.name + "' signalled readiness after " 
+								+ (System.currentTimeMillis() - booting.startTime) + " ms.");
+					}
+					FileUtils.deleteQuietly(marker);
+					it.remove();
+				} else if(!booting.process.isAlive()){
+					// Terminated before (or without) signalling readiness
+					FileUtils.deleteQuietly(marker);
+					it.remove();
+				} else if(System.currentTimeMillis() - booting.startTime > readinessTimeout){
+					System.err.println(getCurrentTimeString(true) + ": Process '" + booting.name + "' did not signal readiness within " 
+							+ readinessTimeout + " ms. Continuing launch ...");
+					// Marker may still be created later, so remove it once process has terminated
+					final File lateMarker = marker;
+					ProcessCompletionService.register(booting.process, new Runnable() {
+						
+						@Override
+						public void run() {
+							FileUtils.deleteQuietly(lateMarker);
+						}
+					});
+					it.remove();
+				}
+			}
+			if(bootingProcesses.size() > maxNumberOfBootingProcesses){
+				try {
+					Thread.sleep(READINESS_CHECK_INTERVAL);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Indicates whether processes are launched directly without launch scripts 
+	 * (see {@link #launchDirectlyWithoutTerminal}).
+	 * @return true if processes are launched directly
+	 */
+	private static boolean launchesDirectly(){
+		return ProcessReader.runsOnLinux() && (launchDirectlyWithoutTerminal || GraphicsEnvironment.isHeadless());
+	}
+	
+	/**
+	 * Start time of this ParallelLauncher instance (in WMI).
+	 */
+	private static String myStartTime = null;
+	
+	/**
+	 * If activated, the execution of batch files is logged for debugging purposes
+	 */
+	protected static boolean logBatchFileExecution = false;
+	
+    /**
+     * Checks for valid specification of cores for psexec tool. 
+     * Automatically generates parameters if not specified yet.
+     * @return 
+     */
+    private static boolean validCoreSpecificationForPsExec(){
+        if(runOnLimitedProcessors && processorsToRunOnForWindowsOsWithoutAffinitySupport == null){
+        	System.out.println(PREFIX + "Running on all cores other than Core 0");
+        	setAffinityMaskForAllButCore0();
+        }
+    	//very simple check on valid specification of cores - TODO to be extended to check for format 1,2,3 etc.
+        return (processorsToRunOnForWindowsOsWithoutAffinitySupport != null && !processorsToRunOnForWindowsOsWithoutAffinitySupport.isEmpty());
+    }
+    
+    /**
+     * Checks for valid affinity mask specification (for Windows 7 and higher)
+     */
+    private static boolean validAffinityMaskSpecification(){
+        //very simple check on not-null and being filled - TODO to be extended for better semantic checks
+        return (processorsToRunOnAffinityMask != null && !processorsToRunOnAffinityMask.isEmpty());
+    }
+    
+    /**
+     * Prints the current configuration to console.
+     * @param integers Custom values relevant for configuration output, determined at runtime
+     * Currently: 
+     * integers[0] - actual queue check delay for launchers
+     * integers[1] - Check delay for processes started by previous launcher
+     */
+    private static void printCurrentConfiguration(Integer... integers){
+    	String bar = "-------------------------------------------------------------------";
+    	StringBuffer configOutput = new StringBuffer();
+    	configOutput.append("ParallelLauncher Configuration for launcher '").append(launcherClass.getSimpleName()).append("':").append(System.getProperty("line.separator"));
+    	configOutput.append(bar).append(System.getProperty("line.separator"));
+    	configOutput.append("Max. Number of Active Launchers: ").append(maxNumberOfActiveParallelLaunchers).append(System.getProperty("line.separator"));
+    	configOutput.append("Max. Number of Running Processes: ").append(maxNumberOfRunningLaunchedProcesses).append(System.getProperty("line.separator"));
+    	if(metaLauncherIpcFile != null){
     		//started via MetaLauncher
     		configOutput.append("MetaLauncher ID: ").append(metaLauncherIpcFile);
     		if(configFileCheckForLauncherConfiguration) {
@@ -1510,11 +2489,36 @@ public class ParallelLauncher extends Launcher {
     		.append(System.getProperty("line.separator"));
     	//JDK and compilation stuff
     	configOutput.append("JDK path: ").append(jdkBinPath == null ? "<to be determined>" : jdkBinPath).append(System.getProperty("line.separator"));
+    	configOutput.append("Temporary JAR generation: ").append(useJarToolForJarGeneration ? "JDK jar tool" : "in-process (compression level " + temporaryJarCompressionLevel + ")")
+    		.append(usesJarCache() ? ", cached in " + getJarCacheDirectory().getAbsolutePath() : "").append(System.getProperty("line.separator"));
+    	if(usesClasspathSnapshots()){
+    		configOutput.append("Freezing classpath directories as snapshot directories instead of JAR files").append(System.getProperty("line.separator"));
+    	}
     	configOutput.append("Using unified JAR file for all launched processes: ").append(unifiedJarFilename == null ? "<to be generated>" : unifiedJarFilename)
     		.append(" in subfolder '").append(tempJarSubfolder).append("'").append(System.getProperty("line.separator"));
+    	if(launchClassesInLauncherJvm){
+    		configOutput.append("Running launched classes inside launcher JVM").append(System.getProperty("line.separator"));
+    	} else if(numberOfPrestartedWorkers > 0 && launchesDirectly()){
+    		configOutput.append("Pre-starting up to ").append(numberOfPrestartedWorkers).append(" worker processes for direct launches")
+    			.append(System.getProperty("line.separator"));
+    	}
+    	configOutput.append("Class Data Sharing archive for launched processes ").append(useClassDataSharingArchive ? "activated" : "deactivated")
+    		.append(System.getProperty("line.separator"));
+    	configOutput.append("Launch order by runtime history (longest first) ").append(scheduleByRuntimeHistory ? "activated" : "deactivated")
+    		.append(System.getProperty("line.separator"));
+    	configOutput.append("Memory-aware admission of launches ").append(useMemoryAdmissionControl ? "activated (headroom: " + Math.round(memoryHeadroom * 100) + "% of memory)" : "deactivated")
+    		.append(System.getProperty("line.separator"));
+    	configOutput.append("Pressure-aware admission of launches ").append(usePressureAdmissionControl ? "activated" : "deactivated")
+    		.append(System.getProperty("line.separator"));
+    	configOutput.append("NUMA-aware placement of launched processes ").append(numaTopology != null ? "activated (" + numaTopology.getNodes().size() + " nodes" + (bindLaunchedProcessesToNumaNodeMemory ? ", strict memory binding" : "") + ")" : 
+    			(useNumaAwarePlacement ? "activated (not applicable on this machine)" : "deactivated"))
+    		.append(System.getProperty("line.separator"));
     	//Processor affinity stuff
     	if(!runOnLimitedProcessors){
     		configOutput.append("ParallelLauncher uses all CPU cores.");
+    	} else if(coresForLaunchedProcessesOnLinux != null){
+    		configOutput.append("CPU core affinity settings: ").append(LinuxCoreAllocator.formatCoreList(coresForLaunchedProcessesOnLinux))
+    			.append(coreAllocator != null ? " (pinning " + coresPerLaunchedProcess + " core(s) per process)" : "");
     	} else {
     		configOutput.append("CPU core affinity settings: ")
     			.append(processorsToRunOnAffinityMask == null ? 
@@ -1575,6 +2579,11 @@ public class ParallelLauncher extends Launcher {
 		if(launcherClass.equals(BlockingParallelLauncher.class)){
 			return -2;
 		}
+		if(ticketQueue != null){
+			return myTurnInTicketQueue();
+		}
+		// New check cycle - capture current process table once for all subsequent queries
+		processReader.invalidateProcessInformation();
 		//get all creation times of this process
 		List<String> output = processReader.getCreationTimesOfRunningInstances(launcherClass, WrapperExecutable.class);
 		if(debug){
@@ -1590,19 +2599,18 @@ public class ParallelLauncher extends Launcher {
 		}
 		//order times ascending
 		Collections.sort(output);
-		//assume that my start is the most recent one (last one in sorted collection) and memorize that
 		if(myStartTime == null){
-			//once set it is only used for comparison
-			myStartTime = output.get(output.size() - 1);
-			System.out.println(PREFIX + "Assume my creation time as " + myStartTime);
-			//if one launcher running and creation of temporary JAR files deactivated, warn user about confounded setups
-			if(output.size() == 1 && !createTemporaryJarFilesForQueueing){
-				System.err.println(PREFIX + "=== Starting further launcher instances or working on source files should NOT be done" + System.getProperty("line.separator")
-						+ "if you are running launchers from an IDE that compiles source files automatically as it will affect all queued launchers." + System.getProperty("line.separator")
-						+ "Activate the generation of temporary JAR files if you want to queue more launchers or work on source files during launcher runs. ===");
+			//use exact creation time of this process if process reader can determine it
+			String currentProcessStartTime = processReader.getCreationTimeOfCurrentProcess();
+			if(currentProcessStartTime != null && output.contains(currentProcessStartTime)){
+				myStartTime = currentProcessStartTime;
 			} else {
-				System.out.println(PREFIX + "=== SUCCESS! You can now safely start further launcher instances. ===");
+				//else assume that my start is the most recent one (last one in sorted collection) and memorize that
+				myStartTime = output.get(output.size() - 1);
 			}
+			//once set it is only used for comparison
+			System.out.println(PREFIX + "Assume my creation time as " + myStartTime);
+			printQueueRegistrationFeedback(output.size() == 1);
 		}
 		//check for blocking launcher
 		List<String> blockerRunning = processReader.getCreationTimesOfRunningInstances(BlockingParallelLauncher.class, null);
@@ -1633,6 +2641,128 @@ public class ParallelLauncher extends Launcher {
 		return -1;
 	}
 
+	/**
+	 * Informs the user whether further launcher instances can be started 
+	 * once this launcher's queue position is determined.
+	 * @param onlyQueuedLauncher Indicates whether this launcher is the only one queued
+	 */
+	private static void printQueueRegistrationFeedback(boolean onlyQueuedLauncher){
+		//if one launcher running and creation of temporary JAR files deactivated, warn user about confounded setups
+		if(onlyQueuedLauncher && !createTemporaryJarFilesForQueueing){
+			System.err.println(PREFIX + "=== Starting further launcher instances or working on source files should NOT be done" + System.getProperty("line.separator")
+					+ "if you are running launchers from an IDE that compiles source files automatically as it will affect all queued launchers." + System.getProperty("line.separator")
+					+ "Activate the generation of temporary JAR files if you want to queue more launchers or work on source files during launcher runs. ===");
+		} else {
+			System.out.println(PREFIX + "=== SUCCESS! You can now safely start further launcher instances. ===");
+		}
+	}
+	
+	/**
+	 * Returns the directory shared by all launchers for coordination.
+	 * @return Shared runtime directory
+	 */
+	public static File getSharedRuntimeDirectory(){
+		return new File(sharedRuntimeDirectory != null ? sharedRuntimeDirectory : 
+			System.getProperty("java.io.tmpdir") + FOLDER_SEPARATOR + "ParallelLauncher_Runtime_" + System.getProperty("user.name"));
+	}
+	
+	/**
+	 * Initializes notifier for change notifications and starts watching for 
+	 * notifications of other launchers. Deactivates change notifications if 
+	 * the shared runtime directory cannot be used.
+	 */
+	private static void initializeChangeNotifications(){
+		try {
+			changeNotifier = new ChangeNotifier(getSharedRuntimeDirectory());
+			changeNotifier.startWatching();
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Could not set up change notifications in " + getSharedRuntimeDirectory().getAbsolutePath() 
+					+ " (" + e.getMessage() + "). Relying on regular queue checks only.");
+			changeNotifier = null;
+			useChangeNotificationsForQueueChecks = false;
+		}
+	}
+	
+	/**
+	 * Notifies waiting launchers about a state change, such as 
+	 * a terminated process (if change notifications are activated).
+	 */
+	protected static void notifyWaitingLaunchers(){
+		if(changeNotifier != null){
+			changeNotifier.notifyWaitingParties();
+		}
+	}
+	
+	/**
+	 * Leaves the launcher queue (if ticket-based ordering is used) and notifies 
+	 * waiting launchers. Should be called once all processes have terminated.
+	 */
+	protected static void leaveLauncherQueue(){
+		if(ticketQueue != null){
+			ticketQueue.releaseTicket();
+		}
+		notifyWaitingLaunchers();
+	}
+	
+	/**
+	 * Draws a ticket in the ticket queue of this launcher's class (or registers 
+	 * as running blocking launcher). Deactivates ticket-based queueing if the 
+	 * queue directory cannot be used.
+	 */
+	private static void registerInTicketQueue(){
+		File queueRoot = getSharedRuntimeDirectory();
+		try {
+			blockingLauncherTicketQueue = new LauncherTicketQueue(new File(queueRoot, BlockingParallelLauncher.class.getCanonicalName()));
+			if(launcherClass.equals(BlockingParallelLauncher.class)){
+				blockingLauncherTicketQueue.drawTicket();
+				return;
+			}
+			ticketQueue = new LauncherTicketQueue(new File(queueRoot, launcherClass.getCanonicalName()));
+			long ticket = ticketQueue.drawTicket();
+			if(debug){
+				System.out.println(PREFIX + "Drew ticket " + ticket + " in launcher queue " + ticketQueue.getQueueDirectory().getAbsolutePath());
+			}
+			onlyQueuedLauncherWhenDrawingTicket = (ticketQueue.getNumberOfLiveTickets() == 1);
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Could not use launcher queue in " + queueRoot.getAbsolutePath() 
+					+ " (" + e.getMessage() + "). Falling back to queue inference from running processes.");
+			if(ticketQueue != null){
+				ticketQueue.releaseTicket();
+			}
+			if(blockingLauncherTicketQueue != null){
+				blockingLauncherTicketQueue.releaseTicket();
+			}
+			ticketQueue = null;
+			blockingLauncherTicketQueue = null;
+			onlyQueuedLauncherWhenDrawingTicket = null;
+			useTicketQueueForLauncherOrdering = false;
+		}
+	}
+	
+	/**
+	 * Determines the queue position of this launcher from the ticket queue.
+	 * Return codes correspond to {@link #myTurnInRunning()}.
+	 * @return Queue position, -1 if queue could not be read, -2 if blocking launcher is running
+	 */
+	private static Integer myTurnInTicketQueue(){
+		try {
+			if(blockingLauncherTicketQueue.getNumberOfLiveTickets() > 0){
+				System.err.println(PREFIX + "Blocking Launcher is running. Will prevent me and any other launcher from starting (good for setup of large number of launchers).");
+				return -2;
+			}
+			int position = ticketQueue.getPosition();
+			if(position == 0){
+				System.out.println(PREFIX + "First in launcher queue (ticket " + ticketQueue.getTicket() + ") - my turn next.");
+			} else {
+				System.out.println(PREFIX + "Need to wait for " + position + " queued launcher(s) (ticket " + ticketQueue.getTicket() + ").");
+			}
+			return position;
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Could not read launcher queue: " + e.getMessage() + ". Will recheck ....");
+			return -1;
+		}
+	}
+	
 	/**
 	 * Absolute path to jar tool (without specifying jar tool itself) used to
 	 * build jars from class files. If null, launcher assumes it to be on classpath.
@@ -1728,7 +2858,7 @@ public class ParallelLauncher extends Launcher {
 	 * @param classpath Classpath to be added for execution
 	 * @param javaCommand Java command prefix to be complemented with arguments, etc.
 	 * @param openSeparateConsoleWindow Indicates whether initiated instance should be launched in separate terminal
-	 * @param processorAffinityPrefix Processor prefix - ignored under Linux (for now)
+	 * @param processorAffinityPrefix Processor affinity prefix (taskset invocation including trailing space; null if none)
 	 * @return Reference to generated launch script
 	 */
 	private static File runLaunchScriptLinux(Class classToBeLaunched, String classpath, String javaCommand, boolean openSeparateConsoleWindow, String processorAffinityPrefix) {
@@ -1736,12 +2866,7 @@ public class ParallelLauncher extends Launcher {
 		File scriptFile = new File(System.nanoTime() + LAUNCH_SCRIPT_FILE_ENDING);
 		
 		//generate stdout/stderr redirection outfile - or leave it as null if no redirection activated
-		String redirectOutFilename = null;
-		if(redirectStdErrForLaunchedProcesses || redirectStdOutAndStdErrForLaunchedProcesses){
-			SimpleDateFormat simpleFormat = new SimpleDateFormat("yyyyMMdd_HHmmss");
-			redirectOutFilename = (subfolderForStdOutAndStdErrRedirections != null ? subfolderForStdOutAndStdErrRedirections + "/" : "") 
-					+ simpleFormat.format(getCurrentTime()) + "_" + classToBeLaunched.getSimpleName() + "_Console";
-		}
+		String redirectOutFilename = createRedirectOutFilename(classToBeLaunched);
 		
 		// Generate final command to be executed in order to instantiate class
 		String cmd =
@@ -1749,8 +2874,8 @@ public class ParallelLauncher extends Launcher {
 			// Save classpath variable
 			(createTemporaryClasspathVariable ? classpath : "")
 			
-			//process affinity stuff TODO: Not supported yet
-			//+ (runOnLimitedProcessors ? processorAffinityPrefix : defaultStartCmd)
+			// Processor affinity (taskset invocation)
+			+ (runOnLimitedProcessors && processorAffinityPrefix != null ? processorAffinityPrefix : "")
 			
 			// Actual Java command containing eventual jdkBinPath and java command inclusive classpath and launched class
 			+ javaCommand + 
@@ -1760,7 +2885,7 @@ public class ParallelLauncher extends Launcher {
 				WrapperExecutable.class.getCanonicalName()
 			// Add redirection parameters (redirect type, outfile, identifier, executable class name)
 				// Type of redirection (as specified by constants in WrapperExecutable
-			+ " " + (redirectStdOutAndStdErrForLaunchedProcesses ? WrapperExecutable.REDIRECT_BOTH : (redirectStdErrForLaunchedProcesses ? WrapperExecutable.REDIRECT_STDERR : WrapperExecutable.REDIRECT_NONE))
+			+ " " + getRedirectionType()
 				// Redirection outfile name
 			+ " " + redirectOutFilename
 				// Unique identifier for launched process (based on batch file name)
@@ -1793,6 +2918,129 @@ public class ParallelLauncher extends Launcher {
 		return null;
 	}
 	
+	/**
+	 * Generates the name of the file stdout/stderr output of a launched process is redirected 
+	 * to by {@link WrapperExecutable} (see {@link #redirectStdErrForLaunchedProcesses} and 
+	 * {@link #redirectStdOutAndStdErrForLaunchedProcesses}).
+	 * @param classToBeLaunched Class to be launched
+	 * @return Redirection outfile name or null if no redirection activated
+	 */
+	private static String createRedirectOutFilename(Class classToBeLaunched){
+		if(!redirectStdErrForLaunchedProcesses && !redirectStdOutAndStdErrForLaunchedProcesses){
+			return null;
+		}
+		SimpleDateFormat simpleFormat = new SimpleDateFormat("yyyyMMdd_HHmmss");
+		return (subfolderForStdOutAndStdErrRedirections != null ? subfolderForStdOutAndStdErrRedirections + "/" : "") 
+				+ simpleFormat.format(getCurrentTime()) + "_" + classToBeLaunched.getSimpleName() + "_Console";
+	}
+	
+	/**
+	 * Returns the type of redirection applied by {@link WrapperExecutable} for launched processes.
+	 * @return Redirection type as specified by constants in {@link WrapperExecutable}
+	 */
+	private static String getRedirectionType(){
+		return (redirectStdOutAndStdErrForLaunchedProcesses ? WrapperExecutable.REDIRECT_BOTH : 
+			(redirectStdErrForLaunchedProcesses ? WrapperExecutable.REDIRECT_STDERR : WrapperExecutable.REDIRECT_NONE));
+	}
+	
+	/**
+	 * Returns the classpath of directly launched processes, which corresponds to the 
+	 * classpath of processes started via Linux launch scripts (i.e. with the local bin 
+	 * folder prepended unless a JDK path is specified).
+	 * @param classpath Plain classpath
+	 * @return Classpath passed to directly launched processes
+	 */
+	private static String getDirectLaunchClasspath(String classpath){
+		return (jdkBinPath == null ? "./bin" + CLASSPATH_SEPARATOR + classpath : classpath);
+	}
+	
+	/**
+	 * Concatenates JVM options for use in launch scripts (each option quoted 
+	 * and preceded by a space).
+	 * @param jvmOptions JVM options
+	 * @return Option string (empty if no options)
+	 */
+	private static String buildJvmOptionString(List<String> jvmOptions){
+		StringBuilder options = new StringBuilder();
+		for(String option: jvmOptions){
+			options.append(" \"").append(option).append("\"");
+		}
+		return options.toString();
+	}
+	
+	/**
+	 * Prepares direct launch of a given class (without launch script) on Linux. The classpath 
+	 * is passed via environment variable (see {@link #getDirectLaunchClasspath(String)}), and 
+	 * console output is redirected to file natively. Output redirection settings are applied 
+	 * by {@link WrapperExecutable} just as for processes started via launch scripts, i.e. only 
+	 * output not redirected by it is written to the console output file.
+	 * @param classToBeLaunched Class to be launched
+	 * @param classpath Plain classpath for launched process
+	 * @param commandPrefix Command preceding the Java executable (e.g. for processor affinity; may be empty)
+	 * @param javaCommand Java executable
+	 * @param jvmOptions Additional JVM options
+	 * @param identifier Unique identifier for launched process
+	 * @return ProcessBuilder ready to start process
+	 */
+	private static ProcessBuilder createDirectLaunchProcessBuilder(Class classToBeLaunched, String classpath, List<String> commandPrefix, String javaCommand, List<String> jvmOptions, String identifier) {
+		ArrayList<String> command = new ArrayList<>(commandPrefix);
+		command.add(javaCommand);
+		command.addAll(jvmOptions);
+		command.add(WrapperExecutable.class.getCanonicalName());
+		// Type of redirection (as specified by constants in WrapperExecutable) and redirection outfile
+		command.add(getRedirectionType());
+		command.add(String.valueOf(createRedirectOutFilename(classToBeLaunched)));
+		command.add(identifier);
+		command.add(classToBeLaunched.getCanonicalName());
+		if(argumentsToBePassedToLaunchedClasses != null){
+			command.addAll(Arrays.asList(argumentsToBePassedToLaunchedClasses));
+		}
+		ProcessBuilder pb = new ProcessBuilder(command);
+		pb.environment().put("CLASSPATH", getDirectLaunchClasspath(classpath));
+		
+		// Console output (as far as not redirected by WrapperExecutable)
+		File outputFile = createDirectLaunchOutputFile(classToBeLaunched, identifier);
+		pb.redirectErrorStream(true);
+		pb.redirectOutput(outputFile);
+		if(debug){
+			System.out.println(getCurrentTimeString(true) + ": Output of '" + classToBeLaunched.getSimpleName() + "' is written to " + outputFile.getAbsolutePath());
+		}
+		return pb;
+	}
+	
+	/**
+	 * Converts a (plain) classpath into URLs for class loading.
+	 * @param classpath Classpath
+	 * @return Classpath entries as URLs
+	 */
+	private static URL[] toClasspathUrls(String classpath) {
+		ArrayList<URL> urls = new ArrayList<>();
+		StringTokenizer tok = new StringTokenizer(classpath, CLASSPATH_SEPARATOR);
+		while(tok.hasMoreTokens()){
+			try {
+				urls.add(new File(tok.nextToken()).toURI().toURL());
+			} catch (MalformedURLException e) {
+				throw new RuntimeException(PREFIX + "Invalid classpath entry: " + e.getMessage(), e);
+			}
+		}
+		return urls.toArray(new URL[urls.size()]);
+	}
+	
+	/**
+	 * Determines the output file of a directly launched process (creating its parent directory if required).
+	 * @param classToBeLaunched Class to be launched
+	 * @param identifier Unique identifier for launched process
+	 * @return Output file
+	 */
+	private static File createDirectLaunchOutputFile(Class classToBeLaunched, String identifier) {
+		File outputFile = new File((subfolderForStdOutAndStdErrRedirections != null ? subfolderForStdOutAndStdErrRedirections + FOLDER_SEPARATOR : "") 
+				+ identifier + "_" + classToBeLaunched.getSimpleName() + "_Output");
+		if(outputFile.getAbsoluteFile().getParentFile() != null){
+			outputFile.getAbsoluteFile().getParentFile().mkdirs();
+		}
+		return outputFile;
+	}
+	
 	private static File runLaunchScriptWindows(Class classToBeLaunched, String classpath, String javaCommand, boolean openSeparateConsoleWindow, boolean openConsoleWindowIfNotUsingWindowsVistaAndHigher, String processorAffinityPrefixWindowsVistaAndHigher, String processorAffinityPrefix) {
 		// Generate unique batch file name for launch
 		File scriptFile = new File(System.nanoTime() + LAUNCH_SCRIPT_FILE_ENDING);
@@ -1800,12 +3048,7 @@ public class ParallelLauncher extends Launcher {
 		String defaultStartCmd = "start /WAIT ";
 		
 		// Generate stdout/stderr redirection outfile - or leave it as null if no redirection activated
-		String redirectOutFilename = null;
-		if(redirectStdErrForLaunchedProcesses || redirectStdOutAndStdErrForLaunchedProcesses){
-			SimpleDateFormat simpleFormat = new SimpleDateFormat("yyyyMMdd_HHmmss");
-			redirectOutFilename = (subfolderForStdOutAndStdErrRedirections != null ? subfolderForStdOutAndStdErrRedirections + "/" : "") 
-					+ simpleFormat.format(getCurrentTime()) + "_" + classToBeLaunched.getSimpleName() + "_Console";
-		}
+		String redirectOutFilename = createRedirectOutFilename(classToBeLaunched);
 		
 		// Generate final command to be executed in order to instantiate class
 		String cmd =
@@ -1825,7 +3068,7 @@ public class ParallelLauncher extends Launcher {
 			+ javaCommand + " " + WrapperExecutable.class.getCanonicalName()
 			// Add redirection parameters (redirect type, outfile, identifier, executable class name)
 				// Type of redirection (as specified by constants in WrapperExecutable
-			+ " " + (redirectStdOutAndStdErrForLaunchedProcesses ? WrapperExecutable.REDIRECT_BOTH : (redirectStdErrForLaunchedProcesses ? WrapperExecutable.REDIRECT_STDERR : WrapperExecutable.REDIRECT_NONE))
+			+ " " + getRedirectionType()
 				// Redirection outfile name
 			+ " " + redirectOutFilename
 				// Unique identifier for launched process (based on batch file name)
@@ -1864,20 +3107,49 @@ public class ParallelLauncher extends Launcher {
 			// TODO Auto-generated catch block
 			e1.printStackTrace();
 		}
-		return null;
+		return null;
+	}
+	
+	
+	
+	/**
+	 * This method builds a Jar file with a given (absolute) name recursively from 
+	 * a given (absolute) directory. Note: All passed parameters should be absolute paths.
+	 * @param directory Absolute path of directory to be put into Jar file (recursively)
+	 * @param targetFilename Absolute path of target file
+	 * @return Target file name as given by the user. Throws exception of generation of 
+	 * Jar file or any other related operation failed.
+	 */
+	private static String buildJarFromDirectory(String directory, String targetFilename){
+		if(useJarToolForJarGeneration){
+			return buildJarFromDirectoryUsingJarTool(directory, targetFilename);
+		}
+		if(debug){
+			System.out.println(PREFIX + "Trying to build temporary JAR for " + directory + " using target filename: " + targetFilename);
+		}
+		System.out.println(PREFIX + "Generating temporary JAR file " + targetFilename);
+		try {
+			new JarBuilder(temporaryJarCompressionLevel).build(new File(directory), new File(targetFilename));
+		} catch (IOException | IllegalArgumentException e) {
+			FileUtils.deleteQuietly(new File(targetFilename));
+			throw new RuntimeException(PREFIX + "Packaging of class files from directory " + directory + " into JAR file " + targetFilename + " failed: " + e.getMessage(), e);
+		}
+		if(debug){
+			System.out.println(PREFIX + "JAR file " + targetFilename + " successfully generated.");
+		}
+		return targetFilename;
 	}
 	
-	
-	
 	/**
-	 * This method builds a Jar file with a given (absolute) name recursively from 
-	 * a given (absolute) directory. Note: All passed parameters should be absolute paths.
+	 * Builds a Jar file from a given directory by forking the JDK's jar tool 
+	 * via a temporary batch file (see {@link #useJarToolForJarGeneration}). 
+	 * Note: All passed parameters should be absolute paths.
 	 * @param directory Absolute path of directory to be put into Jar file (recursively)
 	 * @param targetFilename Absolute path of target file
 	 * @return Target file name as given by the user. Throws exception of generation of 
 	 * Jar file or any other related operation failed.
 	 */
-	private static String buildJarFromDirectory(String directory, String targetFilename){
+	private static String buildJarFromDirectoryUsingJarTool(String directory, String targetFilename){
 		// Source for command: http://viralpatel.net/blogs/create-jar-file-in-java-eclipse/
 		
 		if(debug){
@@ -2102,18 +3374,41 @@ public class ParallelLauncher extends Launcher {
 	private static String printProcessOutput(Process proc, String testedFile, boolean returnOnly){
 		InputStreamReader reader = new InputStreamReader(proc.getErrorStream());
 		StringBuffer buffer = new StringBuffer();
-		int nextChar;
+		char[] chars = new char[8192];
+		int count;
 		try {
-			while((nextChar = reader.read()) != -1){
-				buffer.append((char)nextChar);
+			while((count = reader.read(chars)) != -1){
+				buffer.append(chars, 0, count);
 			}
 		} catch (IOException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
+		return printProcessOutput(buffer.toString(), testedFile, returnOnly);
+	}
+	
+	/**
+	 * Prints error output of given wrapped process (as retained by the wrapper).
+	 * @param wrapper Wrapper of process whose stderr is to be printed to console (and returned as String)
+	 * @param testedFile Name of tested file to append to message
+	 * @param returnOnly If set to true, returns String without printing it to console
+	 * @return String version of stderr output
+	 */
+	private static String printProcessOutput(ProcessWrapper wrapper, String testedFile, boolean returnOnly){
+		return printProcessOutput(wrapper.getErrorOutput(), testedFile, returnOnly);
+	}
+	
+	/**
+	 * Prints given error output of a process.
+	 * @param errorOutput Error output of process
+	 * @param testedFile Name of tested file to append to message
+	 * @param returnOnly If set to true, returns String without printing it to console
+	 * @return Formatted error output
+	 */
+	private static String printProcessOutput(String errorOutput, String testedFile, boolean returnOnly){
 		String outcome = PREFIX + "Execution of " + testedFile + System.getProperty("line.separator")
 				//+ "Exit code: " + proc.exitValue() + System.getProperty("line.separator") 
-				+ "Error stream: " + buffer.toString();
+				+ "Error stream: " + errorOutput;
 		if(!returnOnly){
 			System.out.println(outcome);
 		}
@@ -2142,7 +3437,7 @@ public class ParallelLauncher extends Launcher {
 	 * classpath. The returned classpath only returns JAR file entries.
 	 * @param classpath Classpath to be JARified
 	 * @param unifiedJarFilename User-defined JAR file prefix. If null, method will auto-generate filename 
-	 * based on time
+	 * based on time. Ignored if JAR files are retrieved from the JAR cache (see {@link #useJarCache}).
 	 * @param createLocalClasspathVariableInsteadOfParameter If set to true, method generates command lines 
 	 * that declare a local classpath variable in a batch as opposed to provided a classpath parameter used 
 	 * on command line. Local classpath variable is less likely (max. length 8k) than parameter (2k) to 
@@ -2154,51 +3449,90 @@ public class ParallelLauncher extends Launcher {
 		
 		// Copy non-jar files temp directory, memorize directory, adapt classpath entry
 		StringTokenizer tok = new StringTokenizer(classpath, CLASSPATH_SEPARATOR);
+		final ArrayList<String> tokens = new ArrayList<>();
+		while(tok.hasMoreElements()){
+			tokens.add(tok.nextToken());
+		}
+		
+		// Scan classpath directories for class files (concurrently)
+		ArrayList<Callable<Integer>> scanTasks = new ArrayList<>();
+		ArrayList<Boolean> scanOnCallingThread = new ArrayList<>();
+		for(final String token: tokens){
+			scanTasks.add(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					return countClassFiles(token);
+				}
+			});
+			// Only directories are worth scanning on pool
+			scanOnCallingThread.add(token.endsWith(JAR_FILE_ENDING) || !new File(token).isDirectory());
+		}
+		List<Integer> classFileCounts = executeJarCreationTasks(scanTasks, scanOnCallingThread);
+		
 		// Counter in case multiple JAR files need to be created for the same launcher (i.e. multiple folders with class files on classpath)
 		int dirCounter = 0;
-		
-		// Buffer for rebuilding modified classpath
-		StringBuffer newClassPath = new StringBuffer();
 		String tempJarFileName = null; 
-		while(tok.hasMoreElements()){
-			String token = tok.nextToken();
-			boolean processDirectoryAsJarFile = false;
-			if(!token.endsWith(JAR_FILE_ENDING)){
-				// Check if containing class files
-				File check = new File(token);
-				if(check.isDirectory()){
-					String[] ext = new String[1];
-					ext[0] = "class";
-					if(!FileUtils.listFiles(check, ext, true).isEmpty()){
-						// only process if containing .class files
-						processDirectoryAsJarFile = true;
-					}
-				}
+		// Prepare JAR creation for directories containing class files - names are assigned in classpath order
+		ArrayList<Callable<String>> jarTasks = new ArrayList<>();
+		ArrayList<Boolean> jarOnCallingThread = new ArrayList<>();
+		for(int i = 0; i < tokens.size(); i++){
+			final String token = tokens.get(i);
+			if(classFileCounts.get(i) == 0){
+				// Not packed - retained as is
+				jarTasks.add(null);
+				jarOnCallingThread.add(true);
+				continue;
 			}
-			if(processDirectoryAsJarFile){
-				// Treat as directory and pack into jar
+			// Treat as directory and pack into jar
+			if(usesClasspathSnapshots()){
 				if(tempJarFileName == null){
-					// Prepare subfolder
-					File subfolder = new File(System.getProperty("user.dir") + FOLDER_SEPARATOR + tempJarSubfolder);
-					if(!subfolder.exists()){
-						if(!subfolder.mkdirs()){
-							throw new RuntimeException(PREFIX + "Error creating subdirectory " + subfolder.getAbsolutePath());
+					tempJarFileName = prepareTemporaryJarFileName(unifiedJarFilename);
+				}
+				final String snapshotName = tempJarFileName + "_" + dirCounter + SNAPSHOT_DIRECTORY_ENDING;
+				dirCounter++;
+				if(unifiedJarFilename == null){
+					// Register for deletion just as temporary JAR files
+					registerTemporaryFile(snapshotName);
+				}
+				if(unifiedJarFilename == null || !new File(snapshotName).exists()){
+					jarTasks.add(new Callable<String>() {
+						@Override
+						public String call() throws Exception {
+							return createClasspathSnapshot(token, snapshotName);
+						}
+					});
+				} else {
+					System.out.println(PREFIX + "Using existing unified classpath snapshot " + snapshotName);
+					jarTasks.add(new Callable<String>() {
+						@Override
+						public String call() throws Exception {
+							return snapshotName;
+						}
+					});
+				}
+			} else if(usesJarCache()){
+				jarTasks.add(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						try {
+							return getJarCache().acquire(new File(token)).getAbsolutePath();
+						} catch (IOException e) {
+							throw new RuntimeException(PREFIX + "Retrieving cached JAR file for directory " + token + " failed: " + e.getMessage(), e);
 						}
 					}
-					tempJarFileName = subfolder + FOLDER_SEPARATOR 
-							+ (unifiedJarFilename != null ? unifiedJarFilename : String.valueOf(System.nanoTime()));
+				});
+			} else {
+				if(tempJarFileName == null){
+					tempJarFileName = prepareTemporaryJarFileName(unifiedJarFilename);
 				}
-				String dynJarName = tempJarFileName + "_" + dirCounter + JAR_FILE_ENDING;
+				final String dynJarName = tempJarFileName + "_" + dirCounter + JAR_FILE_ENDING;
 				// Increase counter in case of multiple Jars
 				dirCounter++;
 				if(unifiedJarFilename == null){
-					// if not given filename by MetaLauncher, save mapping from old classpath entry to newly generated jar - for later addition to deletion log as well as for debugging
-					jarNameMapper.put(token, dynJarName);
+					// if not given filename by MetaLauncher, register for deletion once no longer used
+					registerTemporaryFile(dynJarName);
 				}
 				
-				// Check if classpath is empty
-				boolean firstElementOnClassPath = newClassPath.length() == 0;
-				
 				// Eventually generate JAR file if necessary
 				if(unifiedJarFilename == null || !new File(dynJarName).exists()){
 					if(unifiedJarFilename != null){
@@ -2207,14 +3541,40 @@ public class ParallelLauncher extends Launcher {
 						//}
 					}
 					// Generate JAR if no unified JAR specified or if specified file does not exist
-					buildJarFromDirectory(token, dynJarName);
+					jarTasks.add(new Callable<String>() {
+						@Override
+						public String call() throws Exception {
+							return buildJarFromDirectory(token, dynJarName);
+						}
+					});
 				} else {
 					if(unifiedJarFilename != null){
 						//if(debug){
 							System.out.println(PREFIX + "Using existing unified JAR file " + dynJarName);
 						//}
 					}
+					jarTasks.add(new Callable<String>() {
+						@Override
+						public String call() throws Exception {
+							return dynJarName;
+						}
+					});
 				}
+			}
+			// Small directories are packed on the calling thread
+			jarOnCallingThread.add(classFileCounts.get(i) < minimumNumberOfClassFilesForConcurrentJarCreation);
+		}
+		List<String> jarNames = executeJarCreationTasks(jarTasks, jarOnCallingThread);
+		
+		// Buffer for rebuilding modified classpath
+		StringBuffer newClassPath = new StringBuffer();
+		for(int i = 0; i < tokens.size(); i++){
+			String token = tokens.get(i);
+			if(jarNames.get(i) != null){
+				String dynJarName = jarNames.get(i);
+				
+				// Check if classpath is empty
+				boolean firstElementOnClassPath = newClassPath.length() == 0;
 				
 				if(createLocalClasspathVariableInsteadOfParameter){
 					// LOCAL VARIABLE VERSION
@@ -2266,7 +3626,7 @@ public class ParallelLauncher extends Launcher {
 					newClassPath.append(token);
 				}
 			}
-			if(tok.hasMoreElements() && !createLocalClasspathVariableInsteadOfParameter){
+			if(i < tokens.size() - 1 && !createLocalClasspathVariableInsteadOfParameter){
 				// only append if not last element
 				newClassPath.append(CLASSPATH_SEPARATOR);
 			}
@@ -2288,72 +3648,588 @@ public class ParallelLauncher extends Launcher {
 	}
 	
 	/**
-	 * Cleans up JAR files produced for previous launcher runs. 
-	 * If successfully started, launchers register temporary JAR files in a log
-	 * file (Constant CLEANUP_LOG_FILE). This method scans the log file and tries 
-	 * to delete all entries and removes them from the log file. 
-	 * Deletes the entire log file if all JAR files have been deleted.
-	 * Logged files that cannot be found are considered deleted manually and purged 
-	 * from the log.
+	 * Creates a pathing JAR for a given (plain) classpath and returns the 
+	 * classpath referencing it (see {@link #usePathingJarForClasspath}). 
+	 * If using the JAR cache, the pathing JAR is cached under a digest of the referenced 
+	 * entries, else it is registered for cleanup just as temporary JAR files.
+	 * @param classpath Plain classpath to be referenced
+	 * @param createLocalClasspathVariableInsteadOfParameter If set to true, method returns a command line 
+	 * declaring a local classpath variable (as {@link #createJARifiedClasspath(String, String, boolean)})
+	 * @return Classpath only consisting of the pathing JAR (either as parameter or local variable command line)
 	 */
-	protected static void cleanUpTemporaryJarFiles(){
-		File cleanupLog = new File(CLEANUP_LOG_FILE);
-		if(cleanupLog.exists()){
-			System.out.println(PREFIX + "Attempting to clean up temporary files from previous launcher runs...");
-			Scanner scanner = null;
+	private static String createPathingJarClasspath(String classpath, boolean createLocalClasspathVariableInsteadOfParameter){
+		ArrayList<File> entries = new ArrayList<>();
+		StringTokenizer tok = new StringTokenizer(classpath, CLASSPATH_SEPARATOR);
+		while(tok.hasMoreTokens()){
+			entries.add(new File(tok.nextToken()));
+		}
+		if(usesJarCache()){
+			pathingJarName = createCachedPathingJar(entries);
+		} else {
+			pathingJarName = prepareTemporaryJarFileName(null) + PATHING_JAR_FILE_ENDING;
 			try {
-				scanner = new Scanner(cleanupLog);
-			} catch (FileNotFoundException e) {
-				System.err.println(PREFIX + "Cleanup log file could not be found. Should never happen unless several launchers are started in parallel - Don't do that!" + System.getProperty("line.separator")
-						+ "Wait for launchers to tell you when it is safe to start the next one!");
-				e.printStackTrace();
-			}
-			if(scanner == null){
-				System.err.println(PREFIX + "Instantiation of text scanner for log file failed. Cleanup aborted.");
-				return;
+				PathingJar.create(entries, new File(pathingJarName));
+			} catch (IOException e) {
+				throw new RuntimeException(PREFIX + "Creation of pathing JAR file " + pathingJarName + " failed: " + e.getMessage(), e);
 			}
-			StringBuffer remainingFiles = new StringBuffer();
-			while(scanner.hasNext()){
-				String fileToDelete = scanner.next();
-				File fileDel = new File(fileToDelete);
-				if(fileDel.exists()){
-					if(fileDel.delete()){
-						System.out.println(PREFIX + "Deleted temporary file " + fileDel.getName());
-					} else {
-						System.err.println(PREFIX + "Could not delete temporary file " + fileDel.getAbsolutePath() 
-								/*
-								 * If multiple launchers allowed, notify user that deletion attempt will be done
-								 * by next launcher as jar of previous launcher probably still running. 
-								 */
-								+ (maxNumberOfActiveParallelLaunchers > 1 ? 
-										"." + System.getProperty("line.separator") 
-										+ "Previous launcher is possibly still running. Deletion attempt with be repeated by next launcher." : "."));
-						// Keep file reference for later deletion
-						remainingFiles.append(fileToDelete).append(System.getProperty("line.separator"));
-					}
-				} else {
-					System.out.println(PREFIX + "Logged temporary file could not be found - probably manually deleted (File: " + fileDel.getAbsolutePath() + ").");
+			// Register for deletion
+			registerTemporaryFile(pathingJarName);
+		}
+		if(debug){
+			System.out.println(PREFIX + "Generated pathing JAR file " + pathingJarName + " referencing " + entries.size() + " classpath entries.");
+		}
+		if(!createLocalClasspathVariableInsteadOfParameter){
+			return pathingJarName;
+		}
+		if (ProcessReader.runsOnLinux()) {
+			return "export CLASSPATH=\"" + pathingJarName + "\"" + System.getProperty("line.separator");
+		}
+		return "set CLASSPATH=" + pathingJarName + System.getProperty("line.separator");
+	}
+	
+	/**
+	 * Returns the cached pathing JAR referencing the given classpath entries (creating it if necessary).
+	 * @param entries Classpath entries
+	 * @return Absolute path of cached pathing JAR
+	 */
+	private static String createCachedPathingJar(final List<File> entries){
+		ArrayList<String> paths = new ArrayList<>();
+		for(File entry: entries){
+			paths.add(entry.getAbsolutePath());
+		}
+		try {
+			File pathingJar = getJarCache().acquireFile(JarCache.computeDigest(paths), JarCache.PATHING_JAR_FILE_ENDING, 
+					launcherClass.getCanonicalName(), new JarCache.FileBuilder() {
+				
+				@Override
+				public boolean build(File target) throws IOException {
+					PathingJar.create(entries, target);
+					return true;
 				}
-			}
-			scanner.close();
+			});
+			return pathingJar.getAbsolutePath();
+		} catch (IOException e) {
+			throw new RuntimeException(PREFIX + "Creation of cached pathing JAR file failed: " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Determines the classpath launched processes will effectively run with, 
+	 * as Class Data Sharing archives are only valid for this very classpath.
+	 * @param classpath Classpath as passed to launch script generation or direct launch
+	 * @return Effective classpath of launched processes, or null if not known upfront
+	 */
+	private static String determineEffectiveLaunchClasspath(String classpath){
+		if(launchesDirectly()){
+			// Passed via environment
+			return getDirectLaunchClasspath(classpath);
+		}
+		if(!createTemporaryClasspathVariable || pathingJarName == null){
+			return null;
+		}
+		if(ProcessReader.runsOnWindows()){
+			return pathingJarName;
+		}
+		// Linux launch scripts prepend the local bin folder
+		return (jdkBinPath == null ? "./bin" + CLASSPATH_SEPARATOR + pathingJarName : null);
+	}
+	
+	/**
+	 * Starts the training run generating the Class Data Sharing archive for this 
+	 * launcher's processes in the background (see {@link #useClassDataSharingArchive}).
+	 * The training JVM runs {@link ClassDataSharingTrainer} with the effective classpath 
+	 * of launched processes. If using the JAR cache, the archive is cached under a digest 
+	 * of Java command, effective classpath (including sizes and modification times of its 
+	 * files) and launched classes, so launchers with unchanged classpath reuse it, and 
+	 * concurrent launchers wait for a running training run instead of training themselves. 
+	 * Otherwise, the archive is registered for cleanup just as temporary JAR files.
+	 * @param classpath Classpath as passed to launch script generation or direct launch
+	 */
+	private static void startClassDataSharingTraining(String classpath){
+		if(usesClasspathSnapshots()){
+			// Classes from (non-empty) directories cannot be archived
+			System.out.println(PREFIX + "Class Data Sharing archive not used, since classpath snapshots are directories.");
+			return;
+		}
+		final String launchClasspath = determineEffectiveLaunchClasspath(classpath);
+		if(launchClasspath == null){
+			System.out.println(PREFIX + "Class Data Sharing archive not used, since classpath of launched processes is not known upfront.");
+			return;
+		}
+		final String javaCommand = (jdkBinPath == null ? "java" : buildJdkBinDirectoryString() + "java");
+		final LinkedHashSet<String> classNames = new LinkedHashSet<>();
+		classNames.add(WrapperExecutable.class.getCanonicalName());
+		for(CombinedClassAndStatusListener entry: classesToBeLaunched){
+			classNames.add(entry.clazz.getName());
+		}
+		final File temporaryArchive = (usesJarCache() ? null : new File(prepareTemporaryJarFileName(null) + CLASS_DATA_SHARING_ARCHIVE_FILE_ENDING));
+		if(temporaryArchive != null){
+			// Register for deletion
+			registerTemporaryFile(temporaryArchive.getPath());
+		}
+		classDataSharingTraining = new Thread(new Runnable() {
 			
-			if(remainingFiles.length() > 0){
-				// If there are remaining files, overwrite original file
+			@Override
+			public void run() {
 				try {
-					FileUtils.write(cleanupLog, remainingFiles, false);
+					Integer javaVersion = determineJavaVersion(javaCommand);
+					if(javaVersion != null && javaVersion < MINIMUM_JAVA_VERSION_FOR_CLASS_DATA_SHARING_ARCHIVE){
+						System.out.println(PREFIX + "Class Data Sharing archive not used, since launched processes run on Java " + javaVersion 
+								+ " (requires Java " + MINIMUM_JAVA_VERSION_FOR_CLASS_DATA_SHARING_ARCHIVE + " or higher).");
+						return;
+					}
+					if(temporaryArchive != null){
+						// Dumped into temporary file first, so launched processes never see incomplete archives
+						File dumpFile = new File(temporaryArchive.getPath() + ".tmp");
+						try {
+							if(runClassDataSharingTraining(javaCommand, launchClasspath, classNames, dumpFile) && dumpFile.renameTo(temporaryArchive)){
+								classDataSharingArchive = temporaryArchive;
+							}
+						} finally {
+							FileUtils.deleteQuietly(dumpFile);
+						}
+						return;
+					}
+					final boolean[] trained = new boolean[1];
+					File archive = getJarCache().acquireFile(computeClassDataSharingArchiveDigest(javaCommand, javaVersion, launchClasspath, classNames), 
+							JarCache.CLASS_DATA_SHARING_ARCHIVE_FILE_ENDING, launcherClass.getCanonicalName(), new JarCache.FileBuilder() {
+						
+						@Override
+						public boolean build(File target) throws IOException {
+							trained[0] = true;
+							try {
+								return runClassDataSharingTraining(javaCommand, launchClasspath, classNames, target);
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+								return false;
+							}
+						}
+					});
+					if(archive != null){
+						classDataSharingArchive = archive;
+						if(!trained[0]){
+							System.out.println(PREFIX + "Using cached Class Data Sharing archive " + archive.getName());
+						}
+					}
 				} catch (IOException e) {
-					System.err.println(PREFIX + "Error when writing log file for remaining (not successfully deleted) temporary files.");
-					e.printStackTrace();
+					System.err.println(PREFIX + "Class Data Sharing training run failed: " + e.getMessage());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, "Class Data Sharing training");
+		classDataSharingTraining.setDaemon(true);
+		classDataSharingTraining.start();
+	}
+	
+	/**
+	 * Performs the Class Data Sharing training run, dumping the archive into the given file.
+	 * @param javaCommand Java command
+	 * @param launchClasspath Effective classpath of launched processes
+	 * @param classNames Names of classes to be loaded by the training run
+	 * @param dumpFile File the archive is dumped into
+	 * @return true if the archive has been generated, false if not supported by the launched JVM, timed out or failed
+	 * @throws IOException if training run cannot be started
+	 * @throws InterruptedException if interrupted while waiting for the training run
+	 */
+	private static boolean runClassDataSharingTraining(String javaCommand, String launchClasspath, Collection<String> classNames, File dumpFile) throws IOException, InterruptedException {
+		long start = System.currentTimeMillis();
+		// Output of training run (read once it has terminated)
+		File outputFile = new File(dumpFile.getPath() + ".log");
+		ArrayList<String> command = new ArrayList<>();
+		command.add(javaCommand);
+		command.add("-XX:+IgnoreUnrecognizedVMOptions");
+		command.add("-XX:ArchiveClassesAtExit=" + dumpFile.getAbsolutePath());
+		command.add("-Xshare:auto");
+		command.add(ClassDataSharingTrainer.class.getCanonicalName());
+		command.addAll(classNames);
+		// Training run starts from an empty file (the JVM only writes the archive at exit)
+		FileUtils.deleteQuietly(dumpFile);
+		try {
+			ProcessBuilder pb = new ProcessBuilder(command);
+			pb.environment().put("CLASSPATH", launchClasspath);
+			pb.redirectErrorStream(true);
+			pb.redirectOutput(outputFile);
+			Process training = pb.start();
+			if(!training.waitFor(classDataSharingTrainingTimeout, TimeUnit.MILLISECONDS)){
+				training.destroyForcibly();
+				System.err.println(PREFIX + "Class Data Sharing training run did not finish within " + classDataSharingTrainingTimeout 
+						+ " ms, processes are launched without archive.");
+				return false;
+			}
+			int exitCode = training.exitValue();
+			if(exitCode == 0 && dumpFile.length() > 0){
+				System.out.println(PREFIX + "Generated Class Data Sharing archive (" + (dumpFile.length() / 1024) + " KB) in " 
+						+ (System.currentTimeMillis() - start) + " ms.");
+				return true;
+			}
+			if(exitCode == 0){
+				// Option ignored by JVM (e.g. unknown Java version without dynamic archive support)
+				if(debug){
+					System.out.println(PREFIX + "Class Data Sharing archive not supported by launched JVM, processes are launched without.");
 				}
 			} else {
-				// If no failed deletes, simply delete the entire log file
-				if(cleanupLog.delete()){
-					System.out.println(PREFIX + "Successfully cleared up old JAR files");
+				String output = (outputFile.exists() ? FileUtils.readFileToString(outputFile, Charset.defaultCharset()) : "");
+				System.err.println(PREFIX + "Class Data Sharing archive could not be generated (exit code " + exitCode + "), processes are launched without." 
+						+ (output.trim().isEmpty() ? "" : System.getProperty("line.separator") + output.trim()));
+			}
+			return false;
+		} finally {
+			FileUtils.deleteQuietly(outputFile);
+		}
+	}
+	
+	/**
+	 * Computes the digest a cached Class Data Sharing archive is named by. Covers everything 
+	 * the validity of the archive depends on: Java command and version, effective classpath 
+	 * (with sizes and modification times of referenced files) and the classes to be archived.
+	 * @param javaCommand Java command
+	 * @param javaVersion Major Java version (may be null)
+	 * @param launchClasspath Effective classpath of launched processes
+	 * @param classNames Names of classes to be archived
+	 * @return Digest
+	 * @throws IOException if digest cannot be computed
+	 */
+	private static String computeClassDataSharingArchiveDigest(String javaCommand, Integer javaVersion, String launchClasspath, Collection<String> classNames) throws IOException {
+		ArrayList<String> inputs = new ArrayList<>();
+		inputs.add(javaCommand);
+		inputs.add(String.valueOf(javaVersion));
+		inputs.add(launchClasspath);
+		StringTokenizer tok = new StringTokenizer(launchClasspath, CLASSPATH_SEPARATOR);
+		while(tok.hasMoreTokens()){
+			File entry = new File(tok.nextToken());
+			inputs.add(entry.isFile() ? entry.length() + "/" + entry.lastModified() : "-");
+		}
+		inputs.addAll(classNames);
+		return JarCache.computeDigest(inputs);
+	}
+	
+	/**
+	 * Returns the additional JVM options for launched processes, i.e. the lease on 
+	 * temporary files to be joined (see {@link TemporaryFileLease}) and eventual 
+	 * Class Data Sharing options.
+	 * @return JVM options
+	 */
+	private static List<String> getLaunchJvmOptions(){
+		ArrayList<String> options = new ArrayList<>();
+		if(temporaryFileLease != null){
+			options.add("-D" + TemporaryFileLease.LEASE_FILE_PROPERTY + "=" + temporaryFileLease.getLeaseFile().getAbsolutePath());
+		}
+		options.addAll(getClassDataSharingOptions());
+		return options;
+	}
+	
+	/**
+	 * Determines the major version of the JVM run by a given java command (from the 
+	 * output of 'java -version', e.g. 'version "1.8.0_292"' or 'version "17.0.1"').
+	 * @param javaCommand Java command
+	 * @return Major version or null if not determinable
+	 */
+	private static Integer determineJavaVersion(String javaCommand){
+		try {
+			ProcessBuilder pb = new ProcessBuilder(javaCommand, "-version");
+			pb.redirectErrorStream(true);
+			Process process = pb.start();
+			String output = IOUtils.toString(process.getInputStream(), Charset.defaultCharset());
+			process.waitFor();
+			int start = output.indexOf('"');
+			int end = (start == -1 ? -1 : output.indexOf('"', start + 1));
+			if(end == -1){
+				return null;
+			}
+			String[] components = output.substring(start + 1, end).split("[._+-]");
+			return Integer.parseInt(components[0].equals("1") && components.length > 1 ? components[1] : components[0]);
+		} catch (IOException | NumberFormatException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns the JVM options making a launched process use the Class Data Sharing 
+	 * archive. Does not wait for the training run: processes launched before the 
+	 * archive is available start without it.
+	 * @return JVM options (empty if no archive available)
+	 */
+	private static List<String> getClassDataSharingOptions(){
+		File archive = classDataSharingArchive;
+		if(archive == null || !archive.exists()){
+			return Collections.emptyList();
+		}
+		return Arrays.asList("-XX:+IgnoreUnrecognizedVMOptions", "-XX:SharedArchiveFile=" + archive.getAbsolutePath(), "-Xshare:auto");
+	}
+	
+	/**
+	 * Returns the directory holding leases on temporary files.
+	 * @return Lease directory
+	 */
+	private static File getTemporaryFileLeaseDirectory(){
+		return new File(System.getProperty("user.dir") + FOLDER_SEPARATOR + tempJarSubfolder + FOLDER_SEPARATOR + "leases");
+	}
+	
+	/**
+	 * Returns this launcher's lease on temporary files (acquiring it if necessary).
+	 * @return Lease on temporary files
+	 */
+	private static synchronized TemporaryFileLease getTemporaryFileLease(){
+		if(temporaryFileLease == null){
+			try {
+				temporaryFileLease = TemporaryFileLease.acquire(getTemporaryFileLeaseDirectory());
+			} catch (IOException e) {
+				throw new RuntimeException(PREFIX + "Acquiring lease for temporary files failed: " + e.getMessage(), e);
+			}
+		}
+		return temporaryFileLease;
+	}
+	
+	/**
+	 * Registers a temporary file (or directory) for deletion once neither this 
+	 * launcher nor any of its processes uses it anymore.
+	 * @param filename Temporary file
+	 */
+	private static void registerTemporaryFile(String filename){
+		try {
+			getTemporaryFileLease().register(new File(filename));
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Could not register temporary file " + filename + " for deletion: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Deletes temporary files of expired leases.
+	 */
+	private static void sweepExpiredTemporaryFiles(){
+		try {
+			for(File deleted: TemporaryFileLease.sweep(getTemporaryFileLeaseDirectory())){
+				System.out.println(PREFIX + "Deleted temporary file " + deleted.getName() + " of terminated launcher");
+			}
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Error when deleting temporary files of terminated launchers: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Starts the janitor periodically deleting temporary files of expired leases 
+	 * in the background (see {@link #temporaryFileJanitorInterval}). 
+	 */
+	private static void startTemporaryFileJanitor(){
+		// Launched processes join this launcher's lease
+		getTemporaryFileLease();
+		if(temporaryFileJanitor != null){
+			return;
+		}
+		temporaryFileJanitor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Temporary file janitor");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		temporaryFileJanitor.scheduleWithFixedDelay(new Runnable() {
+			
+			@Override
+			public void run() {
+				sweepExpiredTemporaryFiles();
+			}
+		}, 0, temporaryFileJanitorInterval, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Prepares the subfolder for temporary JAR files and returns the 
+	 * filename prefix for this launcher's temporary JAR files (or snapshots).
+	 * @param unifiedJarFilename User-defined JAR file prefix (null if to be generated)
+	 * @return Absolute filename prefix
+	 */
+	private static String prepareTemporaryJarFileName(String unifiedJarFilename){
+		// Prepare subfolder
+		File subfolder = new File(System.getProperty("user.dir") + FOLDER_SEPARATOR + tempJarSubfolder);
+		if(!subfolder.exists()){
+			if(!subfolder.mkdirs()){
+				throw new RuntimeException(PREFIX + "Error creating subdirectory " + subfolder.getAbsolutePath());
+			}
+		}
+		return subfolder + FOLDER_SEPARATOR 
+				+ (unifiedJarFilename != null ? unifiedJarFilename : String.valueOf(System.nanoTime()));
+	}
+	
+	/**
+	 * Indicates whether classpath directories are frozen as snapshot 
+	 * directories instead of JAR files (see {@link #useClasspathSnapshotsInsteadOfJars}).
+	 * @return true if snapshots are used
+	 */
+	protected static boolean usesClasspathSnapshots(){
+		return useClasspathSnapshotsInsteadOfJars;
+	}
+	
+	/**
+	 * Creates a snapshot of a given classpath directory.
+	 * @param directory Directory to be frozen
+	 * @param snapshotName Absolute path of snapshot directory
+	 * @return Snapshot directory name. Throws exception if snapshot creation failed.
+	 */
+	private static String createClasspathSnapshot(String directory, String snapshotName){
+		System.out.println(PREFIX + "Generating classpath snapshot " + snapshotName);
+		try {
+			ClasspathSnapshot snapshot = ClasspathSnapshot.create(new File(directory), new File(snapshotName));
+			if(debug){
+				System.out.println(PREFIX + "Snapshot of " + directory + ": " + snapshot.getNumberOfFiles() + " file(s) " 
+						+ (snapshot.isClonedWhereSupported() ? "cloned (copy-on-write where supported by file system)." : "copied."));
+			}
+		} catch (IOException e) {
+			FileUtils.deleteQuietly(new File(snapshotName));
+			throw new RuntimeException(PREFIX + "Creation of classpath snapshot " + snapshotName + " from directory " + directory + " failed: " + e.getMessage(), e);
+		}
+		return snapshotName;
+	}
+	
+	/**
+	 * Counts the class files in a classpath entry.
+	 * @param classpathEntry Classpath entry
+	 * @return Number of class files (recursively) if entry is a directory (that 
+	 * is neither named like a JAR file nor a classpath snapshot), else 0
+	 */
+	private static int countClassFiles(String classpathEntry){
+		if(classpathEntry.endsWith(JAR_FILE_ENDING) || classpathEntry.endsWith(SNAPSHOT_DIRECTORY_ENDING)){
+			return 0;
+		}
+		File check = new File(classpathEntry);
+		if(!check.isDirectory()){
+			return 0;
+		}
+		return FileUtils.listFiles(check, new String[]{"class"}, true).size();
+	}
+	
+	/**
+	 * Executes tasks related to JAR creation on a bounded thread pool (see 
+	 * {@link #numberOfThreadsForJarCreation}). Tasks flagged accordingly are 
+	 * executed on the calling thread (while the others are processed by the pool).
+	 * Null tasks produce null results. 
+	 * @param tasks Tasks to be executed
+	 * @param onCallingThread Indicates for each task whether it is executed on the calling thread
+	 * @return Task results in the order of the tasks
+	 */
+	private static <T> List<T> executeJarCreationTasks(List<Callable<T>> tasks, List<Boolean> onCallingThread){
+		int pooledTasks = 0;
+		for(int i = 0; i < tasks.size(); i++){
+			if(tasks.get(i) != null && !onCallingThread.get(i)){
+				pooledTasks++;
+			}
+		}
+		int threads = Math.min(pooledTasks, numberOfThreadsForJarCreation);
+		// Not worth starting threads if at most one task would run on them
+		ExecutorService pool = threads > 1 || (threads == 1 && pooledTasks < tasks.size()) ? 
+				Executors.newFixedThreadPool(threads) : null;
+		try {
+			ArrayList<Future<T>> futures = new ArrayList<>();
+			for(int i = 0; i < tasks.size(); i++){
+				futures.add(tasks.get(i) != null && pool != null && !onCallingThread.get(i) ? pool.submit(tasks.get(i)) : null);
+			}
+			ArrayList<T> results = new ArrayList<>();
+			for(int i = 0; i < tasks.size(); i++){
+				if(tasks.get(i) == null){
+					results.add(null);
+				} else if(futures.get(i) == null){
+					results.add(tasks.get(i).call());
 				} else {
-					System.err.println(PREFIX + "Deleting of temporary files log failed. Probably accessed by other process.");
+					try {
+						results.add(futures.get(i).get());
+					} catch (ExecutionException e) {
+						if(e.getCause() instanceof RuntimeException){
+							throw (RuntimeException)e.getCause();
+						}
+						throw e.getCause();
+					}
+				}
+			}
+			return results;
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new RuntimeException(PREFIX + "JAR creation failed: " + e.getMessage(), e);
+		} finally {
+			if(pool != null){
+				pool.shutdownNow();
+			}
+		}
+	}
+	
+	/**
+	 * Cleans up temporary files. Releases the lease on this launcher's temporary files 
+	 * (deleting them unless still used by launched processes), and deletes temporary 
+	 * files of expired leases of other launchers (see {@link TemporaryFileLease}). 
+	 * Should only be called once all processes of this launcher have terminated.
+	 */
+	protected static void cleanUpTemporaryJarFiles(){
+		if(temporaryFileJanitor != null){
+			temporaryFileJanitor.shutdownNow();
+			temporaryFileJanitor = null;
+		}
+		if(temporaryFileLease != null){
+			for(File deleted: temporaryFileLease.release()){
+				System.out.println(PREFIX + "Deleted temporary file " + deleted.getName());
+			}
+			temporaryFileLease = null;
+		}
+		sweepExpiredTemporaryFiles();
+		// Remove cached JAR files no longer referenced by any launcher
+		if(usesJarCache() && getJarCacheDirectory().isDirectory()){
+			try {
+				for(File deleted: getJarCache().sweep()){
+					System.out.println(PREFIX + "Deleted unreferenced cached JAR file " + deleted.getName());
 				}
+			} catch (IOException e) {
+				System.err.println(PREFIX + "Error when cleaning up JAR cache " + getJarCacheDirectory().getAbsolutePath() + ": " + e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Indicates whether temporary JAR files are retrieved from the JAR cache.
+	 * @return true if JAR cache is used
+	 */
+	protected static boolean usesJarCache(){
+		return useJarCache && !useJarToolForJarGeneration;
+	}
+	
+	/**
+	 * Returns the directory holding cached JAR files (see {@link #jarCacheDirectory}).
+	 * @return JAR cache directory
+	 */
+	private static File getJarCacheDirectory(){
+		if(jarCacheDirectory != null){
+			return new File(jarCacheDirectory);
+		}
+		return new File(System.getProperty("user.dir") + FOLDER_SEPARATOR + tempJarSubfolder + FOLDER_SEPARATOR + "cache");
+	}
+	
+	/**
+	 * Returns the JAR cache (initializing it if necessary).
+	 * @return JAR cache
+	 */
+	private static synchronized JarCache getJarCache(){
+		if(jarCache == null){
+			try {
+				jarCache = new JarCache(getJarCacheDirectory(), hashClassFileContentsForJarCache, new IncrementalJarBuilder(temporaryJarCompressionLevel));
+			} catch (IOException e) {
+				throw new RuntimeException(PREFIX + "Initialization of JAR cache failed: " + e.getMessage(), e);
 			}
 		}
+		return jarCache;
+	}
+	
+	/**
+	 * Releases all references to cached JAR files held by this launcher, so 
+	 * they can be deleted once no other launcher references them. Should only be 
+	 * called once all processes using those JAR files have terminated.
+	 */
+	protected static void releaseJarCacheReferences(){
+		if(jarCache != null){
+			jarCache.releaseAll();
+		}
 	}
 
 	/**
@@ -2410,8 +4286,8 @@ public class ParallelLauncher extends Launcher {
                     + "(usually a jar file of the pattern 'commons-io-X.X.jar' where X.X stands for the version).");*/
         }
         
-		// xterm (Linux)
-        if (ProcessReader.runsOnLinux()) {
+		// xterm (Linux) - not needed for direct launch
+        if (ProcessReader.runsOnLinux() && !launchesDirectly()) {
         	ProcessBuilder pb = new ProcessBuilder("xterm", "-version");
         	int exit = -1;
 			try {
@@ -3,7 +3,9 @@ package org.christopherfrantz.parallelLauncher;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
 
+import org.christopherfrantz.parallelLauncher.util.coordination.SlotBrokerClient;
 import org.christopherfrantz.parallelLauncher.util.listeners.ProcessStatusListener;
 import org.christopherfrantz.parallelLauncher.util.wrappers.ProcessWrapper;
 
@@ -38,6 +40,10 @@ public final class ServiceHandler implements ProcessStatusListener {
 	 * Stores eventually deviating exit code from launched class to pass up as result
 	 */
 	private int deviatingExitCode = 0;
+	/**
+	 * Slot leases held for running processes (if slot broker is used)
+	 */
+	private final HashMap<ProcessWrapper, SlotBrokerClient.Lease> slotLeases = new HashMap<>();
 	
 	@Override
 	public void executeDuringProcessLaunch(ProcessWrapper wrapper) {
@@ -58,11 +64,14 @@ public final class ServiceHandler implements ProcessStatusListener {
 	@Override
 	public void executeAfterProcessTermination(ProcessWrapper wrapper) {
 		stopTime = System.currentTimeMillis();
+		releaseSlotLease(wrapper);
 		endCounter++;
 		if(wrapper.getExitCode() != 0){
 			deviatingExitCode = wrapper.getExitCode();
 		}
 		System.out.println(ParallelLauncher.getCurrentTimeString(true) + ": Process '" + wrapper.getName() + "' finished (Return code: " + wrapper.getExitCode() + ").");
+		// Wake up launchers waiting for free slots
+		ParallelLauncher.notifyWaitingLaunchers();
 		// If same number of processes started as ended
 		if(startCounter == endCounter 
 				/* AND no outstanding process starts 
@@ -73,6 +82,8 @@ public final class ServiceHandler implements ProcessStatusListener {
 				// If all processes have ended, write execution duration to file
 				writeExecutionDurationToRuntimeConfig();
 			}
+			// Release cached JAR files used by this launcher's processes
+			ParallelLauncher.releaseJarCacheReferences();
 			// In any case, attempt to clean up old JAR files.
 			ParallelLauncher.cleanUpTemporaryJarFiles();
 			
@@ -89,6 +100,8 @@ public final class ServiceHandler implements ProcessStatusListener {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
 			}
+			// Let queued launchers proceed without waiting for their next regular check
+			ParallelLauncher.leaveLauncherQueue();
 			/*
 			 * ... before shutting down process and return eventual non-standard
 			 * exit code from any launched process 
@@ -97,6 +110,32 @@ public final class ServiceHandler implements ProcessStatusListener {
 		}
 	}
 	
+	/**
+	 * Registers the slot lease held for a launched process. The lease 
+	 * is released once the process terminates.
+	 * @param wrapper ProcessWrapper of launched process
+	 * @param lease Slot lease granted by slot broker
+	 */
+	public synchronized void registerSlotLease(ProcessWrapper wrapper, SlotBrokerClient.Lease lease){
+		if(wrapper.isFinished()){
+			// Process has already terminated before lease could be registered
+			lease.release();
+			return;
+		}
+		slotLeases.put(wrapper, lease);
+	}
+	
+	/**
+	 * Releases the slot lease of a terminated process (if any).
+	 * @param wrapper ProcessWrapper of terminated process
+	 */
+	private synchronized void releaseSlotLease(ProcessWrapper wrapper){
+		SlotBrokerClient.Lease lease = slotLeases.remove(wrapper);
+		if(lease != null){
+			lease.release();
+		}
+	}
+	
 	/**
 	 * Returns the number of running processes
 	 * @return Number of running processes
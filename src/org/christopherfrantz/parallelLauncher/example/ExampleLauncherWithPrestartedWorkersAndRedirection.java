@@ -0,0 +1,107 @@
+package org.christopherfrantz.parallelLauncher.example;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.christopherfrantz.parallelLauncher.ParallelLauncher;
+import org.christopherfrantz.parallelLauncher.util.listeners.ProcessStatusListener;
+import org.christopherfrantz.parallelLauncher.util.processhandlers.ProcessReader;
+import org.christopherfrantz.parallelLauncher.util.wrappers.ProcessWrapper;
+
+/**
+ * Launches classes via pre-started workers (Linux only) with redirection of stdout
+ * and stderr activated and checks upon shutdown whether console and error files
+ * have been written with the names used for directly launched processes, i.e.
+ * '&lt;timestamp&gt;_&lt;class&gt;_Console' and '&lt;identifier&gt;_&lt;timestamp&gt;_&lt;class&gt;_Error'.<BR>
+ * Terminates with exit code 2 if the check fails (the check is skipped if the launcher 
+ * is terminated before all classes have been launched).
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class ExampleLauncherWithPrestartedWorkersAndRedirection extends ParallelLauncher {
+
+	/**
+	 * Pattern of redirection timestamp (yyyyMMdd_HHmmss)
+	 */
+	private static final String TIMESTAMP_PATTERN = "\\d{8}_\\d{6}";
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		if(!ProcessReader.runsOnLinux()){
+			System.out.println("Pre-started workers are only used on Linux.");
+			return;
+		}
+		final long startTime = System.currentTimeMillis();
+		final AtomicInteger launched = new AtomicInteger();
+
+		launchDirectlyWithoutTerminal = true;
+		numberOfPrestartedWorkers = 2;
+		redirectStdOutAndStdErrForLaunchedProcesses = true;
+		//not required for check, may not be running on headless machines
+		checkForKnownProcessAsWmiFailureBackupCheck = false;
+
+		addClassToBeLaunched(IndependentExecutable2.class);
+		//writes error file due to non-zero exit code
+		addClassToBeLaunched(IndependentExecutable2ReturningNonZeroExitCode.class);
+		setGlobalProcessStatusListener(new ProcessStatusListener() {
+
+			@Override
+			public void executeDuringProcessLaunch(ProcessWrapper wrapper) {
+				launched.incrementAndGet();
+			}
+
+			@Override
+			public void executeAfterProcessTermination(ProcessWrapper wrapper) {
+				//checked upon shutdown
+			}
+		});
+
+		//launcher terminates via System.exit() once all processes have finished
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				if(launched.get() < 2){
+					System.out.println("Redirection check for pre-started workers skipped, as not all classes have been launched.");
+					return;
+				}
+				List<String> failures = new ArrayList<>();
+				checkFile(TIMESTAMP_PATTERN + "_" + IndependentExecutable2.class.getSimpleName() + "_Console", startTime, failures);
+				checkFile(TIMESTAMP_PATTERN + "_" + IndependentExecutable2ReturningNonZeroExitCode.class.getSimpleName() + "_Console", startTime, failures);
+				checkFile(".+_" + TIMESTAMP_PATTERN + "_" + IndependentExecutable2ReturningNonZeroExitCode.class.getSimpleName() + "_Error", startTime, failures);
+				if(failures.isEmpty()){
+					System.out.println("Redirection check for pre-started workers passed.");
+				} else {
+					System.err.println("Redirection check for pre-started workers failed. Missing files: " + failures);
+					Runtime.getRuntime().halt(2);
+				}
+			}
+		}));
+
+		start(args);
+	}
+
+	/**
+	 * Checks for a non-empty file in the working directory written since the given time.
+	 * @param namePattern Regular expression for file name
+	 * @param startTime Start time of launcher
+	 * @param failures List the name pattern is added to if no matching file is found
+	 */
+	private static void checkFile(String namePattern, long startTime, List<String> failures){
+		File[] files = new File(".").listFiles();
+		if(files != null){
+			for(File file: files){
+				if(file.getName().matches(namePattern) && file.lastModified() >= startTime - 1000 && file.length() > 0){
+					return;
+				}
+			}
+		}
+		failures.add(namePattern);
+	}
+
+}
@@ -0,0 +1,34 @@
+package org.christopherfrantz.parallelLauncher.util.admission;
+
+import org.christopherfrantz.parallelLauncher.util.wrappers.ProcessWrapper;
+
+/**
+ * Admission policies decide whether a launcher may launch the next class right away
+ * or should defer its launch (in addition to the limit on the number of running processes),
+ * e.g. because the machine's resources would be exhausted. Deferred launches are rechecked
+ * periodically and whenever launched processes terminate.<BR>
+ * Register policies via addAdmissionPolicy() in ParallelLauncher.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public interface AdmissionPolicy {
+
+	/**
+	 * Checks whether the given class may be launched now.
+	 * @param className Name of class to be launched
+	 * @param arguments Arguments passed to launched class (may be null)
+	 * @return null if the launch is admitted, else a human-readable reason for deferring it
+	 */
+	String checkAdmission(String className, String[] arguments);
+
+	/**
+	 * Is called immediately after launching a class (before any ProcessStatusListener
+	 * is notified), so the policy can monitor the resource usage of the launched process.
+	 * @param wrapper ProcessWrapper of launched process
+	 * @param className Name of launched class
+	 * @param arguments Arguments passed to launched class (may be null)
+	 */
+	void processLaunched(ProcessWrapper wrapper, String className, String[] arguments);
+
+}
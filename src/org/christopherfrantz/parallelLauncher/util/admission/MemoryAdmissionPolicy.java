@@ -0,0 +1,335 @@
+package org.christopherfrantz.parallelLauncher.util.admission;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.christopherfrantz.parallelLauncher.util.listeners.ProcessStatusListener;
+import org.christopherfrantz.parallelLauncher.util.processhandlers.ProcessReader;
+import org.christopherfrantz.parallelLauncher.util.scheduling.RuntimeHistory;
+import org.christopherfrantz.parallelLauncher.util.wrappers.ProcessWrapper;
+
+/**
+ * Admission policy deferring launches that would exhaust the machine's memory (Linux only).
+ * A class is admitted if the available memory (MemAvailable in /proc/meminfo), less the memory
+ * running processes are still expected to claim and a headroom, covers the class's expected
+ * peak memory consumption.<BR>
+ * Memory consumption of launched processes (including their child processes) is sampled
+ * from /proc/&lt;pid&gt;/status while they run. The peak (VmHWM) of successful runs is recorded in
+ * the {@link RuntimeHistory}, from which expected peaks of subsequent launches are taken. Processes
+ * that have not reached their expected peak yet are accounted for with the difference to their
+ * current consumption (VmRSS). Classes without history are only admitted if the available memory
+ * exceeds the headroom.<BR>
+ * If no process monitored by this policy is running, launches are admitted in any case, as
+ * waiting would not free memory.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class MemoryAdmissionPolicy implements AdmissionPolicy {
+
+	/**
+	 * Root of the proc file system.
+	 */
+	private static final String PROC_ROOT = "/proc";
+
+	/**
+	 * Key of available memory in /proc/meminfo
+	 */
+	private static final String MEM_AVAILABLE = "MemAvailable:";
+
+	/**
+	 * Key of total memory in /proc/meminfo
+	 */
+	private static final String MEM_TOTAL = "MemTotal:";
+
+	/**
+	 * Key of current resident set size in /proc/&lt;pid&gt;/status
+	 */
+	private static final String VM_RSS = "VmRSS:";
+
+	/**
+	 * Key of peak resident set size in /proc/&lt;pid&gt;/status
+	 */
+	private static final String VM_HWM = "VmHWM:";
+
+	/**
+	 * History providing and recording peak memory consumption
+	 */
+	private final RuntimeHistory history;
+
+	/**
+	 * Memory (in bytes) to be kept available
+	 */
+	private final long headroom;
+
+	/**
+	 * Monitored running processes
+	 */
+	private final Map<ProcessWrapper, MonitoredProcess> monitoredProcesses = new ConcurrentHashMap<>();
+
+	/**
+	 * Executor sampling memory consumption of monitored processes
+	 */
+	private final ScheduledExecutorService sampler;
+
+	/**
+	 * Running launched process whose memory consumption is sampled
+	 */
+	private static class MonitoredProcess {
+
+		/**
+		 * Process id
+		 */
+		private final long pid;
+
+		/**
+		 * Expected peak memory consumption in bytes (0 if unknown)
+		 */
+		private final long expectedPeak;
+
+		/**
+		 * Current memory consumption in bytes (as of last sample)
+		 */
+		private volatile long current = 0;
+
+		/**
+		 * Peak memory consumption in bytes (as of last sample)
+		 */
+		private volatile long peak = 0;
+
+		private MonitoredProcess(long pid, long expectedPeak) {
+			this.pid = pid;
+			this.expectedPeak = expectedPeak;
+		}
+	}
+
+	/**
+	 * Instantiates policy and starts sampling.
+	 * @param history History providing and recording peak memory consumption
+	 * @param headroomFraction Fraction of total memory to be kept available (between 0 and 1)
+	 * @param samplingInterval Interval (in ms) in which memory consumption of running processes is sampled
+	 */
+	public MemoryAdmissionPolicy(RuntimeHistory history, float headroomFraction, long samplingInterval) {
+		this.history = history;
+		Long total = readMemInfo(MEM_TOTAL);
+		this.headroom = (total != null ? (long) (total * Math.max(0f, Math.min(1f, headroomFraction))) : 0L);
+		this.sampler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Memory sampling");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		sampler.scheduleWithFixedDelay(new Runnable() {
+
+			@Override
+			public void run() {
+				for (MonitoredProcess process: monitoredProcesses.values()) {
+					sample(process);
+				}
+			}
+		}, samplingInterval, samplingInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Indicates whether memory information is available (i.e. running on Linux
+	 * with a kernel reporting MemAvailable).
+	 * @return true if policy can be used
+	 */
+	public static boolean isSupported() {
+		return readMemInfo(MEM_AVAILABLE) != null;
+	}
+
+	@Override
+	public String checkAdmission(String className, String[] arguments) {
+		// Processes may have terminated before their listener was registered
+		Iterator<ProcessWrapper> it = monitoredProcesses.keySet().iterator();
+		while (it.hasNext()) {
+			if (!it.next().getProcess().isAlive()) {
+				it.remove();
+			}
+		}
+		if (monitoredProcesses.isEmpty()) {
+			return null;
+		}
+		Long available = readMemInfo(MEM_AVAILABLE);
+		if (available == null) {
+			return null;
+		}
+		long outstanding = 0;
+		for (MonitoredProcess process: monitoredProcesses.values()) {
+			outstanding += Math.max(0L, process.expectedPeak - process.current);
+		}
+		Long expected = history.getExpectedPeakMemory(className, arguments);
+		long required = (expected != null ? expected : 0L);
+		if (available - outstanding - headroom >= required) {
+			return null;
+		}
+		return "Insufficient memory (Available: " + toMegabytes(available) + " MB, still claimed by running processes: "
+				+ toMegabytes(outstanding) + " MB, headroom: " + toMegabytes(headroom) + " MB, expected peak: "
+				+ (expected != null ? toMegabytes(expected) + " MB" : "unknown") + ")";
+	}
+
+	@Override
+	public void processLaunched(ProcessWrapper wrapper, final String className, String[] arguments) {
+		Long pid = ProcessReader.getProcessId(wrapper.getProcess());
+		if (pid == null) {
+			// Not a separate OS process
+			return;
+		}
+		final String[] launchArguments = (arguments == null ? null : arguments.clone());
+		Long expected = history.getExpectedPeakMemory(className, arguments);
+		final MonitoredProcess process = new MonitoredProcess(pid, expected != null ? expected : 0L);
+		monitoredProcesses.put(wrapper, process);
+		sample(process);
+		wrapper.registerListener(new ProcessStatusListener() {
+
+			@Override
+			public void executeDuringProcessLaunch(ProcessWrapper wrapper) {
+				// Monitored since launch
+			}
+
+			@Override
+			public void executeAfterProcessTermination(ProcessWrapper wrapper) {
+				monitoredProcesses.remove(wrapper);
+				if (wrapper.getExitCode() == 0 && process.peak > 0) {
+					history.recordPeakMemory(className, launchArguments, process.peak);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Samples the memory consumption of a process and its child processes.
+	 * @param process Monitored process
+	 */
+	private static void sample(MonitoredProcess process) {
+		long current = 0;
+		long peak = 0;
+		for (Long pid: collectProcessTree(process.pid)) {
+			Long[] values = readStatus(pid);
+			if (values[0] != null) {
+				current += values[0];
+			}
+			if (values[1] != null) {
+				peak += values[1];
+			}
+		}
+		if (current > 0) {
+			process.current = current;
+		}
+		if (peak > process.peak) {
+			process.peak = peak;
+		}
+	}
+
+	/**
+	 * Collects a process and its descendants (as far as the kernel reports children).
+	 * @param pid Process id
+	 * @return Process ids of process and its descendants
+	 */
+	private static List<Long> collectProcessTree(long pid) {
+		ArrayList<Long> tree = new ArrayList<>();
+		tree.add(pid);
+		for (int i = 0; i < tree.size(); i++) {
+			File taskDirectory = new File(PROC_ROOT + File.separator + tree.get(i), "task");
+			File[] tasks = taskDirectory.listFiles();
+			if (tasks == null) {
+				continue;
+			}
+			for (File task: tasks) {
+				try {
+					String children = new String(Files.readAllBytes(new File(task, "children").toPath()), Charset.defaultCharset()).trim();
+					if (!children.isEmpty()) {
+						for (String child: children.split("\\s+")) {
+							tree.add(Long.parseLong(child));
+						}
+					}
+				} catch (IOException | NumberFormatException e) {
+					// Task terminated or children not reported by kernel
+				}
+			}
+		}
+		return tree;
+	}
+
+	/**
+	 * Reads current and peak resident set size of a process.
+	 * @param pid Process id
+	 * @return Current (index 0) and peak (index 1) resident set size in bytes (null if not available)
+	 */
+	private static Long[] readStatus(long pid) {
+		Long[] values = new Long[2];
+		try {
+			for (String line: Files.readAllLines(new File(PROC_ROOT + File.separator + pid, "status").toPath(), Charset.defaultCharset())) {
+				if (line.startsWith(VM_RSS)) {
+					values[0] = parseKilobytes(line, VM_RSS);
+				} else if (line.startsWith(VM_HWM)) {
+					values[1] = parseKilobytes(line, VM_HWM);
+				}
+			}
+		} catch (IOException e) {
+			// Process terminated in the meantime
+		}
+		return values;
+	}
+
+	/**
+	 * Reads a value from /proc/meminfo.
+	 * @param key Key of value (including colon)
+	 * @return Value in bytes or null if not available
+	 */
+	private static Long readMemInfo(String key) {
+		try {
+			for (String line: Files.readAllLines(new File(PROC_ROOT, "meminfo").toPath(), Charset.defaultCharset())) {
+				if (line.startsWith(key)) {
+					return parseKilobytes(line, key);
+				}
+			}
+		} catch (IOException e) {
+			// Not running on Linux
+		}
+		return null;
+	}
+
+	/**
+	 * Parses a line of the form 'key: value kB' from the proc file system.
+	 * @param line Line
+	 * @param key Key (including colon)
+	 * @return Value in bytes or null if malformed
+	 */
+	private static Long parseKilobytes(String line, String key) {
+		String value = line.substring(key.length()).trim();
+		if (value.endsWith("kB")) {
+			value = value.substring(0, value.length() - 2).trim();
+		}
+		try {
+			return Long.parseLong(value) * 1024;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Converts bytes to megabytes for output.
+	 * @param bytes Bytes
+	 * @return Megabytes
+	 */
+	private static long toMegabytes(long bytes) {
+		return bytes / (1024 * 1024);
+	}
+
+}
@@ -0,0 +1,202 @@
+package org.christopherfrantz.parallelLauncher.util.admission;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.christopherfrantz.parallelLauncher.util.listeners.ProcessStatusListener;
+import org.christopherfrantz.parallelLauncher.util.wrappers.ProcessWrapper;
+
+/**
+ * Admission policy deferring launches while the machine is under pressure (Linux only), e.g.
+ * due to work of other users. Uses Pressure Stall Information (PSI, kernel 4.20 and higher):
+ * a class is admitted if the share of time in which some tasks stalled on CPU, memory and
+ * I/O during the last 10 seconds (avg10 of the 'some' line in /proc/pressure/cpu, memory and io)
+ * is below the respective threshold.<BR>
+ * If PSI is not available, the number of currently runnable tasks (from /proc/loadavg) is
+ * compared against the number of cores instead.<BR>
+ * As stall averages only reflect the load of newly launched processes with delay, checks
+ * are delayed until a settling time has passed since the last launch.<BR>
+ * If no process launched under this policy is running, launches are admitted in any case,
+ * so the launcher makes progress even if the machine is kept under pressure by others.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class PressureAdmissionPolicy implements AdmissionPolicy {
+
+	/**
+	 * Directory holding pressure files
+	 */
+	private static final String PRESSURE_DIRECTORY = "/proc/pressure";
+
+	/**
+	 * Load average file
+	 */
+	private static final String LOADAVG_FILE = "/proc/loadavg";
+
+	/**
+	 * Prefix of the 10 second average in the 'some' line of pressure files
+	 */
+	private static final String SOME_AVG10 = "some avg10=";
+
+	/**
+	 * Resources monitored via PSI
+	 */
+	private static final String[] RESOURCES = {"cpu", "memory", "io"};
+
+	/**
+	 * Maximum stall percentages (per resource in order of {@link #RESOURCES})
+	 */
+	private final float[] thresholds;
+
+	/**
+	 * Maximum number of runnable tasks per core (used if PSI is not available)
+	 */
+	private final float maxRunnableTasksPerCore;
+
+	/**
+	 * Minimum time (in ms) between a launch and the next check
+	 */
+	private final long settlingTime;
+
+	/**
+	 * Time of last launch
+	 */
+	private volatile long lastLaunch = 0;
+
+	/**
+	 * Running processes launched under this policy
+	 */
+	private final Set<ProcessWrapper> runningProcesses = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Instantiates policy.
+	 * @param cpuThreshold Maximum percentage of time tasks may have stalled on CPU
+	 * @param memoryThreshold Maximum percentage of time tasks may have stalled on memory
+	 * @param ioThreshold Maximum percentage of time tasks may have stalled on I/O
+	 * @param maxRunnableTasksPerCore Maximum number of runnable tasks per core (used if PSI is not available)
+	 * @param settlingTime Minimum time (in ms) between a launch and the next check
+	 */
+	public PressureAdmissionPolicy(float cpuThreshold, float memoryThreshold, float ioThreshold, float maxRunnableTasksPerCore, long settlingTime) {
+		this.thresholds = new float[]{cpuThreshold, memoryThreshold, ioThreshold};
+		this.maxRunnableTasksPerCore = maxRunnableTasksPerCore;
+		this.settlingTime = settlingTime;
+	}
+
+	/**
+	 * Indicates whether pressure or load information is available (i.e. running on Linux).
+	 * @return true if policy can be used
+	 */
+	public static boolean isSupported() {
+		return new File(LOADAVG_FILE).canRead();
+	}
+
+	@Override
+	public String checkAdmission(String className, String[] arguments) {
+		// Waiting only helps if own processes can terminate (listeners may not have fired yet)
+		Iterator<ProcessWrapper> it = runningProcesses.iterator();
+		while (it.hasNext()) {
+			if (!it.next().getProcess().isAlive()) {
+				it.remove();
+			}
+		}
+		if (runningProcesses.isEmpty()) {
+			return null;
+		}
+		long sinceLastLaunch = System.currentTimeMillis() - lastLaunch;
+		if (sinceLastLaunch < settlingTime) {
+			// Let last launch show in pressure readings
+			try {
+				Thread.sleep(settlingTime - sinceLastLaunch);
+			} catch (InterruptedException e) {
+				// Do not defer interrupted launchers any further
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+		boolean pressureAvailable = false;
+		StringBuilder exceeded = new StringBuilder();
+		for (int i = 0; i < RESOURCES.length; i++) {
+			Float stall = readStallPercentage(RESOURCES[i]);
+			if (stall == null) {
+				continue;
+			}
+			pressureAvailable = true;
+			if (stall >= thresholds[i]) {
+				exceeded.append(exceeded.length() == 0 ? "" : ", ").append(RESOURCES[i]).append(": ")
+					.append(stall).append("% (threshold: ").append(thresholds[i]).append("%)");
+			}
+		}
+		if (exceeded.length() > 0) {
+			return "System under pressure (Stall time " + exceeded + ")";
+		}
+		if (pressureAvailable) {
+			return null;
+		}
+		// Fallback to load average
+		Integer runnable = readRunnableTasks();
+		int cores = Runtime.getRuntime().availableProcessors();
+		if (runnable != null && runnable >= cores * maxRunnableTasksPerCore) {
+			return "System under load (Runnable tasks: " + runnable + ", cores: " + cores + ")";
+		}
+		return null;
+	}
+
+	@Override
+	public void processLaunched(ProcessWrapper wrapper, String className, String[] arguments) {
+		lastLaunch = System.currentTimeMillis();
+		runningProcesses.add(wrapper);
+		wrapper.registerListener(new ProcessStatusListener() {
+
+			@Override
+			public void executeDuringProcessLaunch(ProcessWrapper wrapper) {
+				// Tracked since launch
+			}
+
+			@Override
+			public void executeAfterProcessTermination(ProcessWrapper wrapper) {
+				runningProcesses.remove(wrapper);
+			}
+		});
+	}
+
+	/**
+	 * Reads the percentage of time in which some tasks stalled on a resource during the last 10 seconds.
+	 * @param resource Resource (name of pressure file)
+	 * @return Stall percentage or null if not available (no PSI support)
+	 */
+	private static Float readStallPercentage(String resource) {
+		try {
+			for (String line: Files.readAllLines(new File(PRESSURE_DIRECTORY, resource).toPath(), Charset.defaultCharset())) {
+				if (line.startsWith(SOME_AVG10)) {
+					String value = line.substring(SOME_AVG10.length());
+					int end = value.indexOf(' ');
+					return Float.parseFloat(end == -1 ? value : value.substring(0, end));
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			// PSI not available (or deactivated)
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the number of currently runnable tasks (fourth field of /proc/loadavg, 'runnable/total').
+	 * The runnable count includes the reading launcher itself.
+	 * @return Number of runnable tasks or null if not available
+	 */
+	private static Integer readRunnableTasks() {
+		try {
+			String[] fields = new String(Files.readAllBytes(new File(LOADAVG_FILE).toPath()), Charset.defaultCharset()).trim().split("\\s+");
+			return Integer.parseInt(fields[3].substring(0, fields[3].indexOf('/'))) - 1;
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,315 @@
+package org.christopherfrantz.parallelLauncher.util.affinity;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Allocates CPU cores to launched processes on Linux, so each process runs pinned to
+ * cores of its own (via taskset) instead of migrating between cores. Cores are handed out
+ * from a pool of allocatable cores (e.g. all cores but core 0, which is left to the OS) and
+ * returned once the process has terminated.<BR>
+ * Allocations are coordinated between launchers on the same machine via lock files (one per
+ * core) in a shared directory: an allocated core's lock file is kept locked by the launcher
+ * until the allocation is released. Since the OS releases file locks when a process terminates
+ * (including crashes), cores of terminated launchers become available again.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class LinuxCoreAllocator {
+
+	private static final String PREFIX = "LinuxCoreAllocator: ";
+
+	/**
+	 * Tool used to set the CPU affinity of processes
+	 */
+	public static final String TASKSET = "taskset";
+
+	/**
+	 * Prefix of lock files for cores
+	 */
+	private static final String LOCK_FILE_PREFIX = "core_";
+
+	/**
+	 * Ending of lock files for cores
+	 */
+	private static final String LOCK_FILE_ENDING = ".lock";
+
+	/**
+	 * Cores allocated within this JVM (as file locks are held on behalf of the
+	 * entire JVM, and overlapping locks are rejected)
+	 */
+	private static final Set<Integer> coresAllocatedInJvm = new HashSet<>();
+
+	/**
+	 * Directory holding lock files
+	 */
+	private final File lockDirectory;
+
+	/**
+	 * Cores that can be allocated (in allocation order)
+	 */
+	private final List<Integer> cores;
+
+	/**
+	 * Number of cores per allocation
+	 */
+	private final int coresPerAllocation;
+
+	/**
+	 * Cores allocated to a launched process
+	 */
+	public static class Allocation {
+
+		/**
+		 * Allocated cores
+		 */
+		private final List<Integer> cores = new ArrayList<>();
+
+		/**
+		 * Open lock files (need to remain open to retain the locks)
+		 */
+		private final List<RandomAccessFile> lockFiles = new ArrayList<>();
+
+		/**
+		 * Locks on lock files
+		 */
+		private final List<FileLock> locks = new ArrayList<>();
+
+		/**
+		 * Indicates whether the allocation has been released
+		 */
+		private boolean released = false;
+
+		/**
+		 * Returns the allocated cores.
+		 * @return Core ids
+		 */
+		public List<Integer> getCores() {
+			return new ArrayList<>(cores);
+		}
+
+		/**
+		 * Returns the command prefix running a command pinned to the allocated cores.
+		 * @return Command prefix (taskset invocation)
+		 */
+		public List<String> getCommandPrefix() {
+			return buildCommandPrefix(cores);
+		}
+
+		/**
+		 * Returns the allocated cores to the pool (unless already released).
+		 */
+		public void release() {
+			synchronized (coresAllocatedInJvm) {
+				if (released) {
+					return;
+				}
+				released = true;
+				for (int i = 0; i < locks.size(); i++) {
+					try {
+						locks.get(i).release();
+						lockFiles.get(i).close();
+					} catch (IOException e) {
+						// Released anyway once file is closed
+					}
+				}
+				coresAllocatedInJvm.removeAll(cores);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return formatCoreList(cores);
+		}
+	}
+
+	/**
+	 * Instantiates allocator.
+	 * @param lockDirectory Directory for lock files (shared by launchers on same machine; created if not existing)
+	 * @param cores Cores that can be allocated
+	 * @param coresPerAllocation Number of cores per launched process
+	 * @throws IOException if lock directory cannot be created
+	 */
+	public LinuxCoreAllocator(File lockDirectory, Collection<Integer> cores, int coresPerAllocation) throws IOException {
+		if (!lockDirectory.isDirectory() && !lockDirectory.mkdirs() && !lockDirectory.isDirectory()) {
+			throw new IOException("Could not create lock directory " + lockDirectory.getAbsolutePath());
+		}
+		this.lockDirectory = lockDirectory;
+		this.cores = new ArrayList<>(new TreeSet<>(cores));
+		this.coresPerAllocation = Math.max(1, coresPerAllocation);
+	}
+
+	/**
+	 * Indicates whether processes can be pinned, i.e. the taskset tool is available.
+	 * @return true if taskset is available
+	 */
+	public static boolean isSupported() {
+		String path = System.getenv("PATH");
+		if (path == null) {
+			return false;
+		}
+		for (String directory: path.split(File.pathSeparator)) {
+			if (new File(directory, TASKSET).canExecute()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Allocates free cores for a launched process.
+	 * @return Allocation or null if not enough cores are free
+	 */
+	public Allocation allocate() {
+		return allocate(cores);
+	}
+
+	/**
+	 * Allocates free cores for a launched process among the given cores (e.g. the cores of a NUMA node).
+	 * @param candidates Cores to allocate from (cores that cannot be allocated by this allocator are ignored)
+	 * @return Allocation or null if not enough of the given cores are free
+	 */
+	public Allocation allocate(Collection<Integer> candidates) {
+		Allocation allocation = new Allocation();
+		synchronized (coresAllocatedInJvm) {
+			for (Integer core: cores) {
+				if (allocation.cores.size() == coresPerAllocation) {
+					break;
+				}
+				if (!candidates.contains(core) || coresAllocatedInJvm.contains(core)) {
+					continue;
+				}
+				try {
+					RandomAccessFile lockFile = new RandomAccessFile(new File(lockDirectory, LOCK_FILE_PREFIX + core + LOCK_FILE_ENDING), "rw");
+					FileLock lock;
+					try {
+						lock = lockFile.getChannel().tryLock();
+					} catch (OverlappingFileLockException e) {
+						lock = null;
+					}
+					if (lock == null) {
+						// Allocated by other launcher
+						lockFile.close();
+						continue;
+					}
+					allocation.cores.add(core);
+					allocation.lockFiles.add(lockFile);
+					allocation.locks.add(lock);
+					coresAllocatedInJvm.add(core);
+				} catch (IOException e) {
+					System.err.println(PREFIX + "Could not lock core " + core + ": " + e.getMessage());
+				}
+			}
+		}
+		if (allocation.cores.size() < coresPerAllocation) {
+			allocation.release();
+			return null;
+		}
+		return allocation;
+	}
+
+	/**
+	 * Pins an already running process (all of its threads) to the given cores.
+	 * @param pid Process id
+	 * @param cores Cores
+	 * @return true if successful
+	 */
+	public static boolean pin(long pid, List<Integer> cores) {
+		ProcessBuilder pb = new ProcessBuilder(TASKSET, "-a", "-p", "-c", formatCoreList(cores), String.valueOf(pid));
+		pb.redirectErrorStream(true);
+		try {
+			Process process = pb.start();
+			// Discard confirmation output
+			byte[] buffer = new byte[1024];
+			while (process.getInputStream().read(buffer) != -1) {
+				// Nothing to be done
+			}
+			return process.waitFor() == 0;
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Could not pin process " + pid + ": " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return false;
+	}
+
+	/**
+	 * Builds the command prefix running a command restricted to the given cores.
+	 * @param cores Cores
+	 * @return Command prefix (taskset invocation)
+	 */
+	public static List<String> buildCommandPrefix(List<Integer> cores) {
+		return new ArrayList<>(Arrays.asList(TASKSET, "-c", formatCoreList(cores)));
+	}
+
+	/**
+	 * Returns the cores the launcher may run on (Cpus_allowed_list in /proc/self/status),
+	 * so restrictions imposed on the launcher (e.g. by cpusets) are respected.
+	 * @return Core ids (all available processors if not determinable)
+	 */
+	public static List<Integer> getAllowedCores() {
+		try {
+			for (String line: Files.readAllLines(new File("/proc/self/status").toPath(), Charset.defaultCharset())) {
+				if (line.startsWith("Cpus_allowed_list:")) {
+					return parseCoreList(line.substring("Cpus_allowed_list:".length()));
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			System.err.println(PREFIX + "Could not determine allowed cores: " + e.getMessage());
+		}
+		ArrayList<Integer> all = new ArrayList<>();
+		for (int i = 0; i < Runtime.getRuntime().availableProcessors(); i++) {
+			all.add(i);
+		}
+		return all;
+	}
+
+	/**
+	 * Parses a core list in the format used by Linux (e.g. '0-3,6,8-9').
+	 * @param coreList Core list
+	 * @return Core ids
+	 * @throws NumberFormatException if malformed
+	 */
+	public static List<Integer> parseCoreList(String coreList) {
+		TreeSet<Integer> parsed = new TreeSet<>();
+		for (String range: coreList.trim().split(",")) {
+			if (range.trim().isEmpty()) {
+				continue;
+			}
+			String[] bounds = range.trim().split("-");
+			int from = Integer.parseInt(bounds[0].trim());
+			int to = (bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : from);
+			for (int core = from; core <= to; core++) {
+				parsed.add(core);
+			}
+		}
+		return new ArrayList<>(parsed);
+	}
+
+	/**
+	 * Formats cores as core list for taskset (e.g. '1,2,5').
+	 * @param cores Core ids
+	 * @return Core list
+	 */
+	public static String formatCoreList(Collection<Integer> cores) {
+		StringBuilder builder = new StringBuilder();
+		for (Integer core: cores) {
+			builder.append(builder.length() == 0 ? "" : ",").append(core);
+		}
+		return builder.toString();
+	}
+
+}
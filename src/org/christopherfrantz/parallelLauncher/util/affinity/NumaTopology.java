@@ -0,0 +1,515 @@
+package org.christopherfrantz.parallelLauncher.util.affinity;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * NUMA topology of a Linux machine (as reported in /sys/devices/system/node), used to spread
+ * launched processes evenly across memory nodes and to bind each process to the cores of a
+ * single node and to prefer (or strictly use) that node's memory, so it does not access memory
+ * of remote nodes.<BR>
+ * Slots are accounted for per node: each node offers one slot per cores-per-process of its
+ * cores, and processes are placed on the node with the lowest share of occupied slots (ties
+ * broken by free memory), so a fully occupied node does not hold back launches on others.
+ * Occupancy is shared between launchers on the same machine via placement files in a shared
+ * directory, each of which is kept locked by its launcher until the placed process terminates.
+ * Since the OS releases file locks when a process terminates (including crashes), placements
+ * of terminated launchers are discarded.<BR>
+ * Processes are bound via numactl if available; else they are restricted to the node's cores
+ * via taskset, with memory being allocated locally by the kernel's default (first-touch) policy.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class NumaTopology {
+
+	private static final String PREFIX = "NumaTopology: ";
+
+	/**
+	 * Tool used to bind processes to nodes
+	 */
+	public static final String NUMACTL = "numactl";
+
+	/**
+	 * Directory holding node information
+	 */
+	private static final String NODE_DIRECTORY = "/sys/devices/system/node";
+
+	/**
+	 * Prefix of node directories
+	 */
+	private static final String NODE_PREFIX = "node";
+
+	/**
+	 * Key of free memory in node meminfo (following 'Node &lt;id&gt;')
+	 */
+	private static final String MEM_FREE = "MemFree:";
+
+	/**
+	 * Name of lock file guarding the placement directory
+	 */
+	private static final String LOCK_FILE = "placements.lock";
+
+	/**
+	 * Ending of placement files
+	 */
+	private static final String PLACEMENT_FILE_ENDING = ".placement";
+
+	/**
+	 * Guards access to the lock file from within this JVM, as file locks
+	 * are held on behalf of the entire JVM (and overlapping locks are rejected).
+	 */
+	private static final Object directoryLock = new Object();
+
+	/**
+	 * Placement files held within this JVM (must not be opened by occupancy counts, since
+	 * closing any channel to a file may release all locks of the JVM on it)
+	 */
+	private static final Set<File> heldPlacementFiles = Collections.synchronizedSet(new HashSet<File>());
+
+	/**
+	 * Nodes (with cores launched processes may run on)
+	 */
+	private final List<Node> nodes;
+
+	/**
+	 * Indicates whether numactl is available
+	 */
+	private final boolean numactlAvailable;
+
+	/**
+	 * Indicates whether processes may only allocate memory of their node (else they prefer it)
+	 */
+	private final boolean strictMemoryBinding;
+
+	/**
+	 * Directory holding placement files
+	 */
+	private final File placementDirectory;
+
+	/**
+	 * Memory node with the cores launched processes may run on
+	 */
+	public static class Node {
+
+		/**
+		 * Node id
+		 */
+		private final int id;
+
+		/**
+		 * Cores of node launched processes may run on
+		 */
+		private final List<Integer> cores;
+
+		/**
+		 * Indicates whether launched processes may run on all cores of the node
+		 */
+		private final boolean allCores;
+
+		/**
+		 * Number of slots for launched processes
+		 */
+		private final int slots;
+
+		private Node(int id, List<Integer> cores, boolean allCores, int slots) {
+			this.id = id;
+			this.cores = cores;
+			this.allCores = allCores;
+			this.slots = slots;
+		}
+
+		/**
+		 * Returns the node id.
+		 * @return Node id
+		 */
+		public int getId() {
+			return id;
+		}
+
+		/**
+		 * Returns the cores of the node launched processes may run on.
+		 * @return Core ids
+		 */
+		public List<Integer> getCores() {
+			return new ArrayList<>(cores);
+		}
+
+		/**
+		 * Returns the free memory of the node.
+		 * @return Free memory in bytes (0 if not determinable)
+		 */
+		public long getFreeMemory() {
+			try {
+				for (String line: Files.readAllLines(new File(NODE_DIRECTORY + File.separator + NODE_PREFIX + id, "meminfo").toPath(), Charset.defaultCharset())) {
+					// Lines of the form 'Node 0 MemFree:  123456 kB'
+					int index = line.indexOf(MEM_FREE);
+					if (index != -1) {
+						String value = line.substring(index + MEM_FREE.length()).trim();
+						if (value.endsWith("kB")) {
+							value = value.substring(0, value.length() - 2).trim();
+						}
+						return Long.parseLong(value) * 1024;
+					}
+				}
+			} catch (IOException | NumberFormatException e) {
+				// Treated as no free memory
+			}
+			return 0L;
+		}
+
+		@Override
+		public String toString() {
+			return "node " + id + " (cores " + LinuxCoreAllocator.formatCoreList(cores) + ")";
+		}
+	}
+
+	/**
+	 * Process placed on a node, occupying a slot until released
+	 */
+	public class Placement {
+
+		/**
+		 * Node process is placed on
+		 */
+		private final Node node;
+
+		/**
+		 * Placement file (null if placement is not shared with other launchers)
+		 */
+		private File placementFile = null;
+
+		/**
+		 * Open placement file (needs to remain open to retain the lock)
+		 */
+		private RandomAccessFile access = null;
+
+		/**
+		 * Lock on placement file
+		 */
+		private FileLock lock = null;
+
+		private Placement(Node node) {
+			this.node = node;
+		}
+
+		/**
+		 * Returns the node the process is placed on.
+		 * @return Node
+		 */
+		public Node getNode() {
+			return node;
+		}
+
+		/**
+		 * Frees the slot occupied on the node (unless already released).
+		 */
+		public void release() {
+			synchronized (directoryLock) {
+				if (placementFile == null) {
+					return;
+				}
+				try {
+					lock.release();
+					access.close();
+				} catch (IOException e) {
+					// Released anyway once file is closed
+				}
+				heldPlacementFiles.remove(placementFile);
+				placementFile.delete();
+				placementFile = null;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return node.toString();
+		}
+	}
+
+	private NumaTopology(List<Node> nodes, boolean numactlAvailable, boolean strictMemoryBinding, File placementDirectory) {
+		this.nodes = nodes;
+		this.numactlAvailable = numactlAvailable;
+		this.strictMemoryBinding = strictMemoryBinding;
+		this.placementDirectory = placementDirectory;
+	}
+
+	/**
+	 * Reads the NUMA topology, restricted to the cores launched processes may run on.
+	 * @param launchCores Cores launched processes may run on
+	 * @param coresPerProcess Number of cores per launched process (determines slots per node)
+	 * @param strictMemoryBinding Indicates whether processes may only allocate memory of their node 
+	 * 		(else they prefer it, but spill over to other nodes if exhausted)
+	 * @param placementDirectory Directory for placement files (shared by launchers on same machine; created if not existing)
+	 * @return Topology or null if the machine does not have multiple nodes with such cores
+	 * @throws IOException if placement directory cannot be created
+	 */
+	public static NumaTopology read(Collection<Integer> launchCores, int coresPerProcess, boolean strictMemoryBinding, 
+			File placementDirectory) throws IOException {
+		File[] nodeDirectories = new File(NODE_DIRECTORY).listFiles(new FileFilter() {
+
+			@Override
+			public boolean accept(File file) {
+				return file.isDirectory() && file.getName().matches(NODE_PREFIX + "\\d+");
+			}
+		});
+		if (nodeDirectories == null || nodeDirectories.length < 2) {
+			return null;
+		}
+		Arrays.sort(nodeDirectories);
+		ArrayList<Node> nodes = new ArrayList<>();
+		for (File nodeDirectory: nodeDirectories) {
+			try {
+				List<Integer> nodeCores = LinuxCoreAllocator.parseCoreList(new String(
+						Files.readAllBytes(new File(nodeDirectory, "cpulist").toPath()), Charset.defaultCharset()));
+				ArrayList<Integer> cores = new ArrayList<>(nodeCores);
+				cores.retainAll(launchCores);
+				if (cores.isEmpty()) {
+					// Memory-only node or no cores left for launched processes
+					continue;
+				}
+				int id = Integer.parseInt(nodeDirectory.getName().substring(NODE_PREFIX.length()));
+				nodes.add(new Node(id, cores, cores.size() == nodeCores.size(), Math.max(1, cores.size() / Math.max(1, coresPerProcess))));
+			} catch (IOException | NumberFormatException e) {
+				System.err.println(PREFIX + "Could not read " + nodeDirectory.getName() + ": " + e.getMessage());
+			}
+		}
+		if (nodes.size() < 2) {
+			return null;
+		}
+		if (!placementDirectory.isDirectory() && !placementDirectory.mkdirs() && !placementDirectory.isDirectory()) {
+			throw new IOException("Could not create placement directory " + placementDirectory.getAbsolutePath());
+		}
+		return new NumaTopology(nodes, isNumactlAvailable(), strictMemoryBinding, placementDirectory);
+	}
+
+	/**
+	 * Indicates whether processes can be bound to nodes via numactl.
+	 * @return true if numactl is available
+	 */
+	public static boolean isNumactlAvailable() {
+		String path = System.getenv("PATH");
+		if (path == null) {
+			return false;
+		}
+		for (String directory: path.split(File.pathSeparator)) {
+			if (new File(directory, NUMACTL).canExecute()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the nodes in order of preference for the next launched process: nodes with free
+	 * slots before full ones, each by ascending share of occupied slots (by processes of all
+	 * launchers) and descending free memory.
+	 * @return Nodes
+	 */
+	public List<Node> rankNodes() {
+		final Map<Integer, Integer> occupied = countPlacements();
+		final ArrayList<Node> ranked = new ArrayList<>(nodes);
+		final Map<Node, Long> freeMemory = new HashMap<>();
+		for (Node node: ranked) {
+			freeMemory.put(node, node.getFreeMemory());
+		}
+		Collections.sort(ranked, new Comparator<Node>() {
+
+			@Override
+			public int compare(Node node1, Node node2) {
+				int occupied1 = occupied.get(node1.id);
+				int occupied2 = occupied.get(node2.id);
+				boolean full1 = occupied1 >= node1.slots;
+				boolean full2 = occupied2 >= node2.slots;
+				if (full1 != full2) {
+					return full1 ? 1 : -1;
+				}
+				int occupancy = Double.compare(occupied1 / (double) node1.slots, occupied2 / (double) node2.slots);
+				if (occupancy != 0) {
+					return occupancy;
+				}
+				return Long.compare(freeMemory.get(node2), freeMemory.get(node1));
+			}
+		});
+		return ranked;
+	}
+
+	/**
+	 * Places a process on a node, i.e. occupies a slot on it (visible to other launchers)
+	 * until the returned placement is released. If the placement cannot be shared, it is
+	 * still returned (but only bindings are applied).
+	 * @param node Node
+	 * @return Placement
+	 */
+	public Placement acquire(Node node) {
+		Placement placement = new Placement(node);
+		String jvmName = ManagementFactory.getRuntimeMXBean().getName();
+		String pid = (jvmName.contains("@") ? jvmName.substring(0, jvmName.indexOf('@')) : jvmName);
+		File placementFile = new File(placementDirectory, NODE_PREFIX + node.id + "_" + pid + "_" + System.nanoTime() + PLACEMENT_FILE_ENDING).getAbsoluteFile();
+		synchronized (directoryLock) {
+			try (RandomAccessFile lockFile = new RandomAccessFile(new File(placementDirectory, LOCK_FILE), "rw")) {
+				FileLock directory = lockFile.getChannel().lock();
+				try {
+					RandomAccessFile access = new RandomAccessFile(placementFile, "rw");
+					FileLock lock = access.getChannel().tryLock();
+					if (lock == null) {
+						access.close();
+						throw new IOException("Placement file " + placementFile.getAbsolutePath() + " is locked by another process.");
+					}
+					placement.placementFile = placementFile;
+					placement.access = access;
+					placement.lock = lock;
+					heldPlacementFiles.add(placementFile);
+				} finally {
+					directory.release();
+				}
+			} catch (IOException e) {
+				System.err.println(PREFIX + "Could not share placement on " + node + " with other launchers: " + e.getMessage());
+			}
+		}
+		return placement;
+	}
+
+	/**
+	 * Counts the processes placed on each node by any launcher on the machine, and removes
+	 * placement files of terminated launchers.
+	 * @return Number of placed processes per node id
+	 */
+	private Map<Integer, Integer> countPlacements() {
+		HashMap<Integer, Integer> occupied = new HashMap<>();
+		for (Node node: nodes) {
+			occupied.put(node.id, 0);
+		}
+		synchronized (directoryLock) {
+			try (RandomAccessFile lockFile = new RandomAccessFile(new File(placementDirectory, LOCK_FILE), "rw")) {
+				FileLock directory = lockFile.getChannel().lock();
+				try {
+					File[] files = placementDirectory.listFiles();
+					if (files == null) {
+						throw new IOException("Could not list placement directory " + placementDirectory.getAbsolutePath());
+					}
+					for (File file: files) {
+						String name = file.getName();
+						if (!name.startsWith(NODE_PREFIX) || !name.endsWith(PLACEMENT_FILE_ENDING) || name.indexOf('_') == -1) {
+							continue;
+						}
+						Integer id;
+						try {
+							id = Integer.parseInt(name.substring(NODE_PREFIX.length(), name.indexOf('_')));
+						} catch (NumberFormatException e) {
+							continue;
+						}
+						if (occupied.containsKey(id) && isHeld(file.getAbsoluteFile())) {
+							occupied.put(id, occupied.get(id) + 1);
+						}
+					}
+				} finally {
+					directory.release();
+				}
+			} catch (IOException e) {
+				System.err.println(PREFIX + "Could not read placements of other launchers: " + e.getMessage());
+			}
+		}
+		return occupied;
+	}
+
+	/**
+	 * Checks whether a placement file is held by a launcher, and deletes it if not. Requires directory lock.
+	 * @param file Placement file
+	 * @return true if held
+	 */
+	private static boolean isHeld(File file) {
+		if (heldPlacementFiles.contains(file)) {
+			return true;
+		}
+		try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+			FileLock lock;
+			try {
+				lock = access.getChannel().tryLock();
+			} catch (OverlappingFileLockException e) {
+				// Held within this JVM
+				return true;
+			}
+			if (lock == null) {
+				// Held by other launcher
+				return true;
+			}
+			lock.release();
+		} catch (IOException e) {
+			// Deleted in the meantime
+			return false;
+		}
+		file.delete();
+		return false;
+	}
+
+	/**
+	 * Returns the number of processes placed per node (for output).
+	 * @return Description of node occupancy (e.g. 'node 0: 2/4, node 1: 1/4')
+	 */
+	public String getOccupancy() {
+		Map<Integer, Integer> occupied = countPlacements();
+		StringBuilder builder = new StringBuilder();
+		for (Node node: nodes) {
+			builder.append(builder.length() == 0 ? "" : ", ").append(NODE_PREFIX).append(" ").append(node.id).append(": ")
+				.append(occupied.get(node.id)).append("/").append(node.slots);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Returns the nodes.
+	 * @return Nodes
+	 */
+	public List<Node> getNodes() {
+		return new ArrayList<>(nodes);
+	}
+
+	/**
+	 * Indicates whether processes are bound via numactl (else via taskset).
+	 * @return true if using numactl
+	 */
+	public boolean usesNumactl() {
+		return numactlAvailable;
+	}
+
+	/**
+	 * Builds the command prefix running a command bound to a node.
+	 * @param node Node
+	 * @param cores Cores allocated to the process (null if the process may run on all cores of the node)
+	 * @return Command prefix (numactl or taskset invocation)
+	 */
+	public List<String> buildCommandPrefix(Node node, List<Integer> cores) {
+		if (!numactlAvailable) {
+			return LinuxCoreAllocator.buildCommandPrefix(cores != null ? cores : node.cores);
+		}
+		ArrayList<String> prefix = new ArrayList<>();
+		prefix.add(NUMACTL);
+		if (cores == null && node.allCores) {
+			prefix.add("--cpunodebind=" + node.id);
+		} else {
+			prefix.add("--physcpubind=" + LinuxCoreAllocator.formatCoreList(cores != null ? cores : node.cores));
+		}
+		// Preferred memory spills over to other nodes instead of swapping once the node is exhausted
+		prefix.add((strictMemoryBinding ? "--membind=" : "--preferred=") + node.id);
+		return prefix;
+	}
+
+}
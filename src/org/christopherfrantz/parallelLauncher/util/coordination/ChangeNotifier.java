@@ -0,0 +1,148 @@
+package org.christopherfrantz.parallelLauncher.util.coordination;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notifies waiting launchers about state changes (such as terminated processes
+ * or launchers) via a notification file in a shared directory. Notifying parties
+ * rewrite the file; waiting parties block on a {@link WatchService} for the directory
+ * and wake up as soon as the file changes. Changes occurring between two waits are
+ * retained by the watch service, so notifications are not lost while the waiting
+ * party performs its checks.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class ChangeNotifier {
+
+	private static final String PREFIX = "ChangeNotifier: ";
+
+	/**
+	 * Name of notification file
+	 */
+	public static final String NOTIFICATION_FILE = "ParallelLauncher_Notification";
+
+	/**
+	 * Directory holding notification file
+	 */
+	private final File directory;
+
+	/**
+	 * Watch service for notification file (lazily initialized upon first wait)
+	 */
+	private WatchService watcher = null;
+
+	/**
+	 * Instantiates notifier operating on the given directory (which is created if not existing).
+	 * @param directory Shared directory for notification file
+	 * @throws IOException if directory cannot be created
+	 */
+	public ChangeNotifier(File directory) throws IOException {
+		this.directory = directory;
+		if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+			throw new IOException("Could not create notification directory " + directory.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * Starts watching the notification directory. Should be called before the first
+	 * check of the state a party is waiting for, so no notification is missed.
+	 * Repeated calls have no effect.
+	 * @throws IOException if watch service cannot be registered
+	 */
+	public synchronized void startWatching() throws IOException {
+		if (watcher != null) {
+			return;
+		}
+		WatchService service = FileSystems.getDefault().newWatchService();
+		directory.toPath().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		watcher = service;
+	}
+
+	/**
+	 * Notifies all waiting parties by rewriting the notification file.
+	 * Failures are reported but not propagated, as waiting parties
+	 * fall back to their regular check frequency.
+	 */
+	public void notifyWaitingParties() {
+		try {
+			// Write to temporary file and move, so the notification file is never observed partially written
+			Path temp = Files.createTempFile(directory.toPath(), NOTIFICATION_FILE, ".tmp");
+			Files.write(temp, String.valueOf(System.currentTimeMillis()).getBytes(Charset.forName("US-ASCII")));
+			Files.move(temp, new File(directory, NOTIFICATION_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Could not write notification file in " + directory.getAbsolutePath() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Blocks until the notification file changes or the timeout elapses.
+	 * Starts watching if not done before.
+	 * @param timeout Maximum waiting time in milliseconds
+	 * @return true if notified, false if timed out
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean awaitNotification(long timeout) throws InterruptedException {
+		try {
+			startWatching();
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Could not watch directory " + directory.getAbsolutePath() + ": " + e.getMessage());
+			Thread.sleep(timeout);
+			return false;
+		}
+		long deadline = System.currentTimeMillis() + timeout;
+		long remaining = timeout;
+		while (remaining > 0) {
+			WatchKey key;
+			try {
+				key = watcher.poll(remaining, TimeUnit.MILLISECONDS);
+			} catch (ClosedWatchServiceException e) {
+				Thread.sleep(remaining);
+				return false;
+			}
+			if (key == null) {
+				return false;
+			}
+			boolean notified = false;
+			for (WatchEvent<?> event: key.pollEvents()) {
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW
+						|| NOTIFICATION_FILE.equals(String.valueOf(event.context()))) {
+					notified = true;
+				}
+			}
+			key.reset();
+			if (notified) {
+				return true;
+			}
+			remaining = deadline - System.currentTimeMillis();
+		}
+		return false;
+	}
+
+	/**
+	 * Stops watching the notification directory.
+	 */
+	public synchronized void stopWatching() {
+		if (watcher != null) {
+			try {
+				watcher.close();
+			} catch (IOException e) {
+				// Nothing to do
+			}
+			watcher = null;
+		}
+	}
+
+}
@@ -0,0 +1,311 @@
+package org.christopherfrantz.parallelLauncher.util.coordination;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+
+/**
+ * File-based ticket queue for ordering launchers without querying the OS process table.
+ * Tickets are drawn from a sequence file in the queue directory that is guarded by an
+ * exclusive file lock. Each drawn ticket is represented by a lease file which its owner
+ * keeps locked for as long as it is alive. Since the OS releases file locks when a process
+ * terminates (including crashes), leases whose lock can be acquired by another process
+ * are stale and are removed during queue inspection.<BR>
+ * Queue directories can be shared between processes of the same user on one machine.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class LauncherTicketQueue {
+
+	private static final String PREFIX = "LauncherTicketQueue: ";
+
+	/**
+	 * Name of sequence file holding the number of the next ticket
+	 */
+	private static final String SEQUENCE_FILE = "sequence";
+
+	/**
+	 * Prefix for lease files
+	 */
+	private static final String LEASE_FILE_PREFIX = "ticket_";
+
+	/**
+	 * Ending for lease files
+	 */
+	private static final String LEASE_FILE_ENDING = ".lease";
+
+	/**
+	 * Guards access to sequence files from within this JVM, as file locks
+	 * are held on behalf of the entire JVM (and overlapping locks are rejected).
+	 */
+	private static final Object sequenceLock = new Object();
+
+	/**
+	 * Directory holding sequence and lease files
+	 */
+	private final File queueDirectory;
+
+	/**
+	 * Ticket drawn by this instance (null if none drawn)
+	 */
+	private Long ticket = null;
+
+	/**
+	 * Lease file of drawn ticket
+	 */
+	private File leaseFile = null;
+
+	/**
+	 * Open lease file (needs to remain open to retain the lock)
+	 */
+	private RandomAccessFile lease = null;
+
+	/**
+	 * Lock on lease file, held until ticket is released
+	 */
+	private FileLock leaseLock = null;
+
+	/**
+	 * Instantiates a ticket queue operating on the given directory (which is created if not existing).
+	 * @param queueDirectory Directory for queue files
+	 * @throws IOException if directory cannot be created
+	 */
+	public LauncherTicketQueue(File queueDirectory) throws IOException {
+		this.queueDirectory = queueDirectory;
+		if (!queueDirectory.isDirectory() && !queueDirectory.mkdirs() && !queueDirectory.isDirectory()) {
+			throw new IOException("Could not create queue directory " + queueDirectory.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * Returns the directory this queue operates on.
+	 * @return Queue directory
+	 */
+	public File getQueueDirectory() {
+		return queueDirectory;
+	}
+
+	/**
+	 * Returns the ticket drawn by this instance.
+	 * @return Ticket number or null if no ticket has been drawn
+	 */
+	public synchronized Long getTicket() {
+		return ticket;
+	}
+
+	/**
+	 * Draws a new ticket and acquires the lease for it. The lease is held until
+	 * {@link #releaseTicket()} is called or the JVM terminates.
+	 * If a ticket has already been drawn, it is returned instead.
+	 * @return Drawn ticket number
+	 * @throws IOException if sequence or lease file cannot be accessed
+	 */
+	public synchronized long drawTicket() throws IOException {
+		if (ticket != null) {
+			return ticket;
+		}
+		synchronized (sequenceLock) {
+			try (RandomAccessFile sequence = new RandomAccessFile(new File(queueDirectory, SEQUENCE_FILE), "rw")) {
+				FileLock lock = sequence.getChannel().lock();
+				try {
+					long next = 0;
+					if (sequence.length() > 0) {
+						byte[] content = new byte[(int) sequence.length()];
+						sequence.readFully(content);
+						try {
+							next = Long.parseLong(new String(content, Charset.forName("US-ASCII")).trim());
+						} catch (NumberFormatException e) {
+							// Corrupted sequence - restart after highest existing ticket
+							next = getHighestTicketInDirectory() + 1;
+						}
+					}
+					// Acquire lease while holding sequence lock, so other processes never see an unlocked fresh lease
+					File file = new File(queueDirectory, getLeaseFileName(next));
+					RandomAccessFile leaseAccess = new RandomAccessFile(file, "rw");
+					FileLock acquiredLock = leaseAccess.getChannel().tryLock();
+					if (acquiredLock == null) {
+						leaseAccess.close();
+						throw new IOException("Lease file " + file.getAbsolutePath() + " is locked by another process.");
+					}
+					leaseAccess.setLength(0);
+					leaseAccess.getChannel().write(ByteBuffer.wrap(ManagementFactory.getRuntimeMXBean().getName().getBytes(Charset.forName("US-ASCII"))));
+
+					sequence.setLength(0);
+					sequence.write(String.valueOf(next + 1).getBytes(Charset.forName("US-ASCII")));
+					sequence.getChannel().force(true);
+
+					ticket = next;
+					leaseFile = file;
+					lease = leaseAccess;
+					leaseLock = acquiredLock;
+				} finally {
+					lock.release();
+				}
+			}
+		}
+		// Make sure lease is removed on regular termination (OS releases lock in any case)
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+			@Override
+			public void run() {
+				releaseTicket();
+			}
+		}));
+		return ticket;
+	}
+
+	/**
+	 * Returns the number of live tickets drawn before the ticket of this instance,
+	 * i.e. its position in the queue (0 if first).
+	 * @return Queue position
+	 * @throws IOException if queue directory cannot be inspected
+	 * @throws IllegalStateException if no ticket has been drawn
+	 */
+	public synchronized int getPosition() throws IOException {
+		if (ticket == null) {
+			throw new IllegalStateException(PREFIX + "No ticket drawn in queue " + queueDirectory.getAbsolutePath());
+		}
+		return countLiveTickets(ticket);
+	}
+
+	/**
+	 * Returns the number of live tickets in the queue (i.e. whose owners are still running).
+	 * @return Number of live tickets
+	 * @throws IOException if queue directory cannot be inspected
+	 */
+	public synchronized int getNumberOfLiveTickets() throws IOException {
+		return countLiveTickets(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Releases the ticket drawn by this instance (if any) and deletes its lease file.
+	 */
+	public synchronized void releaseTicket() {
+		if (ticket == null) {
+			return;
+		}
+		synchronized (sequenceLock) {
+			try {
+				leaseLock.release();
+				lease.close();
+			} catch (IOException e) {
+				System.err.println(PREFIX + "Error when releasing lease " + leaseFile.getAbsolutePath() + ": " + e.getMessage());
+			}
+			leaseFile.delete();
+		}
+		ticket = null;
+		leaseFile = null;
+		lease = null;
+		leaseLock = null;
+	}
+
+	/**
+	 * Counts live tickets with numbers lower than the given one and removes stale leases.
+	 * Performed under the sequence lock to prevent interference with concurrently drawn tickets.
+	 * @param upperBound Exclusive upper bound for ticket numbers to be counted
+	 * @return Number of live tickets
+	 * @throws IOException
+	 */
+	private int countLiveTickets(long upperBound) throws IOException {
+		synchronized (sequenceLock) {
+			try (RandomAccessFile sequence = new RandomAccessFile(new File(queueDirectory, SEQUENCE_FILE), "rw")) {
+				FileLock lock = sequence.getChannel().lock();
+				try {
+					File[] leases = queueDirectory.listFiles();
+					if (leases == null) {
+						throw new IOException("Could not list queue directory " + queueDirectory.getAbsolutePath());
+					}
+					int live = 0;
+					for (File file: leases) {
+						Long number = parseTicket(file.getName());
+						if (number != null && number < upperBound && isAlive(file)) {
+							live++;
+						}
+					}
+					return live;
+				} finally {
+					lock.release();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the owner of a given lease still holds its lock. Stale leases are deleted.
+	 * @param file Lease file
+	 * @return true if lease is held by a running process
+	 */
+	private boolean isAlive(File file) {
+		if (file.equals(leaseFile)) {
+			return true;
+		}
+		try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+			FileLock lock;
+			try {
+				lock = access.getChannel().tryLock();
+			} catch (OverlappingFileLockException e) {
+				// Held by another queue instance in this JVM
+				return true;
+			}
+			if (lock == null) {
+				return true;
+			}
+			lock.release();
+		} catch (IOException e) {
+			// Inaccessible leases are considered to be held
+			return file.exists();
+		}
+		// Owner has terminated without releasing its lease
+		file.delete();
+		return false;
+	}
+
+	/**
+	 * Returns the highest ticket number for which a lease file exists.
+	 * @return Highest ticket number or -1 if none exists
+	 */
+	private long getHighestTicketInDirectory() {
+		long highest = -1;
+		File[] leases = queueDirectory.listFiles();
+		if (leases != null) {
+			for (File file: leases) {
+				Long number = parseTicket(file.getName());
+				if (number != null && number > highest) {
+					highest = number;
+				}
+			}
+		}
+		return highest;
+	}
+
+	/**
+	 * Returns the lease file name for a given ticket.
+	 * @param ticket Ticket number
+	 * @return Lease file name
+	 */
+	private static String getLeaseFileName(long ticket) {
+		return LEASE_FILE_PREFIX + String.format("%019d", ticket) + LEASE_FILE_ENDING;
+	}
+
+	/**
+	 * Extracts the ticket number from a lease file name.
+	 * @param fileName File name
+	 * @return Ticket number or null if not a lease file
+	 */
+	private static Long parseTicket(String fileName) {
+		if (!fileName.startsWith(LEASE_FILE_PREFIX) || !fileName.endsWith(LEASE_FILE_ENDING)) {
+			return null;
+		}
+		try {
+			return Long.parseLong(fileName.substring(LEASE_FILE_PREFIX.length(), fileName.length() - LEASE_FILE_ENDING.length()));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,244 @@
+package org.christopherfrantz.parallelLauncher.util.coordination;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.Semaphore;
+
+import org.christopherfrantz.parallelLauncher.ParallelLauncher;
+
+/**
+ * Broker process owning the number of process slots available on this machine.
+ * Launchers request one slot lease per launched process via a socket connection
+ * (see {@link SlotBrokerClient}). Leases are granted in order of request once a slot is
+ * available and remain valid until the client closes the connection, so leases of
+ * terminated launchers are released automatically.<BR>
+ * The broker listens on the loopback interface only and publishes its port in
+ * {@link #PORT_FILE} in the shared runtime directory, together with a random token
+ * that clients have to send with their requests. The port file is only readable by
+ * the user running the broker, so other users on the machine cannot take slots.<BR>
+ * Usage: SlotBroker [number of slots] [shared runtime directory]
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class SlotBroker {
+
+	private static final String PREFIX = "SlotBroker: ";
+
+	/**
+	 * File in shared runtime directory holding the port the broker listens on and the
+	 * token required for requests (one per line)
+	 */
+	public static final String PORT_FILE = "SlotBroker_Port";
+
+	/**
+	 * Lock file preventing multiple brokers for the same shared runtime directory
+	 */
+	private static final String LOCK_FILE = "SlotBroker.lock";
+
+	/**
+	 * Request sent by clients to acquire a slot (followed by a space and the token)
+	 */
+	static final String ACQUIRE = "ACQUIRE";
+
+	/**
+	 * Response sent to clients once slot is granted
+	 */
+	static final String GRANTED = "GRANTED";
+
+	/**
+	 * Available slots (fair, so leases are granted in order of request)
+	 */
+	private final Semaphore slots;
+
+	/**
+	 * Total number of slots
+	 */
+	private final int capacity;
+
+	/**
+	 * Request expected from clients (including token)
+	 */
+	private final byte[] expectedRequest;
+
+	/**
+	 * Instantiates broker with a given number of slots.
+	 * @param capacity Number of slots
+	 * @param token Token clients have to send with requests
+	 */
+	public SlotBroker(int capacity, String token) {
+		if (capacity < 1) {
+			throw new RuntimeException(PREFIX + "Invalid number of slots: " + capacity);
+		}
+		this.capacity = capacity;
+		this.slots = new Semaphore(capacity, true);
+		this.expectedRequest = (ACQUIRE + " " + token).getBytes(Charset.forName("US-ASCII"));
+	}
+
+	/**
+	 * Generates a random token for authenticating requests.
+	 * @return Hexadecimal token
+	 */
+	public static String generateToken() {
+		byte[] bytes = new byte[16];
+		new SecureRandom().nextBytes(bytes);
+		StringBuilder token = new StringBuilder();
+		for (byte b: bytes) {
+			token.append(String.format("%02x", b));
+		}
+		return token.toString();
+	}
+
+	/**
+	 * Serves lease requests on the given server socket until the JVM is terminated.
+	 * @param server Bound server socket
+	 * @throws IOException if accepting connections fails
+	 */
+	public void serve(ServerSocket server) throws IOException {
+		while (true) {
+			final Socket client = server.accept();
+			Thread handler = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					handle(client);
+				}
+
+			}, "SlotBroker lease " + client.getPort());
+			handler.setDaemon(true);
+			handler.start();
+		}
+	}
+
+	/**
+	 * Handles an individual client connection: grants a slot upon request
+	 * and releases it once the connection is closed.
+	 * @param client Client connection
+	 */
+	private void handle(Socket client) {
+		boolean granted = false;
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), Charset.forName("US-ASCII")));
+			String request = reader.readLine();
+			// Constant-time comparison, so the token cannot be guessed from response times
+			if (request == null || !MessageDigest.isEqual(expectedRequest, request.getBytes(Charset.forName("US-ASCII")))) {
+				if (request != null) {
+					System.err.println(PREFIX + "Rejected request without valid token from " + client.getRemoteSocketAddress() + ".");
+				}
+				return;
+			}
+			slots.acquire();
+			granted = true;
+			OutputStream out = client.getOutputStream();
+			out.write((GRANTED + "\n").getBytes(Charset.forName("US-ASCII")));
+			out.flush();
+			if (ParallelLauncher.debug) {
+				System.out.println(PREFIX + "Granted slot to " + client.getRemoteSocketAddress() + " (" + getNumberOfUsedSlots() + " of " + capacity + " in use).");
+			}
+			// Lease lasts until client closes connection
+			while (reader.readLine() != null) {
+				// Ignore further input
+			}
+		} catch (IOException | InterruptedException e) {
+			// Connection dropped - release slot in any case
+		} finally {
+			if (granted) {
+				slots.release();
+				if (ParallelLauncher.debug) {
+					System.out.println(PREFIX + "Released slot of " + client.getRemoteSocketAddress() + " (" + getNumberOfUsedSlots() + " of " + capacity + " in use).");
+				}
+			}
+			try {
+				client.close();
+			} catch (IOException e) {
+				// Nothing to do
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of currently leased slots.
+	 * @return Number of leased slots
+	 */
+	public int getNumberOfUsedSlots() {
+		return capacity - slots.availablePermits();
+	}
+
+	/**
+	 * Starts broker for the shared runtime directory used by ParallelLaunchers.
+	 * @param args Optional number of slots (default: number of available cores) and shared runtime directory
+	 */
+	public static void main(String[] args) {
+		int capacity = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		File directory = args.length > 1 ? new File(args[1]) : ParallelLauncher.getSharedRuntimeDirectory();
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new RuntimeException(PREFIX + "Could not create shared runtime directory " + directory.getAbsolutePath());
+		}
+		try (RandomAccessFile lockFile = new RandomAccessFile(new File(directory, LOCK_FILE), "rw")) {
+			FileLock lock = lockFile.getChannel().tryLock();
+			if (lock == null) {
+				System.err.println(PREFIX + "Another broker is already running for " + directory.getAbsolutePath() + ". Exiting ...");
+				return;
+			}
+			final File portFile = new File(directory, PORT_FILE);
+			try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+				String token = generateToken();
+				// Publish port and token atomically, readable by current user only
+				Path temp = createPrivateFile(directory);
+				Files.write(temp, (server.getLocalPort() + "\n" + token).getBytes(Charset.forName("US-ASCII")));
+				Files.move(temp, portFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+
+					@Override
+					public void run() {
+						portFile.delete();
+					}
+
+				}));
+				System.out.println(PREFIX + "Serving " + capacity + " slots on port " + server.getLocalPort() + " for " + directory.getAbsolutePath() + ".");
+				new SlotBroker(capacity, token).serve(server);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(PREFIX + "Broker failed: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Creates a temporary file for the port file that only the current user can read and write.
+	 * On file systems without POSIX permissions (Windows), permissions are restricted
+	 * as far as supported; there, the default shared runtime directory (in the temporary
+	 * directory of the user) is not accessible to other users anyway.
+	 * @param directory Shared runtime directory
+	 * @return Created file
+	 * @throws IOException if file cannot be created
+	 */
+	private static Path createPrivateFile(File directory) throws IOException {
+		if (directory.toPath().getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			return Files.createTempFile(directory.toPath(), PORT_FILE, ".tmp", 
+					PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		}
+		Path temp = Files.createTempFile(directory.toPath(), PORT_FILE, ".tmp");
+		File file = temp.toFile();
+		file.setReadable(false, false);
+		file.setReadable(true, true);
+		file.setWritable(false, false);
+		file.setWritable(true, true);
+		return temp;
+	}
+
+}
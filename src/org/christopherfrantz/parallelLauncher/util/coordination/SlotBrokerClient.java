@@ -0,0 +1,145 @@
+package org.christopherfrantz.parallelLauncher.util.coordination;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Client for {@link SlotBroker}. Each lease is backed by its own connection to the
+ * broker and is released by closing it (which the OS does automatically if the
+ * holding process terminates).
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class SlotBrokerClient {
+
+	/**
+	 * Slot lease granted by the broker.
+	 */
+	public static class Lease {
+
+		private final Socket connection;
+
+		private Lease(Socket connection) {
+			this.connection = connection;
+		}
+
+		/**
+		 * Returns the slot to the broker. Repeated calls have no effect.
+		 */
+		public void release() {
+			try {
+				connection.close();
+			} catch (IOException e) {
+				// Broker releases slot once connection is gone
+			}
+		}
+	}
+
+	/**
+	 * Port the broker listens on
+	 */
+	private final int port;
+
+	/**
+	 * Token required by the broker
+	 */
+	private final String token;
+
+	private SlotBrokerClient(int port, String token) {
+		this.port = port;
+		this.token = token;
+	}
+
+	/**
+	 * Connects to the broker serving the given shared runtime directory.
+	 * @param directory Shared runtime directory
+	 * @return Client or null if no broker is running (for the current user)
+	 */
+	public static SlotBrokerClient connect(File directory) {
+		File portFile = new File(directory, SlotBroker.PORT_FILE);
+		if (!portFile.exists()) {
+			return null;
+		}
+		int port;
+		String token;
+		try {
+			if (!isPrivate(portFile.toPath())) {
+				System.err.println("SlotBrokerClient: Ignoring " + portFile.getAbsolutePath() + " as it is not private to the current user.");
+				return null;
+			}
+			List<String> lines = Files.readAllLines(portFile.toPath(), Charset.forName("US-ASCII"));
+			if (lines.size() < 2) {
+				return null;
+			}
+			port = Integer.parseInt(lines.get(0).trim());
+			token = lines.get(1).trim();
+		} catch (IOException | NumberFormatException e) {
+			return null;
+		}
+		// Check whether broker is actually listening (port file may be left over)
+		try {
+			// Broker discards connections without request
+			new Socket(InetAddress.getLoopbackAddress(), port).close();
+		} catch (IOException e) {
+			return null;
+		}
+		return new SlotBrokerClient(port, token);
+	}
+
+	/**
+	 * Checks whether a port file is owned by the current user and not accessible to 
+	 * other users, so it cannot have been written (e.g. pointing to another broker) or read 
+	 * by them. Always true on file systems without POSIX permissions.
+	 * @param portFile Port file
+	 * @return true if file is private to current user
+	 * @throws IOException if attributes cannot be read
+	 */
+	private static boolean isPrivate(Path portFile) throws IOException {
+		if (!portFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			return true;
+		}
+		Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(portFile);
+		for (PosixFilePermission permission: permissions) {
+			if (permission != PosixFilePermission.OWNER_READ && permission != PosixFilePermission.OWNER_WRITE) {
+				return false;
+			}
+		}
+		return Files.getOwner(portFile).getName().equals(System.getProperty("user.name"));
+	}
+
+	/**
+	 * Requests a slot and blocks until the broker grants it.
+	 * @return Granted lease
+	 * @throws IOException if connection to broker fails
+	 */
+	public Lease acquire() throws IOException {
+		Socket connection = new Socket(InetAddress.getLoopbackAddress(), port);
+		try {
+			connection.setKeepAlive(true);
+			OutputStream out = connection.getOutputStream();
+			out.write((SlotBroker.ACQUIRE + " " + token + "\n").getBytes(Charset.forName("US-ASCII")));
+			out.flush();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), Charset.forName("US-ASCII")));
+			if (!SlotBroker.GRANTED.equals(reader.readLine())) {
+				throw new IOException("Broker on port " + port + " did not grant slot.");
+			}
+			return new Lease(connection);
+		} catch (IOException e) {
+			connection.close();
+			throw e;
+		}
+	}
+
+}
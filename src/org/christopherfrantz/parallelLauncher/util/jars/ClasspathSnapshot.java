@@ -0,0 +1,162 @@
+package org.christopherfrantz.parallelLauncher.util.jars;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Freezes a classpath directory by copying it into a snapshot directory, as an alternative
+ * to packing it into a JAR file. The snapshot avoids compression and unzipping upon start
+ * of launched processes, and is independent from the source directory, so recompilation
+ * (including in-place rewrites of class files) does not affect it.<BR>
+ * Files are copied with 'cp --reflink=auto' where available, which creates copy-on-write
+ * clones on file systems supporting them (e.g. Btrfs, XFS), so the snapshot costs neither
+ * copying nor additional disk space. Otherwise (or if cp fails), files are copied regularly.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class ClasspathSnapshot {
+
+	/**
+	 * Number of files in the snapshot
+	 */
+	private int files = 0;
+
+	/**
+	 * Indicates whether the snapshot has been created by cp (with copy-on-write where supported)
+	 */
+	private boolean clonedWhereSupported = false;
+
+	/**
+	 * Instantiates snapshot.
+	 */
+	private ClasspathSnapshot() {
+	}
+
+	/**
+	 * Creates a snapshot of the given directory.
+	 * @param source Directory to be frozen
+	 * @param target Snapshot directory (must not exist yet)
+	 * @return Snapshot statistics
+	 * @throws IOException if snapshot cannot be created
+	 */
+	public static ClasspathSnapshot create(File source, File target) throws IOException {
+		if (!source.isDirectory()) {
+			throw new IOException("Not a directory: " + source.getAbsolutePath());
+		}
+		if (target.exists()) {
+			throw new IOException("Snapshot directory already exists: " + target.getAbsolutePath());
+		}
+		ClasspathSnapshot snapshot = new ClasspathSnapshot();
+		if (cloneWithCp(source, target)) {
+			snapshot.clonedWhereSupported = true;
+			snapshot.files = countFiles(target);
+		} else {
+			FileUtils.deleteQuietly(target);
+			snapshot.copy(source, target);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Returns the number of files in the snapshot.
+	 * @return Number of files
+	 */
+	public int getNumberOfFiles() {
+		return files;
+	}
+
+	/**
+	 * Indicates whether files have been cloned (copy-on-write) where supported by the file system,
+	 * instead of being copied regularly.
+	 * @return true if cp has been used with copy-on-write cloning where supported
+	 */
+	public boolean isClonedWhereSupported() {
+		return clonedWhereSupported;
+	}
+
+	/**
+	 * Copies the content of a directory using 'cp --reflink=auto'.
+	 * @param source Source directory
+	 * @param target Target directory
+	 * @return true if copying succeeded, false if cp is not available or failed
+	 */
+	private static boolean cloneWithCp(File source, File target) {
+		if (!target.mkdirs()) {
+			return false;
+		}
+		List<String> command = new ArrayList<>();
+		command.add("cp");
+		command.add("-R");
+		command.add("--reflink=auto");
+		command.add("--preserve=timestamps");
+		command.add(source.getAbsolutePath() + File.separator + ".");
+		command.add(target.getAbsolutePath());
+		ProcessBuilder pb = new ProcessBuilder(command);
+		pb.redirectErrorStream(true);
+		try {
+			Process process = pb.start();
+			// Error output only indicates fallback to regular copying
+			IOUtils.toString(process.getInputStream(), Charset.defaultCharset());
+			return process.waitFor() == 0;
+		} catch (IOException e) {
+			// E.g. no cp available (Windows)
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Recursively copies a directory.
+	 * @param source Source directory
+	 * @param target Target directory
+	 * @throws IOException if copying fails
+	 */
+	private void copy(File source, File target) throws IOException {
+		if (!target.mkdirs() && !target.isDirectory()) {
+			throw new IOException("Could not create directory " + target.getAbsolutePath());
+		}
+		File[] children = source.listFiles();
+		if (children == null) {
+			throw new IOException("Could not list directory " + source.getAbsolutePath());
+		}
+		for (File child: children) {
+			File copied = new File(target, child.getName());
+			if (child.isDirectory()) {
+				copy(child, copied);
+			} else {
+				Files.copy(child.toPath(), copied.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+				files++;
+			}
+		}
+	}
+
+	/**
+	 * Recursively counts the files of a directory.
+	 * @param directory Directory
+	 * @return Number of files
+	 * @throws IOException if directory cannot be listed
+	 */
+	private static int countFiles(File directory) throws IOException {
+		File[] children = directory.listFiles();
+		if (children == null) {
+			throw new IOException("Could not list directory " + directory.getAbsolutePath());
+		}
+		int count = 0;
+		for (File child: children) {
+			count += (child.isDirectory() ? countFiles(child) : 1);
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,531 @@
+package org.christopherfrantz.parallelLauncher.util.jars;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Builds JAR files from directory trees incrementally. Along with each JAR, an entries
+ * file is written that records name, size, modification time, CRC and location of each
+ * entry's (compressed) data in the JAR. When rebuilding a JAR for a modified directory,
+ * entries of unchanged files (same size and modification time) are copied raw from the
+ * previous JAR without inflating and deflating them again; only modified or added files
+ * are compressed.<BR>
+ * Since raw copying requires control over the archive layout, JARs are written directly
+ * in ZIP format (without ZIP64 extensions). Directories exceeding the ZIP limits are
+ * packed by {@link JarBuilder} instead (without entries file).
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class IncrementalJarBuilder {
+
+	/**
+	 * First token of entries files (followed by the length of the described JAR)
+	 */
+	private static final String ENTRIES_HEADER = "IncrementalJarBuilder-Entries-1";
+
+	/**
+	 * Size of copy buffer
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Maximum number of entries and maximum size supported without ZIP64 extensions
+	 */
+	private static final long ZIP_LIMIT = 0xFFFFFFFFL;
+
+	private static final int ZIP_ENTRY_LIMIT = 0xFFFF;
+
+	/**
+	 * General purpose flag indicating UTF-8 encoded entry names
+	 */
+	private static final int UTF8_FLAG = 0x800;
+
+	/**
+	 * Compression level (0-9) - 0 stores entries uncompressed
+	 */
+	private final int compressionLevel;
+
+	/**
+	 * Result of a build.
+	 */
+	public static class Statistics {
+
+		/**
+		 * Number of entries copied raw from the previous JAR
+		 */
+		public final int copiedEntries;
+
+		/**
+		 * Number of entries (re)compressed from files
+		 */
+		public final int compressedEntries;
+
+		Statistics(int copiedEntries, int compressedEntries) {
+			this.copiedEntries = copiedEntries;
+			this.compressedEntries = compressedEntries;
+		}
+	}
+
+	/**
+	 * Information on an individual entry as recorded in entries files.
+	 */
+	private static class EntryRecord {
+
+		String name;
+		long size;
+		long time;
+		long crc;
+		int method;
+		long compressedSize;
+		long dataOffset;
+
+		/**
+		 * Offset of local file header in JAR (not recorded in entries files)
+		 */
+		long headerOffset;
+	}
+
+	/**
+	 * Instantiates builder using the given compression level.
+	 * @param compressionLevel Compression level between 0 (STORED) and 9 (best compression)
+	 */
+	public IncrementalJarBuilder(int compressionLevel) {
+		if (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+		}
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Packs the contents of the given directory (recursively) into the given JAR file and
+	 * describes its entries in the given entries file. If a previous JAR along with its
+	 * entries file is given, unchanged entries are copied from it.
+	 * @param directory Directory whose contents are to be packed
+	 * @param target JAR file to be created (overwritten if existing)
+	 * @param entriesFile Entries file to be created for target (deleted if not applicable)
+	 * @param previousJar Previous JAR for the directory (null if none)
+	 * @param previousEntriesFile Entries file of previous JAR (null if none)
+	 * @return Build statistics
+	 * @throws IOException if reading files or writing the JAR fails
+	 */
+	public Statistics build(File directory, File target, File entriesFile, File previousJar, File previousEntriesFile) throws IOException {
+		if (!directory.isDirectory()) {
+			throw new IOException("Not a directory: " + directory.getAbsolutePath());
+		}
+		ArrayList<String> names = new ArrayList<>();
+		ArrayList<File> files = new ArrayList<>();
+		long totalSize = collectFiles(directory, "", names, files);
+		if (names.size() + 2 > ZIP_ENTRY_LIMIT || totalSize > ZIP_LIMIT / 2) {
+			// Beyond limits of plain ZIP format - pack without incremental support
+			entriesFile.delete();
+			new JarBuilder(compressionLevel).build(directory, target);
+			return new Statistics(0, names.size());
+		}
+		HashMap<String, EntryRecord> previous = readEntriesFile(previousJar, previousEntriesFile);
+		int method = compressionLevel == 0 ? ZipEntry.STORED : ZipEntry.DEFLATED;
+		byte[] buffer = new byte[BUFFER_SIZE];
+		ArrayList<EntryRecord> written = new ArrayList<>();
+		int copied = 0;
+		int compressed = 0;
+		Deflater deflater = new Deflater(compressionLevel, true);
+		try (RandomAccessFile previousAccess = previous.isEmpty() ? null : new RandomAccessFile(previousJar, "r");
+				CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(target), BUFFER_SIZE))) {
+			// Manifest first (as expected by JarInputStream)
+			writeDirectoryEntry(out, "META-INF/", directory.lastModified(), written);
+			writeDataEntry(out, JarFile.MANIFEST_NAME, directory.lastModified(), createManifest(directory), ZipEntry.DEFLATED, deflater, written);
+			for (int i = 0; i < names.size(); i++) {
+				String name = names.get(i);
+				File file = files.get(i);
+				if (name.endsWith("/")) {
+					writeDirectoryEntry(out, name, file.lastModified(), written);
+					continue;
+				}
+				EntryRecord old = previous.get(name);
+				long size = file.length();
+				long time = file.lastModified();
+				if (old != null && old.size == size && old.time == time && old.method == method) {
+					copyRawEntry(out, old, previousAccess, buffer, written);
+					copied++;
+				} else {
+					writeDataEntry(out, name, time, readFile(file, size, buffer), method, deflater, written);
+					compressed++;
+				}
+			}
+			writeCentralDirectory(out, written);
+		} finally {
+			deflater.end();
+		}
+		writeEntriesFile(entriesFile, target.length(), written);
+		return new Statistics(copied, compressed);
+	}
+
+	/**
+	 * Recursively collects directory contents in sorted order. Names of directories end with '/'.
+	 * @param directory Directory
+	 * @param prefix Entry name prefix corresponding to directory (empty or ending with '/')
+	 * @param names Collected entry names
+	 * @param files Collected files and directories
+	 * @return Total size of collected files
+	 * @throws IOException if directory cannot be listed
+	 */
+	private static long collectFiles(File directory, String prefix, ArrayList<String> names, ArrayList<File> files) throws IOException {
+		File[] children = directory.listFiles();
+		if (children == null) {
+			throw new IOException("Could not list directory " + directory.getAbsolutePath());
+		}
+		Arrays.sort(children);
+		long size = 0;
+		for (File child: children) {
+			String name = prefix + child.getName();
+			if (child.isDirectory()) {
+				if (!name.equals("META-INF")) {
+					names.add(name + "/");
+					files.add(child);
+				}
+				size += collectFiles(child, name + "/", names, files);
+			} else if (!name.equalsIgnoreCase(JarFile.MANIFEST_NAME)) {
+				names.add(name);
+				files.add(child);
+				size += child.length();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Creates the manifest for the JAR, using the directory's own manifest if present.
+	 * @param directory Source directory
+	 * @return Serialized manifest
+	 * @throws IOException if reading the manifest fails
+	 */
+	private static byte[] createManifest(File directory) throws IOException {
+		Manifest manifest = new Manifest();
+		File existing = new File(directory, JarFile.MANIFEST_NAME);
+		if (existing.isFile()) {
+			try (InputStream in = new FileInputStream(existing)) {
+				manifest.read(in);
+			}
+		}
+		if (manifest.getMainAttributes().getValue(Attributes.Name.MANIFEST_VERSION) == null) {
+			manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		manifest.write(bytes);
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Reads a file completely.
+	 * @param file File
+	 * @param size Expected size
+	 * @param buffer Read buffer
+	 * @return File content
+	 * @throws IOException if reading fails
+	 */
+	private static byte[] readFile(File file, long size, byte[] buffer) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8, Math.max(32, size)));
+		try (InputStream in = new FileInputStream(file)) {
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				bytes.write(buffer, 0, count);
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Writes an empty directory entry.
+	 * @param out Target stream
+	 * @param name Entry name ending with '/'
+	 * @param time Modification time
+	 * @param written Records of written entries (extended)
+	 * @throws IOException if writing fails
+	 */
+	private static void writeDirectoryEntry(CountingOutputStream out, String name, long time, ArrayList<EntryRecord> written) throws IOException {
+		EntryRecord record = new EntryRecord();
+		record.name = name;
+		record.time = time;
+		record.method = ZipEntry.STORED;
+		writeLocalHeader(out, record);
+		written.add(record);
+	}
+
+	/**
+	 * Writes an entry from uncompressed data, compressing it if required.
+	 * @param out Target stream
+	 * @param name Entry name
+	 * @param time Modification time
+	 * @param data Uncompressed data
+	 * @param method Compression method
+	 * @param deflater Deflater (raw, i.e. without ZLIB wrapper)
+	 * @param written Records of written entries (extended)
+	 * @throws IOException if writing fails
+	 */
+	private static void writeDataEntry(CountingOutputStream out, String name, long time, byte[] data, int method,
+			Deflater deflater, ArrayList<EntryRecord> written) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length);
+		byte[] stored = data;
+		if (method == ZipEntry.DEFLATED) {
+			deflater.reset();
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(32, data.length / 2));
+			byte[] chunk = new byte[8192];
+			while (!deflater.finished()) {
+				int count = deflater.deflate(chunk);
+				compressed.write(chunk, 0, count);
+			}
+			stored = compressed.toByteArray();
+		}
+		EntryRecord record = new EntryRecord();
+		record.name = name;
+		record.size = data.length;
+		record.time = time;
+		record.crc = crc.getValue();
+		record.method = method;
+		record.compressedSize = stored.length;
+		writeLocalHeader(out, record);
+		out.write(stored);
+		written.add(record);
+	}
+
+	/**
+	 * Copies the compressed data of an entry from the previous JAR.
+	 * @param out Target stream
+	 * @param old Record of entry in previous JAR
+	 * @param previousJar Previous JAR
+	 * @param buffer Copy buffer
+	 * @param written Records of written entries (extended)
+	 * @throws IOException if reading or writing fails
+	 */
+	private static void copyRawEntry(CountingOutputStream out, EntryRecord old, RandomAccessFile previousJar, byte[] buffer,
+			ArrayList<EntryRecord> written) throws IOException {
+		EntryRecord record = new EntryRecord();
+		record.name = old.name;
+		record.size = old.size;
+		record.time = old.time;
+		record.crc = old.crc;
+		record.method = old.method;
+		record.compressedSize = old.compressedSize;
+		writeLocalHeader(out, record);
+		previousJar.seek(old.dataOffset);
+		long remaining = old.compressedSize;
+		while (remaining > 0) {
+			int count = previousJar.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+			if (count < 0) {
+				throw new IOException("Unexpected end of previous JAR when copying entry " + old.name);
+			}
+			out.write(buffer, 0, count);
+			remaining -= count;
+		}
+		written.add(record);
+	}
+
+	/**
+	 * Writes the local file header of an entry and records header and data offsets.
+	 * @param out Target stream
+	 * @param record Entry record (sizes and CRC must be known)
+	 * @throws IOException if writing fails
+	 */
+	private static void writeLocalHeader(CountingOutputStream out, EntryRecord record) throws IOException {
+		byte[] name = record.name.getBytes(Charset.forName("UTF-8"));
+		record.headerOffset = out.getCount();
+		writeInt(out, 0x04034b50L);
+		writeShort(out, 20);
+		writeShort(out, UTF8_FLAG);
+		writeShort(out, record.method);
+		writeInt(out, toDosTime(record.time));
+		writeInt(out, record.crc);
+		writeInt(out, record.compressedSize);
+		writeInt(out, record.size);
+		writeShort(out, name.length);
+		writeShort(out, 0);
+		out.write(name);
+		record.dataOffset = out.getCount();
+	}
+
+	/**
+	 * Writes central directory and end of central directory record.
+	 * @param out Target stream
+	 * @param written Records of all written entries
+	 * @throws IOException if writing fails or archive exceeds ZIP limits
+	 */
+	private static void writeCentralDirectory(CountingOutputStream out, ArrayList<EntryRecord> written) throws IOException {
+		long start = out.getCount();
+		if (start > ZIP_LIMIT) {
+			throw new IOException("JAR exceeds ZIP size limit.");
+		}
+		for (EntryRecord record: written) {
+			byte[] name = record.name.getBytes(Charset.forName("UTF-8"));
+			writeInt(out, 0x02014b50L);
+			writeShort(out, 20);
+			writeShort(out, 20);
+			writeShort(out, UTF8_FLAG);
+			writeShort(out, record.method);
+			writeInt(out, toDosTime(record.time));
+			writeInt(out, record.crc);
+			writeInt(out, record.compressedSize);
+			writeInt(out, record.size);
+			writeShort(out, name.length);
+			writeShort(out, 0);
+			writeShort(out, 0);
+			writeShort(out, 0);
+			writeShort(out, 0);
+			writeInt(out, 0);
+			writeInt(out, record.headerOffset);
+			out.write(name);
+		}
+		long size = out.getCount() - start;
+		writeInt(out, 0x06054b50L);
+		writeShort(out, 0);
+		writeShort(out, 0);
+		writeShort(out, written.size());
+		writeShort(out, written.size());
+		writeInt(out, size);
+		writeInt(out, start);
+		writeShort(out, 0);
+	}
+
+	/**
+	 * Reads the entries file of a previous JAR. Entries files not matching the JAR
+	 * (e.g. as the JAR has been replaced) are ignored.
+	 * @param previousJar Previous JAR (null if none)
+	 * @param previousEntriesFile Entries file of previous JAR (null if none)
+	 * @return Records by entry name (empty if not available)
+	 */
+	private static HashMap<String, EntryRecord> readEntriesFile(File previousJar, File previousEntriesFile) {
+		HashMap<String, EntryRecord> records = new HashMap<>();
+		if (previousJar == null || previousEntriesFile == null || !previousJar.isFile() || !previousEntriesFile.isFile()) {
+			return records;
+		}
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(previousEntriesFile), Charset.forName("UTF-8")))) {
+			String header = reader.readLine();
+			if (header == null || !header.equals(ENTRIES_HEADER + "\t" + previousJar.length())) {
+				return records;
+			}
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t");
+				if (fields.length != 7) {
+					records.clear();
+					return records;
+				}
+				EntryRecord record = new EntryRecord();
+				record.name = fields[0];
+				record.size = Long.parseLong(fields[1]);
+				record.time = Long.parseLong(fields[2]);
+				record.crc = Long.parseLong(fields[3]);
+				record.method = Integer.parseInt(fields[4]);
+				record.compressedSize = Long.parseLong(fields[5]);
+				record.dataOffset = Long.parseLong(fields[6]);
+				records.put(record.name, record);
+			}
+		} catch (IOException | NumberFormatException e) {
+			// Unusable - build from scratch
+			records.clear();
+		}
+		return records;
+	}
+
+	/**
+	 * Writes the entries file for a JAR.
+	 * @param entriesFile Entries file
+	 * @param jarLength Length of described JAR
+	 * @param written Records of all entries
+	 * @throws IOException if writing fails
+	 */
+	private static void writeEntriesFile(File entriesFile, long jarLength, ArrayList<EntryRecord> written) throws IOException {
+		try (Writer writer = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(entriesFile)), Charset.forName("UTF-8"))) {
+			writer.write(ENTRIES_HEADER + "\t" + jarLength + "\n");
+			for (EntryRecord record: written) {
+				if (record.name.endsWith("/") || record.name.equals(JarFile.MANIFEST_NAME)) {
+					continue;
+				}
+				writer.write(record.name + "\t" + record.size + "\t" + record.time + "\t" + record.crc + "\t"
+						+ record.method + "\t" + record.compressedSize + "\t" + record.dataOffset + "\n");
+			}
+		}
+	}
+
+	/**
+	 * Converts a Java timestamp into MS-DOS date and time format (local time).
+	 * @param time Java timestamp
+	 * @return DOS date (upper 16 bit) and time (lower 16 bit)
+	 */
+	private static long toDosTime(long time) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(time);
+		int year = calendar.get(Calendar.YEAR);
+		if (year < 1980) {
+			return (1 << 21) | (1 << 16);
+		}
+		return ((long) (year - 1980) << 25) | ((calendar.get(Calendar.MONTH) + 1) << 21) | (calendar.get(Calendar.DAY_OF_MONTH) << 16)
+				| (calendar.get(Calendar.HOUR_OF_DAY) << 11) | (calendar.get(Calendar.MINUTE) << 5) | (calendar.get(Calendar.SECOND) >> 1);
+	}
+
+	private static void writeShort(OutputStream out, int value) throws IOException {
+		out.write(value & 0xFF);
+		out.write((value >>> 8) & 0xFF);
+	}
+
+	private static void writeInt(OutputStream out, long value) throws IOException {
+		out.write((int) (value & 0xFF));
+		out.write((int) ((value >>> 8) & 0xFF));
+		out.write((int) ((value >>> 16) & 0xFF));
+		out.write((int) ((value >>> 24) & 0xFF));
+	}
+
+	/**
+	 * Output stream keeping track of the number of written bytes.
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		private long count = 0;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		long getCount() {
+			return count;
+		}
+	}
+
+}
@@ -0,0 +1,210 @@
+package org.christopherfrantz.parallelLauncher.util.jars;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Builds JAR files from directory trees in-process (equivalent to
+ * 'jar cf target.jar -C directory .'), so neither a JDK installation
+ * nor a forked jar process is required.<BR>
+ * Files are streamed into the archive in a deterministic order (sorted by
+ * name) with the configured compression level. Compression level 0 stores
+ * entries uncompressed (STORED), which is generally fastest for temporary JARs
+ * that only live for the duration of a launcher run.<BR>
+ * Builders can be shared across threads building different JARs.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class JarBuilder {
+
+	/**
+	 * Size of copy buffer
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Compression level (0-9) - 0 stores entries uncompressed
+	 */
+	private final int compressionLevel;
+
+	/**
+	 * Instantiates builder using the given compression level.
+	 * @param compressionLevel Compression level between 0 (STORED) and 9 (best compression)
+	 */
+	public JarBuilder(int compressionLevel) {
+		if (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+		}
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Packs the contents of the given directory (recursively) into the given JAR file.
+	 * Directory entries are included and a default manifest is added unless the
+	 * directory contains its own (which is then used).
+	 * @param directory Directory whose contents are to be packed
+	 * @param target JAR file to be created (overwritten if existing)
+	 * @throws IOException if reading files or writing the JAR fails
+	 */
+	public void build(File directory, File target) throws IOException {
+		if (!directory.isDirectory()) {
+			throw new IOException("Not a directory: " + directory.getAbsolutePath());
+		}
+		File parent = target.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+			throw new IOException("Could not create directory " + parent.getAbsolutePath());
+		}
+		try (JarOutputStream jar = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(target), BUFFER_SIZE))) {
+			jar.setLevel(compressionLevel == 0 ? Deflater.DEFAULT_COMPRESSION : compressionLevel);
+			writeManifest(jar, directory);
+			addDirectoryContents(jar, directory, "", new byte[BUFFER_SIZE]);
+		}
+	}
+
+	/**
+	 * Writes the manifest as first entry (as expected by JarInputStream). Uses the
+	 * directory's own manifest if present.
+	 * @param jar Target stream
+	 * @param directory Source directory
+	 * @throws IOException if writing fails
+	 */
+	private void writeManifest(JarOutputStream jar, File directory) throws IOException {
+		Manifest manifest = new Manifest();
+		File existing = new File(directory, JarFile.MANIFEST_NAME);
+		if (existing.isFile()) {
+			try (InputStream in = new FileInputStream(existing)) {
+				manifest.read(in);
+			}
+		}
+		if (manifest.getMainAttributes().getValue(Attributes.Name.MANIFEST_VERSION) == null) {
+			manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		}
+		putDirectoryEntry(jar, "META-INF/", directory.lastModified());
+		JarEntry entry = new JarEntry(JarFile.MANIFEST_NAME);
+		entry.setMethod(ZipEntry.DEFLATED);
+		jar.putNextEntry(entry);
+		manifest.write(jar);
+		jar.closeEntry();
+	}
+
+	/**
+	 * Recursively adds the contents of a directory.
+	 * @param jar Target stream
+	 * @param directory Directory to be added
+	 * @param prefix Entry name prefix corresponding to directory (empty or ending with '/')
+	 * @param buffer Copy buffer
+	 * @throws IOException if reading or writing fails
+	 */
+	private void addDirectoryContents(JarOutputStream jar, File directory, String prefix, byte[] buffer) throws IOException {
+		File[] children = directory.listFiles();
+		if (children == null) {
+			throw new IOException("Could not list directory " + directory.getAbsolutePath());
+		}
+		Arrays.sort(children);
+		for (File child: children) {
+			String name = prefix + child.getName();
+			if (child.isDirectory()) {
+				if (!name.equals("META-INF")) {
+					putDirectoryEntry(jar, name + "/", child.lastModified());
+				}
+				addDirectoryContents(jar, child, name + "/", buffer);
+			} else if (!name.equalsIgnoreCase(JarFile.MANIFEST_NAME)) {
+				addFile(jar, child, name, buffer);
+			}
+		}
+	}
+
+	/**
+	 * Adds an (empty, stored) directory entry.
+	 * @param jar Target stream
+	 * @param name Entry name ending with '/'
+	 * @param time Modification time
+	 * @throws IOException if writing fails
+	 */
+	private static void putDirectoryEntry(JarOutputStream jar, String name, long time) throws IOException {
+		JarEntry entry = new JarEntry(name);
+		entry.setTime(time);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(0);
+		entry.setCompressedSize(0);
+		entry.setCrc(0);
+		jar.putNextEntry(entry);
+		jar.closeEntry();
+	}
+
+	/**
+	 * Adds an individual file. STORED entries require size and CRC upfront,
+	 * which are computed in a first pass over the file.
+	 * @param jar Target stream
+	 * @param file File to be added
+	 * @param name Entry name
+	 * @param buffer Copy buffer
+	 * @throws IOException if reading or writing fails
+	 */
+	private void addFile(JarOutputStream jar, File file, String name, byte[] buffer) throws IOException {
+		JarEntry entry = new JarEntry(name);
+		entry.setTime(file.lastModified());
+		if (compressionLevel == 0) {
+			entry.setMethod(ZipEntry.STORED);
+			long size = file.length();
+			entry.setSize(size);
+			entry.setCompressedSize(size);
+			entry.setCrc(computeCrc(file, buffer));
+		} else {
+			entry.setMethod(ZipEntry.DEFLATED);
+		}
+		jar.putNextEntry(entry);
+		copy(file, jar, buffer);
+		jar.closeEntry();
+	}
+
+	/**
+	 * Computes the CRC-32 checksum of a file.
+	 * @param file File
+	 * @param buffer Read buffer
+	 * @return Checksum
+	 * @throws IOException if reading fails
+	 */
+	private static long computeCrc(File file, byte[] buffer) throws IOException {
+		CRC32 crc = new CRC32();
+		try (InputStream in = new FileInputStream(file)) {
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				crc.update(buffer, 0, count);
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Copies file content to the given stream.
+	 * @param file Source file
+	 * @param out Target stream
+	 * @param buffer Copy buffer
+	 * @throws IOException if reading or writing fails
+	 */
+	private static void copy(File file, OutputStream out, byte[] buffer) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				out.write(buffer, 0, count);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,674 @@
+package org.christopherfrantz.parallelLauncher.util.jars;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of JAR files built from classpath directories. JARs are named
+ * by a digest of the directory's contents (relative paths, sizes and modification
+ * times, optionally file contents), so launchers (and MetaLaunchers) packing an
+ * unchanged directory reuse the same JAR instead of building their own.<BR>
+ * Every user of a cached JAR holds a reference, represented by a hold file next to
+ * the JAR, which the user keeps locked until the reference is released explicitly
+ * (or the JVM terminates). Since the OS releases file locks when a process terminates
+ * (including crashes), {@link #sweep()} treats hold files it can lock as released and
+ * only removes JARs without live holds.<BR>
+ * Hold files are created and inspected under an exclusive lock on the cache's lock file.
+ * JARs are built under a lock per digest and moved into place once complete,
+ * so concurrent launchers never observe partially written JARs.<BR>
+ * For each directory, the most recently built JAR is retained (even if unreferenced)
+ * and serves as base for building the next JAR of that directory incrementally,
+ * i.e. only entries of modified files are compressed anew.<BR>
+ * Files derived from cached JARs (pathing JARs and Class Data Sharing archives) are
+ * cached alongside them, named by a digest of their inputs, and referenced, built, retained
+ * and swept just as cached JARs (see {@link #acquireFile(String, String, String, FileBuilder)}).
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class JarCache {
+
+	private static final String PREFIX = "JarCache: ";
+
+	/**
+	 * Name of lock file guarding reference files
+	 */
+	private static final String LOCK_FILE = "cache.lock";
+
+	/**
+	 * Ending for cached JAR files
+	 */
+	private static final String JAR_FILE_ENDING = ".jar";
+
+	/**
+	 * Ending for hold files (named '&lt;digest&gt;_&lt;holder&gt;.hold')
+	 */
+	private static final String HOLD_FILE_ENDING = ".hold";
+
+	/**
+	 * Ending for reference count files of earlier versions (removed by sweeps)
+	 */
+	private static final String LEGACY_REFERENCE_FILE_ENDING = ".refs";
+
+	/**
+	 * Ending for entries files describing cached JARs (see {@link IncrementalJarBuilder})
+	 */
+	private static final String ENTRIES_FILE_ENDING = ".entries";
+
+	/**
+	 * Ending for files holding the digest of the most recent JAR built for a directory
+	 * (named by the digest of the directory's path)
+	 */
+	private static final String LATEST_FILE_ENDING = ".latest";
+
+	/**
+	 * Ending for per-digest build lock files
+	 */
+	private static final String BUILD_LOCK_FILE_ENDING = ".building";
+
+	/**
+	 * Ending for cached pathing JARs (see {@link PathingJar})
+	 */
+	public static final String PATHING_JAR_FILE_ENDING = ".pathing.jar";
+
+	/**
+	 * Ending for cached Class Data Sharing archives
+	 */
+	public static final String CLASS_DATA_SHARING_ARCHIVE_FILE_ENDING = ".jsa";
+
+	/**
+	 * Endings of files derived from cached JARs (see {@link #acquireFile(String, String, String, FileBuilder)})
+	 */
+	private static final List<String> DERIVED_FILE_ENDINGS = Arrays.asList(PATHING_JAR_FILE_ENDING, CLASS_DATA_SHARING_ARCHIVE_FILE_ENDING);
+
+	/**
+	 * Guards access to the cache lock file from within this JVM, as file locks
+	 * are held on behalf of the entire JVM (and overlapping locks are rejected).
+	 */
+	private static final Object cacheLock = new Object();
+
+	/**
+	 * Monitors guarding builds of individual digests within this JVM
+	 */
+	private static final ConcurrentHashMap<String, Object> buildLocks = new ConcurrentHashMap<>();
+
+	/**
+	 * Hold files held within this JVM. Sweeps must not even open them, since closing
+	 * any channel to a file may release all locks of the JVM on it (depending on the OS).
+	 */
+	private static final Set<File> heldHoldFiles = Collections.synchronizedSet(new HashSet<File>());
+
+	/**
+	 * Cache directory
+	 */
+	private final File cacheDirectory;
+
+	/**
+	 * Indicates whether file contents are included in digests
+	 */
+	private final boolean hashContents;
+
+	/**
+	 * Builder used for missing JARs
+	 */
+	private final IncrementalJarBuilder builder;
+
+	/**
+	 * References held by this instance
+	 */
+	private final ArrayList<Hold> references = new ArrayList<>();
+
+	/**
+	 * Indicates whether shutdown hook releasing references has been registered
+	 */
+	private boolean shutdownHookRegistered = false;
+
+	/**
+	 * Reference to a cached JAR, represented by a locked hold file
+	 */
+	private static class Hold {
+
+		/**
+		 * Hold file
+		 */
+		private final File holdFile;
+
+		/**
+		 * Open hold file (needs to remain open to retain the lock)
+		 */
+		private final RandomAccessFile access;
+
+		/**
+		 * Lock on hold file
+		 */
+		private final FileLock lock;
+
+		private Hold(File holdFile, RandomAccessFile access, FileLock lock) {
+			this.holdFile = holdFile;
+			this.access = access;
+			this.lock = lock;
+		}
+	}
+
+	/**
+	 * Builds a file to be cached (see {@link JarCache#acquireFile(String, String, String, FileBuilder)})
+	 */
+	public interface FileBuilder {
+
+		/**
+		 * Writes the file to be cached.
+		 * @param target File to be written (moved into place once complete)
+		 * @return true if file has been written, false if it cannot be built (nothing is cached)
+		 * @throws IOException if building fails
+		 */
+		boolean build(File target) throws IOException;
+	}
+
+	/**
+	 * Instantiates a cache operating on the given directory (which is created if not existing).
+	 * @param cacheDirectory Directory holding cached JARs
+	 * @param hashContents If true, file contents are included in digests (else only paths, sizes and modification times)
+	 * @param builder Builder used for JARs not yet cached
+	 * @throws IOException if directory cannot be created
+	 */
+	public JarCache(File cacheDirectory, boolean hashContents, IncrementalJarBuilder builder) throws IOException {
+		this.cacheDirectory = cacheDirectory;
+		this.hashContents = hashContents;
+		this.builder = builder;
+		if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs() && !cacheDirectory.isDirectory()) {
+			throw new IOException("Could not create cache directory " + cacheDirectory.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * Returns the directory this cache operates on.
+	 * @return Cache directory
+	 */
+	public File getCacheDirectory() {
+		return cacheDirectory;
+	}
+
+	/**
+	 * Returns the cached JAR for the current contents of the given directory (building
+	 * it if necessary) and acquires a reference to it. The reference is held until
+	 * {@link #releaseAll()} is called or the JVM terminates regularly.
+	 * @param directory Directory to be packed
+	 * @return Cached JAR file
+	 * @throws IOException if digest computation, reference counting or building fails
+	 */
+	public File acquire(File directory) throws IOException {
+		String digest = computeDigest(directory, hashContents);
+		File jar = new File(cacheDirectory, digest + JAR_FILE_ENDING);
+		// Reference first, so the JAR cannot be swept between building and use
+		addReference(acquireHold(digest));
+		if (jar.isFile()) {
+			System.out.println(PREFIX + "Using cached JAR file " + jar.getName() + " for " + directory.getAbsolutePath());
+			return jar;
+		}
+		buildLocks.putIfAbsent(digest, new Object());
+		synchronized (buildLocks.get(digest)) {
+			try (RandomAccessFile lockFile = new RandomAccessFile(new File(cacheDirectory, digest + BUILD_LOCK_FILE_ENDING), "rw")) {
+				FileLock lock = lockFile.getChannel().lock();
+				try {
+					// Recheck - may have been built by another launcher in the meantime
+					if (jar.isFile()) {
+						System.out.println(PREFIX + "Using cached JAR file " + jar.getName() + " for " + directory.getAbsolutePath());
+						return jar;
+					}
+					File latestFile = new File(cacheDirectory, computeDigest(directory.getAbsolutePath()) + LATEST_FILE_ENDING);
+					String previousDigest = readLatestDigest(latestFile);
+					File temp = File.createTempFile(digest, ".tmp", cacheDirectory);
+					File tempEntries = File.createTempFile(digest, ".tmp", cacheDirectory);
+					// Keep previous JAR from being swept while copying from it
+					Hold previousHold = (previousDigest != null ? acquireHold(previousDigest) : null);
+					try {
+						IncrementalJarBuilder.Statistics statistics = builder.build(directory, temp, tempEntries, 
+								previousDigest != null ? new File(cacheDirectory, previousDigest + JAR_FILE_ENDING) : null,
+								previousDigest != null ? new File(cacheDirectory, previousDigest + ENTRIES_FILE_ENDING) : null);
+						System.out.println(PREFIX + "Generated cached JAR file " + jar.getName() + " for " + directory.getAbsolutePath()
+								+ " (" + statistics.copiedEntries + " unchanged entries copied, " + statistics.compressedEntries + " entries compressed)");
+						// Entries file needs to be in place once JAR appears
+						if (tempEntries.length() > 0) {
+							moveIntoPlace(tempEntries, new File(cacheDirectory, digest + ENTRIES_FILE_ENDING));
+						}
+						moveIntoPlace(temp, jar);
+						moveIntoPlace(writeTemporaryFile(digest), latestFile);
+					} finally {
+						temp.delete();
+						tempEntries.delete();
+						if (previousHold != null) {
+							releaseHold(previousHold);
+						}
+					}
+				} finally {
+					lock.release();
+				}
+			}
+		}
+		return jar;
+	}
+
+	/**
+	 * Returns the cached file derived from cached JARs for the given digest of its inputs
+	 * (building it if necessary) and acquires a reference to it, just as for cached JARs.
+	 * Concurrent users (in this or other JVMs) wait for a file being built instead of
+	 * building it themselves. As for the JARs of a directory, the most recent file acquired
+	 * for a given retention key (e.g. the launcher) and ending is retained even if unreferenced,
+	 * so later users with unchanged inputs reuse it.
+	 * @param digest Digest of the inputs of the file (see {@link #computeDigest(List)})
+	 * @param ending File ending ({@link #PATHING_JAR_FILE_ENDING} or {@link #CLASS_DATA_SHARING_ARCHIVE_FILE_ENDING})
+	 * @param retentionKey Key the most recent file is retained for (null if not to be retained)
+	 * @param fileBuilder Builder writing the file if not cached yet
+	 * @return Cached file or null if the builder could not build it
+	 * @throws IOException if referencing or building fails
+	 */
+	public File acquireFile(String digest, String ending, String retentionKey, FileBuilder fileBuilder) throws IOException {
+		if (!DERIVED_FILE_ENDINGS.contains(ending)) {
+			throw new IllegalArgumentException("Unsupported ending of cached file: " + ending);
+		}
+		File file = new File(cacheDirectory, digest + ending);
+		File latestFile = (retentionKey == null ? null 
+				: new File(cacheDirectory, computeDigest(Arrays.asList(retentionKey, ending)) + LATEST_FILE_ENDING));
+		Hold hold = acquireHold(digest);
+		addReference(hold);
+		if (file.isFile()) {
+			retain(latestFile, digest);
+			return file;
+		}
+		buildLocks.putIfAbsent(digest, new Object());
+		synchronized (buildLocks.get(digest)) {
+			try (RandomAccessFile lockFile = new RandomAccessFile(new File(cacheDirectory, digest + BUILD_LOCK_FILE_ENDING), "rw")) {
+				FileLock lock = lockFile.getChannel().lock();
+				try {
+					// Recheck - may have been built by another launcher in the meantime
+					if (file.isFile()) {
+						retain(latestFile, digest);
+						return file;
+					}
+					File temp = File.createTempFile(digest, ".tmp", cacheDirectory);
+					try {
+						if (fileBuilder.build(temp) && temp.length() > 0) {
+							moveIntoPlace(temp, file);
+							retain(latestFile, digest);
+							return file;
+						}
+					} finally {
+						temp.delete();
+					}
+				} finally {
+					lock.release();
+				}
+			}
+		}
+		// Not built - reference not needed
+		synchronized (this) {
+			references.remove(hold);
+		}
+		releaseHold(hold);
+		return null;
+	}
+
+	/**
+	 * Records a digest as most recent one for a latest file, retaining its files in sweeps.
+	 * @param latestFile File holding the most recent digest (null if not to be retained)
+	 * @param digest Digest
+	 * @throws IOException if writing fails
+	 */
+	private void retain(File latestFile, String digest) throws IOException {
+		if (latestFile != null && !digest.equals(readLatestDigest(latestFile))) {
+			moveIntoPlace(writeTemporaryFile(digest), latestFile);
+		}
+	}
+
+	/**
+	 * Registers a reference held by this instance (released by {@link #releaseAll()}
+	 * or once the JVM terminates regularly).
+	 * @param hold Hold
+	 */
+	private synchronized void addReference(Hold hold) {
+		references.add(hold);
+		if (!shutdownHookRegistered) {
+			shutdownHookRegistered = true;
+			Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					releaseAll();
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Moves a file into place (atomically if supported).
+	 * @param source File to be moved
+	 * @param target Target file (replaced if existing)
+	 * @throws IOException if moving fails
+	 */
+	private static void moveIntoPlace(File source, File target) throws IOException {
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Writes the given content to a temporary file in the cache directory.
+	 * @param content Content
+	 * @return Temporary file
+	 * @throws IOException if writing fails
+	 */
+	private File writeTemporaryFile(String content) throws IOException {
+		File temp = File.createTempFile("latest", ".tmp", cacheDirectory);
+		Files.write(temp.toPath(), content.getBytes(Charset.forName("US-ASCII")));
+		return temp;
+	}
+
+	/**
+	 * Reads the digest of the most recent JAR built for a directory.
+	 * @param latestFile File holding the digest
+	 * @return Digest or null if not available
+	 */
+	private static String readLatestDigest(File latestFile) {
+		if (!latestFile.isFile()) {
+			return null;
+		}
+		try {
+			String digest = new String(Files.readAllBytes(latestFile.toPath()), Charset.forName("US-ASCII")).trim();
+			return digest.isEmpty() ? null : digest;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Releases all references acquired by this instance.
+	 */
+	public synchronized void releaseAll() {
+		for (Hold hold: references) {
+			releaseHold(hold);
+		}
+		references.clear();
+	}
+
+	/**
+	 * Deletes all cached JARs and derived files that are not referenced by any user (except 
+	 * for the most recent JAR of each directory, which is retained as base for incremental builds, 
+	 * and the most recent derived files of each retention key).
+	 * JARs that cannot be deleted (e.g. as they are still opened on Windows)
+	 * are retained for later sweeps.
+	 * @return Deleted JAR files
+	 * @throws IOException if cache directory cannot be inspected
+	 */
+	public List<File> sweep() throws IOException {
+		ArrayList<File> deleted = new ArrayList<>();
+		synchronized (cacheLock) {
+			try (RandomAccessFile lockFile = new RandomAccessFile(new File(cacheDirectory, LOCK_FILE), "rw")) {
+				FileLock lock = lockFile.getChannel().lock();
+				try {
+					File[] files = cacheDirectory.listFiles();
+					if (files == null) {
+						throw new IOException("Could not list cache directory " + cacheDirectory.getAbsolutePath());
+					}
+					HashSet<String> latestDigests = new HashSet<>();
+					for (File file: files) {
+						if (file.getName().endsWith(LATEST_FILE_ENDING)) {
+							String latest = readLatestDigest(file);
+							if (latest != null && (new File(cacheDirectory, latest + JAR_FILE_ENDING).isFile() 
+									|| new File(cacheDirectory, latest + PATHING_JAR_FILE_ENDING).isFile() 
+									|| new File(cacheDirectory, latest + CLASS_DATA_SHARING_ARCHIVE_FILE_ENDING).isFile())) {
+								latestDigests.add(latest);
+							} else {
+								file.delete();
+							}
+						}
+					}
+					// Digests with live holds (hold files of terminated users are removed)
+					HashSet<String> referencedDigests = new HashSet<>();
+					for (File file: files) {
+						if (file.getName().endsWith(HOLD_FILE_ENDING) && file.getName().indexOf('_') != -1) {
+							if (isHeld(file.getAbsoluteFile())) {
+								referencedDigests.add(file.getName().substring(0, file.getName().indexOf('_')));
+							} else {
+								file.delete();
+							}
+						} else if (file.getName().endsWith(LEGACY_REFERENCE_FILE_ENDING)) {
+							file.delete();
+						}
+					}
+					for (File file: files) {
+						if (file.getName().endsWith(BUILD_LOCK_FILE_ENDING)) {
+							// Remove leftovers of failed builds (builders hold a reference while building)
+							String digest = file.getName().substring(0, file.getName().length() - BUILD_LOCK_FILE_ENDING.length());
+							if (!new File(cacheDirectory, digest + JAR_FILE_ENDING).exists() && !referencedDigests.contains(digest)
+									&& !new File(cacheDirectory, digest + PATHING_JAR_FILE_ENDING).exists()
+									&& !new File(cacheDirectory, digest + CLASS_DATA_SHARING_ARCHIVE_FILE_ENDING).exists()) {
+								file.delete();
+							}
+							continue;
+						}
+						int endingIndex = file.getName().indexOf('.');
+						String ending = (endingIndex == -1 ? "" : file.getName().substring(endingIndex));
+						if (DERIVED_FILE_ENDINGS.contains(ending)) {
+							String digest = file.getName().substring(0, endingIndex);
+							if (!latestDigests.contains(digest) && !referencedDigests.contains(digest) && file.delete()) {
+								new File(cacheDirectory, digest + BUILD_LOCK_FILE_ENDING).delete();
+								deleted.add(file);
+							}
+							continue;
+						}
+						if (!ending.equals(JAR_FILE_ENDING)) {
+							continue;
+						}
+						String digest = file.getName().substring(0, endingIndex);
+						if (!latestDigests.contains(digest) && !referencedDigests.contains(digest) && file.delete()) {
+							new File(cacheDirectory, digest + ENTRIES_FILE_ENDING).delete();
+							new File(cacheDirectory, digest + BUILD_LOCK_FILE_ENDING).delete();
+							deleted.add(file);
+						}
+					}
+				} finally {
+					lock.release();
+				}
+			}
+		}
+		return deleted;
+	}
+
+	/**
+	 * Acquires a reference to a given digest, i.e. creates and locks a hold file under the cache lock.
+	 * @param digest Digest of cached JAR
+	 * @return Hold
+	 * @throws IOException if hold file cannot be created or locked
+	 */
+	private Hold acquireHold(String digest) throws IOException {
+		String jvmName = ManagementFactory.getRuntimeMXBean().getName();
+		String pid = (jvmName.contains("@") ? jvmName.substring(0, jvmName.indexOf('@')) : jvmName);
+		File holdFile = new File(cacheDirectory, digest + "_" + pid + "_" + System.nanoTime() + HOLD_FILE_ENDING).getAbsoluteFile();
+		synchronized (cacheLock) {
+			try (RandomAccessFile lockFile = new RandomAccessFile(new File(cacheDirectory, LOCK_FILE), "rw")) {
+				FileLock lock = lockFile.getChannel().lock();
+				try {
+					RandomAccessFile access = new RandomAccessFile(holdFile, "rw");
+					FileLock holdLock = access.getChannel().tryLock();
+					if (holdLock == null) {
+						access.close();
+						throw new IOException("Hold file " + holdFile.getAbsolutePath() + " is locked by another process.");
+					}
+					heldHoldFiles.add(holdFile);
+					return new Hold(holdFile, access, holdLock);
+				} finally {
+					lock.release();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Releases a reference, i.e. unlocks and deletes its hold file.
+	 * @param hold Hold
+	 */
+	private static void releaseHold(Hold hold) {
+		synchronized (cacheLock) {
+			try {
+				hold.lock.release();
+				hold.access.close();
+			} catch (IOException e) {
+				System.err.println(PREFIX + "Error when releasing reference " + hold.holdFile.getName() + ": " + e.getMessage());
+			}
+			heldHoldFiles.remove(hold.holdFile);
+			hold.holdFile.delete();
+		}
+	}
+
+	/**
+	 * Checks whether a hold file is held by a live user. Requires cache lock.
+	 * @param holdFile Hold file
+	 * @return true if held
+	 */
+	private static boolean isHeld(File holdFile) {
+		if (heldHoldFiles.contains(holdFile)) {
+			return true;
+		}
+		try (RandomAccessFile access = new RandomAccessFile(holdFile, "rw")) {
+			FileLock lock;
+			try {
+				lock = access.getChannel().tryLock();
+			} catch (OverlappingFileLockException e) {
+				// Held within this JVM
+				return true;
+			}
+			if (lock == null) {
+				// Held by other user
+				return true;
+			}
+			lock.release();
+			return false;
+		} catch (IOException e) {
+			// Removed in the meantime
+			return false;
+		}
+	}
+
+	/**
+	 * Computes the digest identifying the current contents of a directory. Covers relative
+	 * paths, sizes and modification times of all files and, if requested, their contents.
+	 * @param directory Directory
+	 * @param hashContents If true, file contents are included
+	 * @return Hexadecimal SHA-1 digest
+	 * @throws IOException if directory cannot be read
+	 */
+	public static String computeDigest(File directory, boolean hashContents) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-1 not supported", e);
+		}
+		updateDigest(digest, directory, "", hashContents, new byte[64 * 1024]);
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Computes the digest identifying a list of values (e.g. the inputs of a derived file).
+	 * Each value is prefixed with its length, so different lists never yield the same input.
+	 * @param values Values (null is treated as "null")
+	 * @return Hexadecimal SHA-1 digest
+	 * @throws IOException if SHA-1 is not supported
+	 */
+	public static String computeDigest(List<String> values) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-1 not supported", e);
+		}
+		for (String value: values) {
+			byte[] bytes = String.valueOf(value).getBytes(Charset.forName("UTF-8"));
+			digest.update((bytes.length + ":").getBytes(Charset.forName("US-ASCII")));
+			digest.update(bytes);
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Computes the digest of a given String (e.g. a directory path).
+	 * @param value String
+	 * @return Hexadecimal SHA-1 digest
+	 * @throws IOException if SHA-1 is not supported
+	 */
+	private static String computeDigest(String value) throws IOException {
+		try {
+			return toHex(MessageDigest.getInstance("SHA-1").digest(value.getBytes(Charset.forName("UTF-8"))));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-1 not supported", e);
+		}
+	}
+
+	/**
+	 * Converts bytes into their hexadecimal representation.
+	 * @param bytes Bytes
+	 * @return Hexadecimal String
+	 */
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder();
+		for (byte b: bytes) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * Recursively adds directory contents to a digest (in sorted order).
+	 * @param digest Digest
+	 * @param directory Directory
+	 * @param prefix Relative path of directory (empty or ending with '/')
+	 * @param hashContents If true, file contents are included
+	 * @param buffer Read buffer
+	 * @throws IOException if directory cannot be read
+	 */
+	private static void updateDigest(MessageDigest digest, File directory, String prefix, boolean hashContents, byte[] buffer) throws IOException {
+		File[] children = directory.listFiles();
+		if (children == null) {
+			throw new IOException("Could not list directory " + directory.getAbsolutePath());
+		}
+		Arrays.sort(children);
+		for (File child: children) {
+			String name = prefix + child.getName();
+			if (child.isDirectory()) {
+				digest.update((name + "/\n").getBytes(Charset.forName("UTF-8")));
+				updateDigest(digest, child, name + "/", hashContents, buffer);
+			} else {
+				digest.update((name + "\0" + child.length() + "\0" + child.lastModified() + "\n").getBytes(Charset.forName("UTF-8")));
+				if (hashContents) {
+					try (InputStream in = new FileInputStream(child)) {
+						int count;
+						while ((count = in.read(buffer)) != -1) {
+							digest.update(buffer, 0, count);
+						}
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package org.christopherfrantz.parallelLauncher.util.jars;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Creates 'pathing' JAR files, i.e. JAR files without content whose manifest
+ * references the entries of a classpath (attribute Class-Path). Putting a pathing
+ * JAR on the classpath of a launched process is equivalent to putting all referenced
+ * entries on it, while the command line (or classpath variable) remains short
+ * regardless of the length of the classpath.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class PathingJar {
+
+	private PathingJar() {
+		// Static utility
+	}
+
+	/**
+	 * Creates a pathing JAR referencing the given classpath entries (in the given order).
+	 * Entries are referenced via absolute file URIs, so the pathing JAR can reside anywhere.
+	 * @param classpathEntries JAR files and directories to be referenced
+	 * @param target JAR file to be created (overwritten if existing)
+	 * @throws IOException if writing the JAR fails
+	 */
+	public static void create(List<File> classpathEntries, File target) throws IOException {
+		StringBuilder classPath = new StringBuilder();
+		for (File entry: classpathEntries) {
+			if (classPath.length() > 0) {
+				classPath.append(' ');
+			}
+			String uri = entry.getAbsoluteFile().toURI().toString();
+			// Directories are only recognized as such if their URI ends with a slash
+			if (!uri.endsWith("/") && !entry.isFile() && !entry.getName().toLowerCase().endsWith(".jar")) {
+				uri += "/";
+			}
+			classPath.append(uri);
+		}
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath.toString());
+		File parent = target.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+			throw new IOException("Could not create directory " + parent.getAbsolutePath());
+		}
+		try (FileOutputStream out = new FileOutputStream(target)) {
+			// Manifest only
+			new JarOutputStream(out, manifest).finish();
+		}
+	}
+
+}
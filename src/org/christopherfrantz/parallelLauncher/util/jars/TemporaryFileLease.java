@@ -0,0 +1,376 @@
+package org.christopherfrantz.parallelLauncher.util.jars;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Lease on temporary files (e.g. temporary JAR files or classpath snapshots) created by a
+ * launcher. The lease is represented by a lease file in a lease directory, which the launcher
+ * keeps locked (shared) for as long as it is alive, and a files file listing the leased files.
+ * Launched processes join the lease by locking the lease file (shared) themselves, so leased
+ * files remain in place as long as the launcher or any of its processes is running.<BR>
+ * Since the OS releases file locks when a process terminates (including crashes), leases
+ * whose lease file can be locked exclusively are expired. {@link #sweep(File)} deletes the
+ * files of expired leases, so no retry logs are required and temporary files do not
+ * accumulate. Leases and sweeps are guarded by an exclusive lock on the directory's lock
+ * file, so sweeps never observe leases that are not yet locked.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class TemporaryFileLease {
+
+	private static final String PREFIX = "TemporaryFileLease: ";
+
+	/**
+	 * System property passing the lease file to launched processes (see {@link #join(String)})
+	 */
+	public static final String LEASE_FILE_PROPERTY = "org.christopherfrantz.parallelLauncher.lease";
+
+	/**
+	 * Name of lock file guarding the lease directory
+	 */
+	private static final String LOCK_FILE = "leases.lock";
+
+	/**
+	 * Ending for lease files
+	 */
+	private static final String LEASE_FILE_ENDING = ".lease";
+
+	/**
+	 * Ending for files listing leased files
+	 */
+	private static final String FILES_FILE_ENDING = ".files";
+
+	/**
+	 * Guards access to the lock file from within this JVM, as file locks
+	 * are held on behalf of the entire JVM (and overlapping locks are rejected).
+	 */
+	private static final Object directoryLock = new Object();
+
+	/**
+	 * Lease files held within this JVM. Sweeps must not even open them, since closing
+	 * any channel to a file may release all locks of the JVM on it (depending on the OS).
+	 */
+	private static final Set<File> heldLeaseFiles = Collections.synchronizedSet(new HashSet<File>());
+
+	/**
+	 * Lease joined by this JVM as launched process (needs to remain open to retain the lock)
+	 */
+	private static RandomAccessFile joinedLease = null;
+
+	/**
+	 * Directory holding lease files
+	 */
+	private final File leaseDirectory;
+
+	/**
+	 * Lease file
+	 */
+	private final File leaseFile;
+
+	/**
+	 * File listing leased files
+	 */
+	private final File filesFile;
+
+	/**
+	 * Leased files (absolute paths)
+	 */
+	private final LinkedHashSet<String> files = new LinkedHashSet<>();
+
+	/**
+	 * Open lease file (needs to remain open to retain the lock)
+	 */
+	private RandomAccessFile lease = null;
+
+	/**
+	 * Lock on lease file, held until lease is released
+	 */
+	private FileLock leaseLock = null;
+
+	/**
+	 * Instantiates lease (without acquiring it).
+	 * @param leaseDirectory Directory holding lease files
+	 * @param name Lease name
+	 */
+	private TemporaryFileLease(File leaseDirectory, String name) {
+		this.leaseDirectory = leaseDirectory;
+		this.leaseFile = new File(leaseDirectory, name + LEASE_FILE_ENDING);
+		this.filesFile = new File(leaseDirectory, name + FILES_FILE_ENDING);
+	}
+
+	/**
+	 * Acquires a new lease in the given directory (which is created if not existing).
+	 * The lease is held until {@link #release()} is called or the JVM terminates.
+	 * @param leaseDirectory Directory holding lease files
+	 * @return Acquired lease
+	 * @throws IOException if lease file cannot be created or locked
+	 */
+	public static TemporaryFileLease acquire(File leaseDirectory) throws IOException {
+		if (!leaseDirectory.isDirectory() && !leaseDirectory.mkdirs() && !leaseDirectory.isDirectory()) {
+			throw new IOException("Could not create lease directory " + leaseDirectory.getAbsolutePath());
+		}
+		String jvmName = ManagementFactory.getRuntimeMXBean().getName();
+		String pid = (jvmName.contains("@") ? jvmName.substring(0, jvmName.indexOf('@')) : jvmName);
+		TemporaryFileLease lease = new TemporaryFileLease(leaseDirectory, pid + "_" + System.nanoTime());
+		synchronized (directoryLock) {
+			try (RandomAccessFile lockFile = new RandomAccessFile(new File(leaseDirectory, LOCK_FILE), "rw")) {
+				FileLock lock = lockFile.getChannel().lock();
+				try {
+					RandomAccessFile access = new RandomAccessFile(lease.leaseFile, "rw");
+					FileLock acquiredLock = access.getChannel().tryLock(0L, Long.MAX_VALUE, true);
+					if (acquiredLock == null) {
+						access.close();
+						throw new IOException("Lease file " + lease.leaseFile.getAbsolutePath() + " is locked by another process.");
+					}
+					lease.lease = access;
+					lease.leaseLock = acquiredLock;
+					heldLeaseFiles.add(lease.leaseFile.getAbsoluteFile());
+				} finally {
+					lock.release();
+				}
+			}
+		}
+		return lease;
+	}
+
+	/**
+	 * Joins the lease with the given lease file as launched process, i.e. locks the lease file
+	 * (shared) until the JVM terminates. Failures are reported, but do not prevent execution.
+	 * @param leaseFilePath Lease file (as passed via {@link #LEASE_FILE_PROPERTY}), ignored if null
+	 */
+	public static synchronized void join(String leaseFilePath) {
+		if (leaseFilePath == null || joinedLease != null) {
+			return;
+		}
+		try {
+			RandomAccessFile access = new RandomAccessFile(leaseFilePath, "r");
+			if (access.getChannel().tryLock(0L, Long.MAX_VALUE, true) == null) {
+				access.close();
+				System.err.println(PREFIX + "Could not join lease " + leaseFilePath + ", temporary files may be deleted before termination.");
+				return;
+			}
+			joinedLease = access;
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Could not join lease " + leaseFilePath + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the lease file (to be passed to launched processes).
+	 * @return Lease file
+	 */
+	public File getLeaseFile() {
+		return leaseFile;
+	}
+
+	/**
+	 * Adds a file (or directory) to the lease. The file will be deleted once the lease is
+	 * released or has expired.
+	 * @param file File to be leased
+	 * @throws IOException if list of leased files cannot be written
+	 */
+	public synchronized void register(File file) throws IOException {
+		if (lease == null) {
+			throw new IllegalStateException(PREFIX + "Lease " + leaseFile.getAbsolutePath() + " has already been released.");
+		}
+		if (files.add(file.getAbsolutePath())) {
+			writeFilesFile(filesFile, new ArrayList<>(files));
+		}
+	}
+
+	/**
+	 * Releases the lease and deletes all leased files, unless launched processes still hold
+	 * the lease (in which case a subsequent sweep deletes them once these have terminated).
+	 * Files that cannot be deleted remain leased (by an expired lease) as well.
+	 * @return Deleted files
+	 */
+	public synchronized List<File> release() {
+		ArrayList<File> deleted = new ArrayList<>();
+		if (lease == null) {
+			return deleted;
+		}
+		synchronized (directoryLock) {
+			try (RandomAccessFile lockFile = new RandomAccessFile(new File(leaseDirectory, LOCK_FILE), "rw")) {
+				FileLock lock = lockFile.getChannel().lock();
+				try {
+					closeLease();
+					sweepLease(leaseFile, deleted);
+				} finally {
+					lock.release();
+				}
+			} catch (IOException e) {
+				System.err.println(PREFIX + "Error when releasing lease " + leaseFile.getAbsolutePath() + ": " + e.getMessage());
+				if (lease != null) {
+					closeLease();
+				}
+			}
+		}
+		return deleted;
+	}
+
+	/**
+	 * Deletes the leased files of all expired leases in the given directory (i.e. leases
+	 * neither held by a launcher nor any of its processes anymore), and removes those leases.
+	 * Leases held within this JVM are never considered expired.
+	 * @param leaseDirectory Directory holding lease files
+	 * @return Deleted files
+	 * @throws IOException if lease directory cannot be accessed
+	 */
+	public static List<File> sweep(File leaseDirectory) throws IOException {
+		ArrayList<File> deleted = new ArrayList<>();
+		if (!leaseDirectory.isDirectory()) {
+			return deleted;
+		}
+		synchronized (directoryLock) {
+			try (RandomAccessFile lockFile = new RandomAccessFile(new File(leaseDirectory, LOCK_FILE), "rw")) {
+				FileLock lock = lockFile.getChannel().lock();
+				try {
+					File[] leaseFiles = leaseDirectory.listFiles();
+					if (leaseFiles == null) {
+						throw new IOException("Could not list lease directory " + leaseDirectory.getAbsolutePath());
+					}
+					for (File file: leaseFiles) {
+						if (file.getName().endsWith(LEASE_FILE_ENDING)) {
+							sweepLease(file, deleted);
+						}
+					}
+				} finally {
+					lock.release();
+				}
+			}
+		}
+		return deleted;
+	}
+
+	/**
+	 * Deletes the leased files of a given lease if it has expired. Requires directory lock.
+	 * @param file Lease file
+	 * @param deleted List deleted files are added to
+	 */
+	private static void sweepLease(File file, List<File> deleted) {
+		String name = file.getName().substring(0, file.getName().length() - LEASE_FILE_ENDING.length());
+		File filesFile = new File(file.getParentFile(), name + FILES_FILE_ENDING);
+		if (heldLeaseFiles.contains(file.getAbsoluteFile())) {
+			return;
+		}
+		ArrayList<String> remaining;
+		try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+			FileLock lock;
+			try {
+				lock = access.getChannel().tryLock();
+			} catch (OverlappingFileLockException e) {
+				// Held within this JVM
+				return;
+			}
+			if (lock == null) {
+				// Held by launcher or any of its processes
+				return;
+			}
+			try {
+				List<String> leased = (filesFile.exists() ? FileUtils.readLines(filesFile, Charset.forName("UTF-8")) : new ArrayList<String>());
+				remaining = deleteFiles(leased, deleted);
+			} finally {
+				lock.release();
+			}
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Could not sweep lease " + file.getAbsolutePath() + ": " + e.getMessage());
+			return;
+		}
+		try {
+			finish(file, filesFile, remaining);
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Could not update lease " + file.getAbsolutePath() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Deletes the given files (or directories).
+	 * @param paths Files to be deleted
+	 * @param deleted List deleted files are added to
+	 * @return Files that could not be deleted
+	 */
+	private static ArrayList<String> deleteFiles(List<String> paths, List<File> deleted) {
+		ArrayList<String> remaining = new ArrayList<>();
+		for (String path: paths) {
+			if (path.trim().isEmpty()) {
+				continue;
+			}
+			File file = new File(path);
+			if (!file.exists()) {
+				continue;
+			}
+			if (FileUtils.deleteQuietly(file)) {
+				deleted.add(file);
+			} else {
+				remaining.add(path);
+			}
+		}
+		return remaining;
+	}
+
+	/**
+	 * Removes a lease once its files have been deleted, or retains the remaining files in it.
+	 * @param leaseFile Lease file
+	 * @param filesFile File listing leased files
+	 * @param remaining Files that could not be deleted
+	 * @throws IOException if the list of remaining files cannot be written
+	 */
+	private static void finish(File leaseFile, File filesFile, List<String> remaining) throws IOException {
+		if (remaining.isEmpty()) {
+			filesFile.delete();
+			leaseFile.delete();
+		} else {
+			writeFilesFile(filesFile, remaining);
+		}
+	}
+
+	/**
+	 * Writes the list of leased files (atomically, where supported).
+	 * @param filesFile Target file
+	 * @param paths Leased files
+	 * @throws IOException if writing fails
+	 */
+	private static void writeFilesFile(File filesFile, List<String> paths) throws IOException {
+		File temp = new File(filesFile.getPath() + ".tmp");
+		FileUtils.writeLines(temp, "UTF-8", paths);
+		try {
+			Files.move(temp.toPath(), filesFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp.toPath(), filesFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Releases the lock on the lease file.
+	 */
+	private void closeLease() {
+		try {
+			leaseLock.release();
+			lease.close();
+		} catch (IOException e) {
+			System.err.println(PREFIX + "Error when unlocking lease " + leaseFile.getAbsolutePath() + ": " + e.getMessage());
+		}
+		heldLeaseFiles.remove(leaseFile.getAbsoluteFile());
+		leaseLock = null;
+		lease = null;
+	}
+
+}
@@ -1,133 +1,126 @@
 package org.christopherfrantz.parallelLauncher.util.processhandlers;
 
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Date;
 import java.util.List;
 
-import org.christopherfrantz.parallelLauncher.util.DataStructurePrettyPrinter;
-
 /**
  * Linux variant of process reader. Automatically instantiated when Linux-style OS is detected.
+ * Reads process information directly from the /proc file system (command line from
+ * /proc/&lt;pid&gt;/cmdline, start time from the starttime field of /proc/&lt;pid&gt;/stat
+ * relative to the boot time in /proc/stat), so no child processes are spawned for queries.
+ * Queries are served from a shared process table snapshot (see {@link SnapshotProcessReader}).
  *
  * @author Christopher Frantz
  *
  */
-public class LinuxProcessReader extends ProcessReader {
+public class LinuxProcessReader extends SnapshotProcessReader {
 
-	@Override
-	public List<String> retrieveProcessesRunningJavaClasses(
-			ArrayList<Class> classesRunInProcesses) {
-		if (!runsOnLinux()) {
-			return null;
-		}
-		
-		ArrayList<String> classesAsStrings = new ArrayList<String>();
-		for(int j = 0; j < classesRunInProcesses.size(); j++){
-			classesAsStrings.add(classesRunInProcesses.get(j).getCanonicalName());
-		}
-		//use hashset, so duplicates are removed automatically
-		HashSet<String> processes = new HashSet<>();
-		for(int i = 0; i < classesRunInProcesses.size(); i++){
-			processes.addAll(retrieveProcessesWithName(classesAsStrings.get(i)));
-		}
-		if(debug){
-			System.out.println("Aggregated into " + DataStructurePrettyPrinter.decomposeRecursively(processes, null));
-		}
-		return new ArrayList<String>(processes);
-	}
+	/**
+	 * Root of the proc file system.
+	 */
+	private static final String PROC_ROOT = "/proc";
 
-	@Override
-	public List<String> retrieveProcessesWithName(String processNameString) {
-		ArrayList<String> list = new ArrayList<>();
-		list.add(processNameString);
-		return retrieveProcessesWithNames(list);
-	}
+	/**
+	 * Number of clock ticks per second the kernel uses to report process
+	 * start times (USER_HZ). Fixed to 100 on all common Linux architectures,
+	 * but can be adjusted if reported otherwise (getconf CLK_TCK).
+	 */
+	public static long clockTicksPerSecond = 100;
+
+	/**
+	 * Format used for returned creation times. Fixed-width, so String
+	 * representations sort chronologically.
+	 */
+	private static final String CREATION_TIME_FORMAT = "yyyy-MM-dd HH:mm:ss.SSS";
 
+	/**
+	 * Boot time of the system in milliseconds since epoch (lazily read from /proc/stat).
+	 */
+	private static Long bootTimeMillis = null;
+
+	/**
+	 * Reads all processes currently listed in the proc file system.
+	 * Processes that terminate while reading are silently skipped.
+	 * @return List of processes with command line and creation time
+	 */
 	@Override
-	public List<String> retrieveProcessesWithNames(
-			ArrayList<String> processNameList) {
-		if (!runsOnLinux()) {
-			return null;
+	protected List<ProcessTableSnapshot.Entry> scanProcessTable() {
+		ArrayList<ProcessTableSnapshot.Entry> processes = new ArrayList<>();
+		File[] entries = new File(PROC_ROOT).listFiles();
+		if (entries == null) {
+			System.err.println("LinuxProcessReader: Could not list process entries in " + PROC_ROOT + ".");
+			return processes;
 		}
-		
-		List<String> processes = new ArrayList<>();
-		
-		// Query for process name
-		try {
-			Process process = Runtime.getRuntime().exec("ps -aux");
-			BufferedReader processReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+		long bootTime = getBootTimeMillis();
+		SimpleDateFormat format = new SimpleDateFormat(CREATION_TIME_FORMAT);
+		for (File entry: entries) {
+			String pid = entry.getName();
+			if (pid.isEmpty() || !Character.isDigit(pid.charAt(0))) {
+				// Not a process directory
+				continue;
+			}
+			try {
+				String stat = new String(Files.readAllBytes(new File(entry, "stat").toPath()), Charset.defaultCharset());
+				// Process name in stat may contain spaces and parentheses, so start after last closing parenthesis
+				int nameEnd = stat.lastIndexOf(')');
+				String[] fields = stat.substring(nameEnd + 2).split(" ");
+				// starttime is field 22 of stat; array starts with field 3 (state)
+				long startTicks = Long.parseLong(fields[19]);
 
-		    String line = null;
-		    while ((line = processReader.readLine()) != null) {
-		    	if (!line.isEmpty()) {
-		    		// Iterate through process list and check whether name is contained in line of ps -aux output
-		    		for (int i = 0; i < processNameList.size(); i++) {
-		    			if (line.contains(processNameList.get(i))) {
-		    				processes.add(line);
-		    			}
-		    		}
-		    	}
-		    }
-		    processReader.close();
-		    
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+				byte[] cmdline = Files.readAllBytes(new File(entry, "cmdline").toPath());
+				String commandLine;
+				if (cmdline.length == 0) {
+					// Kernel threads and zombies have no command line - use process name as ps does
+					commandLine = "[" + stat.substring(stat.indexOf('(') + 1, nameEnd) + "]";
+				} else {
+					// Arguments are separated by null characters
+					for (int i = 0; i < cmdline.length; i++) {
+						if (cmdline[i] == 0) {
+							cmdline[i] = ' ';
+						}
+					}
+					commandLine = new String(cmdline, Charset.defaultCharset()).trim();
+				}
+				String creationTime = format.format(new Date(bootTime + (startTicks * 1000) / clockTicksPerSecond));
+				processes.add(new ProcessTableSnapshot.Entry(pid, commandLine, creationTime));
+			} catch (IOException | RuntimeException e) {
+				// Process terminated while reading or is inaccessible
+				if (debug) {
+					System.out.println("LinuxProcessReader: Skipped process " + pid + " (" + e.getMessage() + ")");
+				}
+			}
 		}
 		return processes;
 	}
 
-	@Override
-	public List<String> getCreationTimesOfRunningInstances(String classToLookup,
-			String exceptionClass) {
-		ArrayList<String> processes = new ArrayList<>();
-		if (!runsOnLinux()) {
-			return null;
-		}
-		try {
-			Process process = Runtime.getRuntime().exec("ps -aux");
-			BufferedReader processReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-
-		    String line = null;
-		    while ((line = processReader.readLine()) != null) {
-		    	if (!line.isEmpty() && line.contains(classToLookup) && 
-		    			((exceptionClass == null || exceptionClass.isEmpty()) ? true : !line.contains(exceptionClass))) {
-		    		if (debug) {
-		    			System.out.println("Response from ps -aux for " + classToLookup + " (Exception: " + exceptionClass + "): " + line);
-		    		}
-		    		
-		    		// Detect process id
-		    		String[] strArr = line.split("\\s+");
-		    		
-		    		//System.out.println("Process id: " + strArr[1]);
-
-		    		// Get process creation timestamp
-		    		Process processGetCreationTime = Runtime.getRuntime().exec("ls -la --time-style=full-iso /proc/" + strArr[1] + "/stat");
-		    		BufferedReader processGetCreationTimeReader = new BufferedReader(new InputStreamReader(processGetCreationTime.getInputStream()));
-				    
-				    line = null;
-				    while ((line = processGetCreationTimeReader.readLine()) != null) {
-				    	System.out.println(line);
-				    	strArr = line.split("\\s+");
-				    	String creationTime = strArr[5] + strArr[6] + strArr[7];
-				    	processes.add(creationTime);
-				    	if (debug) {
-				    		System.out.println("Creation Time: " + creationTime);
-				    	}
-				    }
-				    processGetCreationTimeReader.close();
-		    	}
-		    }
-		    processReader.close();
-		    
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+	/**
+	 * Returns the system boot time (field btime in /proc/stat) in milliseconds since epoch.
+	 * @return Boot time in milliseconds
+	 */
+	private static synchronized long getBootTimeMillis() {
+		if (bootTimeMillis == null) {
+			try {
+				for (String line: Files.readAllLines(new File(PROC_ROOT, "stat").toPath(), Charset.defaultCharset())) {
+					if (line.startsWith("btime ")) {
+						bootTimeMillis = Long.parseLong(line.substring("btime ".length()).trim()) * 1000;
+						break;
+					}
+				}
+			} catch (IOException | NumberFormatException e) {
+				System.err.println("LinuxProcessReader: Could not read boot time from " + PROC_ROOT + "/stat: " + e.getMessage());
+			}
+			if (bootTimeMillis == null) {
+				// Relative start times still sort correctly
+				return 0L;
+			}
 		}
-		return processes;
+		return bootTimeMillis;
 	}
 
 }
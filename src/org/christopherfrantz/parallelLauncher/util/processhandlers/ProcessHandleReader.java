@@ -0,0 +1,179 @@
+package org.christopherfrantz.parallelLauncher.util.processhandlers;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Process reader variant based on the ProcessHandle API (Java 9 and higher).
+ * Retrieves command lines, start instants and process ids without invoking
+ * any external command. Since ParallelLauncher is compiled against Java 8,
+ * the API is accessed reflectively; use {@link #isSupported()} to check whether
+ * the running JVM offers it (and exposes full command lines).
+ * Creation times are returned with nanosecond precision and the process id
+ * appended, so they are unique and sort in order of process creation.
+ * Queries are served from a shared process table snapshot (see {@link SnapshotProcessReader}).
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class ProcessHandleReader extends SnapshotProcessReader {
+
+	/**
+	 * Formatter for start instants. Fixed-width, so String representations
+	 * sort chronologically.
+	 */
+	private static final DateTimeFormatter CREATION_TIME_FORMATTER =
+			DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSSSS").withZone(ZoneId.systemDefault());
+
+	/**
+	 * Reflective references to ProcessHandle API - null if not available.
+	 */
+	private static Method allProcesses = null;
+	private static Method current = null;
+	private static Method pid = null;
+	private static Method info = null;
+	private static Method commandLine = null;
+	private static Method startInstant = null;
+
+	static {
+		try {
+			Class<?> processHandleClass = Class.forName("java.lang.ProcessHandle");
+			Class<?> infoClass = Class.forName("java.lang.ProcessHandle$Info");
+			allProcesses = processHandleClass.getMethod("allProcesses");
+			current = processHandleClass.getMethod("current");
+			pid = processHandleClass.getMethod("pid");
+			info = processHandleClass.getMethod("info");
+			commandLine = infoClass.getMethod("commandLine");
+			startInstant = infoClass.getMethod("startInstant");
+		} catch (ClassNotFoundException | NoSuchMethodException e) {
+			// Running on Java 8 - API not available
+			allProcesses = null;
+		}
+	}
+
+	/**
+	 * Indicates whether the ProcessHandle API is available in the running JVM
+	 * and delivers the command line for the current process (which is not the
+	 * case on all platforms, e.g. Windows only reports the executable).
+	 * @return true if this reader can be used
+	 */
+	public static boolean isSupported() {
+		if (allProcesses == null) {
+			return false;
+		}
+		try {
+			String cmd = getCommandLine(current.invoke(null));
+			return cmd != null && cmd.contains(" ");
+		} catch (ReflectiveOperationException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Process information retrieved from ProcessHandle.
+	 */
+	private static class HandleProcess {
+
+		final long pid;
+		final String commandLine;
+		final Instant startInstant;
+
+		HandleProcess(long pid, String commandLine, Instant startInstant) {
+			this.pid = pid;
+			this.commandLine = commandLine;
+			this.startInstant = startInstant;
+		}
+
+		/**
+		 * Returns the creation time with process id as tie breaker for
+		 * processes started within the same clock tick.
+		 * @return Sortable, unique creation time representation
+		 */
+		String getCreationTime() {
+			return CREATION_TIME_FORMATTER.format(startInstant) + " #" + String.format("%010d", pid);
+		}
+
+		@Override
+		public String toString() {
+			return pid + " " + commandLine;
+		}
+	}
+
+	@Override
+	public String getCreationTimeOfCurrentProcess() {
+		if (allProcesses == null) {
+			return null;
+		}
+		try {
+			HandleProcess process = toHandleProcess(current.invoke(null));
+			if (process == null || process.startInstant == null) {
+				return null;
+			}
+			return process.getCreationTime();
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Retrieves all processes visible to this JVM. Processes without accessible
+	 * command line (e.g. of other users) are skipped.
+	 * @return List of processes with command line and creation time
+	 */
+	@Override
+	protected List<ProcessTableSnapshot.Entry> scanProcessTable() {
+		ArrayList<ProcessTableSnapshot.Entry> processes = new ArrayList<>();
+		if (allProcesses == null) {
+			System.err.println("ProcessHandleReader: ProcessHandle API not available in this JVM (" + System.getProperty("java.version") + ").");
+			return processes;
+		}
+		try {
+			Iterator<?> handles = ((Stream<?>) allProcesses.invoke(null)).iterator();
+			while (handles.hasNext()) {
+				HandleProcess process = toHandleProcess(handles.next());
+				if (process != null) {
+					processes.add(new ProcessTableSnapshot.Entry(String.valueOf(process.pid), process.commandLine,
+							process.startInstant == null ? null : process.getCreationTime()));
+				}
+			}
+		} catch (ReflectiveOperationException e) {
+			System.err.println("ProcessHandleReader: Retrieval of process list failed: " + e.getMessage());
+		}
+		return processes;
+	}
+
+	/**
+	 * Converts a ProcessHandle instance into internal representation.
+	 * @param handle ProcessHandle instance
+	 * @return Process information, or null if command line is not accessible
+	 * @throws ReflectiveOperationException
+	 */
+	private static HandleProcess toHandleProcess(Object handle) throws ReflectiveOperationException {
+		String cmd = getCommandLine(handle);
+		if (cmd == null) {
+			return null;
+		}
+		Object processInfo = info.invoke(handle);
+		Optional<?> start = (Optional<?>) startInstant.invoke(processInfo);
+		return new HandleProcess((Long) pid.invoke(handle), cmd, start.isPresent() ? (Instant) start.get() : null);
+	}
+
+	/**
+	 * Returns the command line of a given ProcessHandle instance.
+	 * @param handle ProcessHandle instance
+	 * @return Command line or null if not accessible
+	 * @throws ReflectiveOperationException
+	 */
+	private static String getCommandLine(Object handle) throws ReflectiveOperationException {
+		Optional<?> cmd = (Optional<?>) commandLine.invoke(info.invoke(handle));
+		return cmd.isPresent() ? (String) cmd.get() : null;
+	}
+
+}
@@ -1,5 +1,7 @@
 package org.christopherfrantz.parallelLauncher.util.processhandlers;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -59,6 +61,25 @@ public abstract class ProcessReader {
 				exceptionClass != null ? exceptionClass.getCanonicalName() : null);
 	}
 	
+	/**
+	 * Returns the creation time of the current (i.e. this launcher's) process in the 
+	 * same format as returned by {@link #getCreationTimesOfRunningInstances(String, String)}. 
+	 * Returns null if the implementation cannot identify the current process, in which 
+	 * case callers need to infer it (e.g. as most recently started instance).
+	 * @return Creation time of current process or null if not determinable
+	 */
+	public String getCreationTimeOfCurrentProcess(){
+		return null;
+	}
+
+	/**
+	 * Discards any cached process information, so the next query reflects the
+	 * current process table. Should be called at the beginning of each check cycle.
+	 * Implementations without caching ignore this call.
+	 */
+	public void invalidateProcessInformation(){
+	}
+
 	/**
 	 * Checks if this application is run on a Windows operating system.
 	 * Returns true if so, and false if not.
@@ -114,5 +135,30 @@ public abstract class ProcessReader {
 		//if not Windows, return false
 		return false;
 	}
+	
+	/**
+	 * Determines the OS process id of a process. Uses Process.pid() if available (Java 9 and higher)
+	 * and the pid field of the Unix process implementation otherwise (Java 8), both reflectively,
+	 * since ParallelLauncher is compiled against Java 8.
+	 * @param process Process
+	 * @return Process id or null if not determinable (e.g. processes run inside the launcher JVM)
+	 */
+	public static Long getProcessId(Process process){
+		try {
+			Method pid = Process.class.getMethod("pid");
+			return (Long) pid.invoke(process);
+		} catch (NoSuchMethodException e) {
+			// Java 8
+		} catch (ReflectiveOperationException | UnsupportedOperationException e) {
+			return null;
+		}
+		try {
+			Field pid = process.getClass().getDeclaredField("pid");
+			pid.setAccessible(true);
+			return ((Number) pid.get(process)).longValue();
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
 
 }
@@ -0,0 +1,170 @@
+package org.christopherfrantz.parallelLauncher.util.processhandlers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the OS process table captured at a given point in time.
+ * Processes are indexed by their command line tokens, so lookups for Java
+ * classes (which appear as individual tokens on the command line) are in-memory
+ * map lookups. Substring lookups (e.g. for partial process names) are computed
+ * once per snapshot and memorized.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class ProcessTableSnapshot {
+
+	/**
+	 * Individual process entry in a snapshot.
+	 */
+	public static class Entry {
+
+		/**
+		 * Process id
+		 */
+		public final String pid;
+
+		/**
+		 * Full command line (arguments separated by spaces)
+		 */
+		public final String commandLine;
+
+		/**
+		 * Sortable String representation of process creation time
+		 * (null if not available)
+		 */
+		public final String creationTime;
+
+		public Entry(String pid, String commandLine, String creationTime) {
+			this.pid = pid;
+			this.commandLine = commandLine;
+			this.creationTime = creationTime;
+		}
+
+		@Override
+		public String toString() {
+			return pid + " " + commandLine;
+		}
+	}
+
+	/**
+	 * Time of capture (System.currentTimeMillis())
+	 */
+	private final long captureTime;
+
+	/**
+	 * All processes in snapshot
+	 */
+	private final List<Entry> entries;
+
+	/**
+	 * Index mapping command line tokens to processes containing those
+	 */
+	private final HashMap<String, List<Entry>> tokenIndex = new HashMap<>();
+
+	/**
+	 * Memorized results of substring queries
+	 */
+	private final HashMap<String, List<Entry>> substringQueries = new HashMap<>();
+
+	/**
+	 * Creates a snapshot of the given process entries.
+	 * @param entries Process entries
+	 */
+	public ProcessTableSnapshot(List<Entry> entries) {
+		this.captureTime = System.currentTimeMillis();
+		this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+		for (Entry entry: entries) {
+			// Use set to avoid indexing processes multiple times for repeated tokens
+			for (String token: new LinkedHashSet<>(tokenize(entry.commandLine))) {
+				List<Entry> indexed = tokenIndex.get(token);
+				if (indexed == null) {
+					indexed = new ArrayList<>();
+					tokenIndex.put(token, indexed);
+				}
+				indexed.add(entry);
+			}
+		}
+	}
+
+	/**
+	 * Splits command line into whitespace-separated tokens.
+	 * @param commandLine Command line
+	 * @return List of tokens
+	 */
+	private static List<String> tokenize(String commandLine) {
+		ArrayList<String> tokens = new ArrayList<>();
+		for (String token: commandLine.split("\\s+")) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * Returns the age of this snapshot in milliseconds.
+	 * @return Age in milliseconds
+	 */
+	public long getAge() {
+		return System.currentTimeMillis() - captureTime;
+	}
+
+	/**
+	 * Returns all processes in this snapshot.
+	 * @return Unmodifiable list of processes
+	 */
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Returns processes that contain the given token (e.g. fully-qualified class name)
+	 * as an individual command line argument.
+	 * @param token Token to look up
+	 * @return List of matching processes (empty if none)
+	 */
+	public List<Entry> getProcessesWithToken(String token) {
+		List<Entry> result = tokenIndex.get(token);
+		if (result == null) {
+			return Collections.emptyList();
+		}
+		return result;
+	}
+
+	/**
+	 * Indicates whether a given process contains the given token as individual
+	 * command line argument.
+	 * @param entry Process entry
+	 * @param token Token to check for
+	 * @return true if token is contained
+	 */
+	public boolean containsToken(Entry entry, String token) {
+		return getProcessesWithToken(token).contains(entry);
+	}
+
+	/**
+	 * Returns processes whose command line contains the given String (e.g. partial
+	 * process name). Results are memorized for the lifetime of the snapshot.
+	 * @param contained String to be contained in command line
+	 * @return List of matching processes (empty if none)
+	 */
+	public synchronized List<Entry> getProcessesContaining(String contained) {
+		List<Entry> result = substringQueries.get(contained);
+		if (result == null) {
+			result = new ArrayList<>();
+			for (Entry entry: entries) {
+				if (entry.commandLine.contains(contained)) {
+					result.add(entry);
+				}
+			}
+			substringQueries.put(contained, result);
+		}
+		return result;
+	}
+
+}
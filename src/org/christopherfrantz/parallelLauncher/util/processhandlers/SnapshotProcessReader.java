@@ -0,0 +1,111 @@
+package org.christopherfrantz.parallelLauncher.util.processhandlers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.christopherfrantz.parallelLauncher.util.DataStructurePrettyPrinter;
+
+/**
+ * Process reader base for implementations that can enumerate the complete process
+ * table at once. Serves all queries from a shared {@link ProcessTableSnapshot} that
+ * is captured at most once per {@link #snapshotTimeToLive} (or after explicit
+ * invalidation at the beginning of a check cycle), so the number of OS queries
+ * remains constant independent of the number of checked classes.
+ * Java classes are matched as individual command line tokens, process names as
+ * substrings of the command line.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public abstract class SnapshotProcessReader extends ProcessReader {
+
+	/**
+	 * Maximum age (in ms) of a process table snapshot before it is captured anew.
+	 */
+	public static long snapshotTimeToLive = 1000;
+
+	/**
+	 * Most recently captured snapshot
+	 */
+	private ProcessTableSnapshot snapshot = null;
+
+	/**
+	 * Captures all processes currently running on the system.
+	 * @return Process entries
+	 */
+	protected abstract List<ProcessTableSnapshot.Entry> scanProcessTable();
+
+	/**
+	 * Returns a current snapshot of the process table, reusing the previous
+	 * one if it is younger than {@link #snapshotTimeToLive}.
+	 * @return Process table snapshot
+	 */
+	public synchronized ProcessTableSnapshot getSnapshot() {
+		if (snapshot == null || snapshot.getAge() > snapshotTimeToLive) {
+			snapshot = new ProcessTableSnapshot(scanProcessTable());
+			if (debug) {
+				System.out.println("Captured process table snapshot with " + snapshot.getEntries().size() + " processes.");
+			}
+		}
+		return snapshot;
+	}
+
+	@Override
+	public synchronized void invalidateProcessInformation() {
+		snapshot = null;
+	}
+
+	@Override
+	public List<String> retrieveProcessesRunningJavaClasses(ArrayList<Class> classesRunInProcesses) {
+		ProcessTableSnapshot current = getSnapshot();
+		//use set, so duplicates are removed automatically
+		LinkedHashSet<String> processes = new LinkedHashSet<>();
+		for (int i = 0; i < classesRunInProcesses.size(); i++) {
+			for (ProcessTableSnapshot.Entry entry: current.getProcessesWithToken(classesRunInProcesses.get(i).getCanonicalName())) {
+				processes.add(entry.toString());
+			}
+		}
+		if(debug){
+			System.out.println("Aggregated into " + DataStructurePrettyPrinter.decomposeRecursively(processes, null));
+		}
+		return new ArrayList<String>(processes);
+	}
+
+	@Override
+	public List<String> retrieveProcessesWithName(String processNameString) {
+		ArrayList<String> list = new ArrayList<>();
+		list.add(processNameString);
+		return retrieveProcessesWithNames(list);
+	}
+
+	@Override
+	public List<String> retrieveProcessesWithNames(ArrayList<String> processNameList) {
+		ProcessTableSnapshot current = getSnapshot();
+		LinkedHashSet<String> processes = new LinkedHashSet<>();
+		for (int i = 0; i < processNameList.size(); i++) {
+			for (ProcessTableSnapshot.Entry entry: current.getProcessesContaining(processNameList.get(i))) {
+				processes.add(entry.toString());
+			}
+		}
+		return new ArrayList<String>(processes);
+	}
+
+	@Override
+	public List<String> getCreationTimesOfRunningInstances(String classToLookup, String exceptionClass) {
+		ProcessTableSnapshot current = getSnapshot();
+		ArrayList<String> creationTimes = new ArrayList<>();
+		for (ProcessTableSnapshot.Entry entry: current.getProcessesWithToken(classToLookup)) {
+			if (entry.creationTime != null
+					&& ((exceptionClass == null || exceptionClass.isEmpty()) ? true : !current.containsToken(entry, exceptionClass))) {
+				creationTimes.add(entry.creationTime);
+				if (debug) {
+					System.out.println("Process for " + classToLookup + " (Exception: " + exceptionClass + "): " + entry
+							+ ", Creation Time: " + entry.creationTime);
+				}
+			}
+		}
+		return creationTimes;
+	}
+
+}
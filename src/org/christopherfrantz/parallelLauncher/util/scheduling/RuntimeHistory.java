@@ -0,0 +1,388 @@
+package org.christopherfrantz.parallelLauncher.util.scheduling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.christopherfrantz.parallelLauncher.util.listeners.ProcessStatusListener;
+import org.christopherfrantz.parallelLauncher.util.wrappers.ProcessWrapper;
+
+/**
+ * Persistent history of runtimes of launched classes, used to order launches
+ * longest-expected-runtime-first (LPT). For each class, an exponentially weighted moving
+ * average of the runtimes of its successful runs is kept, both for the class as such
+ * and for the particular set of arguments it was launched with. Expected runtimes are
+ * taken from the entry for the argument set if available, and from the class entry otherwise.
+ * Peak memory consumption of launched classes is kept alike (see {@link #recordPeakMemory(String, String[], long)}).<BR>
+ * The history file is shared by all launchers in a working directory and is
+ * updated under an exclusive lock on a lock file next to it.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class RuntimeHistory {
+
+	private static final String PREFIX = "RuntimeHistory: ";
+
+	/**
+	 * Ending for lock file guarding the history file
+	 */
+	private static final String LOCK_FILE_ENDING = ".lock";
+
+	/**
+	 * Separator between class name and argument set digest in history keys
+	 */
+	private static final String ARGUMENT_SET_SEPARATOR = "#";
+
+	/**
+	 * Suffix of history keys for peak memory consumption
+	 */
+	private static final String PEAK_MEMORY_SUFFIX = "@peakMemory";
+
+	/**
+	 * Separator between key and values in history file
+	 */
+	private static final String KEY_VALUE_SEPARATOR = "=";
+
+	/**
+	 * Separator between average and number of samples in history file
+	 */
+	private static final String VALUE_SEPARATOR = ";";
+
+	/**
+	 * Guards access to the history file from within this JVM, as file locks
+	 * are held on behalf of the entire JVM (and overlapping locks are rejected).
+	 */
+	private static final Object fileLock = new Object();
+
+	/**
+	 * History file
+	 */
+	private final File historyFile;
+
+	/**
+	 * Weight of the most recent measurement in moving averages (between 0 and 1)
+	 */
+	private final float smoothingFactor;
+
+	/**
+	 * Entries as read from history file (and updated by runs of this launcher)
+	 */
+	private final Map<String, Entry> entries = new HashMap<>();
+
+	/**
+	 * Measurements of a class (or class and argument set)
+	 */
+	private static class Entry {
+
+		/**
+		 * Moving average of measured values (runtime in milliseconds or memory in bytes)
+		 */
+		private final long average;
+
+		/**
+		 * Number of runs the average is based on
+		 */
+		private final long samples;
+
+		private Entry(long average, long samples) {
+			this.average = average;
+			this.samples = samples;
+		}
+	}
+
+	/**
+	 * Instantiates history and reads existing entries from the given file (if existing).
+	 * @param historyFile History file
+	 * @param smoothingFactor Weight of the most recent measurement in moving averages (between 0 and 1)
+	 */
+	public RuntimeHistory(File historyFile, float smoothingFactor) {
+		this.historyFile = historyFile;
+		this.smoothingFactor = Math.max(0f, Math.min(1f, smoothingFactor));
+		synchronized (fileLock) {
+			try (RandomAccessFile lockFile = new RandomAccessFile(getLockFile(), "rw")) {
+				FileLock lock = lockFile.getChannel().lock();
+				try {
+					entries.putAll(readEntries());
+				} finally {
+					lock.release();
+				}
+			} catch (IOException e) {
+				System.err.println(PREFIX + "Could not read runtime history " + historyFile.getAbsolutePath() + ": " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Returns the expected runtime of a class launched with the given arguments.
+	 * @param className Name of launched class
+	 * @param arguments Arguments passed to launched class (may be null)
+	 * @return Expected runtime in milliseconds, or null if the class has no history
+	 */
+	public Long getExpectedRuntime(String className, String[] arguments) {
+		return getExpectedValue(className, arguments, "");
+	}
+
+	/**
+	 * Returns the expected peak memory consumption of a class launched with the given arguments.
+	 * @param className Name of launched class
+	 * @param arguments Arguments passed to launched class (may be null)
+	 * @return Expected peak memory consumption in bytes, or null if the class has no history
+	 */
+	public Long getExpectedPeakMemory(String className, String[] arguments) {
+		return getExpectedValue(className, arguments, PEAK_MEMORY_SUFFIX);
+	}
+
+	/**
+	 * Returns the moving average of a measure for a class launched with the given arguments.
+	 * @param className Name of launched class
+	 * @param arguments Arguments passed to launched class (may be null)
+	 * @param suffix Suffix of history keys of measure
+	 * @return Moving average, or null if the class has no history
+	 */
+	private synchronized Long getExpectedValue(String className, String[] arguments, String suffix) {
+		Entry entry = entries.get(buildKey(className, arguments) + suffix);
+		if (entry == null) {
+			entry = entries.get(className + suffix);
+		}
+		return (entry != null ? entry.average : null);
+	}
+
+	/**
+	 * Orders the given classes by expected runtime (longest first). Classes without
+	 * history keep their positions, so the given order is retained if no history is available.
+	 * @param classNames Names of classes to be launched (in given order)
+	 * @param arguments Arguments passed to launched classes (may be null)
+	 * @return Indices into the given list in launch order
+	 */
+	public List<Integer> orderLongestFirst(List<String> classNames, String[] arguments) {
+		final ArrayList<Integer> positionsWithHistory = new ArrayList<>();
+		final HashMap<Integer, Long> expectedRuntimes = new HashMap<>();
+		for (int i = 0; i < classNames.size(); i++) {
+			Long expected = getExpectedRuntime(classNames.get(i), arguments);
+			if (expected != null) {
+				positionsWithHistory.add(i);
+				expectedRuntimes.put(i, expected);
+			}
+		}
+		ArrayList<Integer> sorted = new ArrayList<>(positionsWithHistory);
+		// Stable, so classes of equal expected runtime retain their order
+		Collections.sort(sorted, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer first, Integer second) {
+				return Long.compare(expectedRuntimes.get(second), expectedRuntimes.get(first));
+			}
+		});
+		ArrayList<Integer> order = new ArrayList<>();
+		for (int i = 0; i < classNames.size(); i++) {
+			order.add(i);
+		}
+		for (int i = 0; i < positionsWithHistory.size(); i++) {
+			order.set(positionsWithHistory.get(i), sorted.get(i));
+		}
+		return order;
+	}
+
+	/**
+	 * Records the runtime of the given launched process once it terminates successfully.
+	 * Needs to be called right after launch and before other listeners are registered with
+	 * the wrapper, so the runtime is recorded before the launcher may terminate.
+	 * @param wrapper ProcessWrapper of launched process
+	 * @param className Name of launched class
+	 * @param arguments Arguments passed to launched class (may be null)
+	 */
+	public void track(ProcessWrapper wrapper, final String className, String[] arguments) {
+		final String[] launchArguments = (arguments == null ? null : arguments.clone());
+		final long startTime = System.currentTimeMillis();
+		wrapper.registerListener(new ProcessStatusListener() {
+
+			@Override
+			public void executeDuringProcessLaunch(ProcessWrapper wrapper) {
+				// Start time taken upon tracking
+			}
+
+			@Override
+			public void executeAfterProcessTermination(ProcessWrapper wrapper) {
+				if (wrapper.getExitCode() == 0) {
+					record(className, launchArguments, System.currentTimeMillis() - startTime);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Records a runtime for the given class and arguments and writes the updated entries
+	 * to the history file (merging updates by other launchers in the meantime).
+	 * @param className Name of launched class
+	 * @param arguments Arguments passed to launched class (may be null)
+	 * @param runtime Runtime in milliseconds
+	 */
+	public void record(String className, String[] arguments, long runtime) {
+		recordValue(className, arguments, "", runtime);
+	}
+
+	/**
+	 * Records the peak memory consumption of a run of the given class and arguments
+	 * (see {@link #record(String, String[], long)}).
+	 * @param className Name of launched class
+	 * @param arguments Arguments passed to launched class (may be null)
+	 * @param peakMemory Peak memory consumption in bytes
+	 */
+	public void recordPeakMemory(String className, String[] arguments, long peakMemory) {
+		recordValue(className, arguments, PEAK_MEMORY_SUFFIX, peakMemory);
+	}
+
+	/**
+	 * Records a measured value for the given class and arguments and writes the updated
+	 * entries to the history file.
+	 * @param className Name of launched class
+	 * @param arguments Arguments passed to launched class (may be null)
+	 * @param suffix Suffix of history keys of measure
+	 * @param value Measured value
+	 */
+	private void recordValue(String className, String[] arguments, String suffix, long value) {
+		synchronized (fileLock) {
+			try (RandomAccessFile lockFile = new RandomAccessFile(getLockFile(), "rw")) {
+				FileLock lock = lockFile.getChannel().lock();
+				try {
+					Map<String, Entry> current = readEntries();
+					update(current, className + suffix, value);
+					String key = buildKey(className, arguments);
+					if (!key.equals(className)) {
+						update(current, key + suffix, value);
+					}
+					writeEntries(current);
+					synchronized (this) {
+						entries.clear();
+						entries.putAll(current);
+					}
+				} finally {
+					lock.release();
+				}
+			} catch (IOException e) {
+				System.err.println(PREFIX + "Could not update runtime history " + historyFile.getAbsolutePath() + ": " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Updates the moving average for a given key with a given value.
+	 * @param entries Entries to be updated
+	 * @param key History key
+	 * @param value Measured value
+	 */
+	private void update(Map<String, Entry> entries, String key, long value) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			entries.put(key, new Entry(value, 1));
+		} else {
+			long average = Math.round(smoothingFactor * value + (1 - smoothingFactor) * entry.average);
+			entries.put(key, new Entry(average, entry.samples + 1));
+		}
+	}
+
+	/**
+	 * Builds the history key for a class and argument set. Classes launched without
+	 * arguments are keyed by their name only. Argument sets are identified by a SHA-256
+	 * digest of the length-prefixed arguments, so different argument sets do not share entries.
+	 * @param className Name of launched class
+	 * @param arguments Arguments passed to launched class (may be null)
+	 * @return History key
+	 */
+	private static String buildKey(String className, String[] arguments) {
+		if (arguments == null || arguments.length == 0) {
+			return className;
+		}
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Required to be supported by every Java platform
+			throw new RuntimeException("SHA-256 not supported.", e);
+		}
+		for (String argument: arguments) {
+			byte[] bytes = String.valueOf(argument).getBytes(Charset.forName("UTF-8"));
+			digest.update((bytes.length + ":").getBytes(Charset.forName("UTF-8")));
+			digest.update(bytes);
+		}
+		StringBuilder key = new StringBuilder(className).append(ARGUMENT_SET_SEPARATOR);
+		for (byte b: digest.digest()) {
+			key.append(String.format("%02x", b));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Reads all entries from the history file. Requires lock on lock file.
+	 * @return Entries (empty if no history file exists)
+	 * @throws IOException if file cannot be read
+	 */
+	private Map<String, Entry> readEntries() throws IOException {
+		HashMap<String, Entry> read = new HashMap<>();
+		if (!historyFile.isFile()) {
+			return read;
+		}
+		for (String line: Files.readAllLines(historyFile.toPath(), Charset.forName("UTF-8"))) {
+			int keyEnd = line.lastIndexOf(KEY_VALUE_SEPARATOR);
+			int valueSeparator = line.indexOf(VALUE_SEPARATOR, keyEnd + 1);
+			if (keyEnd <= 0 || valueSeparator == -1) {
+				continue;
+			}
+			try {
+				read.put(line.substring(0, keyEnd), new Entry(Long.parseLong(line.substring(keyEnd + 1, valueSeparator).trim()),
+						Long.parseLong(line.substring(valueSeparator + 1).trim())));
+			} catch (NumberFormatException e) {
+				System.err.println(PREFIX + "Ignoring malformed entry in runtime history: " + line);
+			}
+		}
+		return read;
+	}
+
+	/**
+	 * Writes the given entries to the history file (replacing it atomically). Requires lock on lock file.
+	 * @param entries Entries to be written
+	 * @throws IOException if file cannot be written
+	 */
+	private void writeEntries(Map<String, Entry> entries) throws IOException {
+		ArrayList<String> lines = new ArrayList<>();
+		for (Map.Entry<String, Entry> entry: new TreeMap<>(entries).entrySet()) {
+			lines.add(entry.getKey() + KEY_VALUE_SEPARATOR + entry.getValue().average + VALUE_SEPARATOR + entry.getValue().samples);
+		}
+		File parent = historyFile.getAbsoluteFile().getParentFile();
+		File temp = File.createTempFile(historyFile.getName(), ".tmp", parent);
+		try {
+			Files.write(temp.toPath(), lines, Charset.forName("UTF-8"));
+			try {
+				Files.move(temp.toPath(), historyFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), historyFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Returns the lock file guarding the history file.
+	 * @return Lock file
+	 */
+	private File getLockFile() {
+		return new File(historyFile.getAbsolutePath() + LOCK_FILE_ENDING);
+	}
+
+}
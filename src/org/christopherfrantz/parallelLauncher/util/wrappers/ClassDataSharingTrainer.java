@@ -0,0 +1,31 @@
+package org.christopherfrantz.parallelLauncher.util.wrappers;
+
+/**
+ * Training executable for Class Data Sharing (CDS) archives. Run by the launcher
+ * with -XX:ArchiveClassesAtExit on the same classpath as launched processes, it loads
+ * (but does not initialize) the given classes, so that the JVM dumps them, along with
+ * all classes they depend on during loading, into the archive on exit.
+ * No application code (static initializers or main methods) is executed.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class ClassDataSharingTrainer {
+
+	/**
+	 * Loads all classes passed as parameters (fully qualified names).
+	 * Classes that cannot be loaded are reported and skipped.
+	 * @param args Names of classes to be loaded
+	 */
+	public static void main(String[] args){
+		ClassLoader loader = ClassDataSharingTrainer.class.getClassLoader();
+		for(String className: args){
+			try {
+				Class.forName(className, false, loader);
+			} catch (ClassNotFoundException | LinkageError e) {
+				System.err.println("Could not load class '" + className + "' for Class Data Sharing archive: " + e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,440 @@
+package org.christopherfrantz.parallelLauncher.util.wrappers;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.Permission;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Runs the main method of a launched class inside the launcher JVM (instead of a separate
+ * process), while exposing it as {@link Process}, so it can be monitored by a {@link ProcessWrapper}
+ * (and its listeners) just as launched processes.<BR>
+ * Each task runs on its own thread (group) with a fresh class loader over the classpath of
+ * launched processes, so static state is isolated between tasks. Output written to System.out
+ * and System.err by threads of a task is routed to the task's output file. System.exit() called
+ * by a task terminates the task (not the launcher) with the given exit code. Exit codes and error
+ * files follow the conventions of {@link WrapperExecutable}; the error stream of a task only refers to these files. Tasks that have not called System.exit()
+ * terminate once all of their non-daemon threads have finished.<BR>
+ * Interception of System.exit() requires installation of a security manager (see {@link #installTaskIsolation()}).
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class InJvmProcess extends Process {
+
+	/**
+	 * Exit code reported for destroyed tasks (corresponding to SIGTERM)
+	 */
+	public static final int DESTROYED_EXIT_CODE = 143;
+
+	/**
+	 * Interval (in milliseconds) for checking for running threads of a task once its main method has returned
+	 */
+	private static final int THREAD_CHECK_INTERVAL = 100;
+
+	/**
+	 * Running tasks by thread group
+	 */
+	private static final Map<ThreadGroup, InJvmProcess> runningTasks = new ConcurrentHashMap<>();
+
+	/**
+	 * Indicates whether security manager and output routing have been installed
+	 */
+	private static boolean installed = false;
+
+	/**
+	 * Name of class to be launched
+	 */
+	private final String className;
+
+	/**
+	 * Unique identifier for task
+	 */
+	private final String identifier;
+
+	/**
+	 * Thread group of task
+	 */
+	private final ThreadGroup threadGroup;
+
+	/**
+	 * Class loader of task
+	 */
+	private final URLClassLoader classLoader;
+
+	/**
+	 * Output of task (stdout and stderr)
+	 */
+	private final OutputStream output;
+
+	/**
+	 * Note on location of error output (provided as error stream)
+	 */
+	private final byte[] errorOutputNote;
+
+	/**
+	 * Exit code (null while running)
+	 */
+	private Integer exitCode = null;
+
+	/**
+	 * Exception signalling a call of System.exit() by a task (thrown instead of terminating the JVM).
+	 */
+	private static class TaskExitException extends SecurityException {
+
+		private static final long serialVersionUID = 1L;
+
+		private TaskExitException(int status) {
+			super("System.exit(" + status + ") called by task running in launcher JVM");
+		}
+	}
+
+	/**
+	 * Security manager intercepting System.exit() of tasks, while permitting anything else.
+	 */
+	private static class TaskExitSecurityManager extends SecurityManager {
+
+		@Override
+		public void checkPermission(Permission perm) {
+			// Everything permitted
+		}
+
+		@Override
+		public void checkPermission(Permission perm, Object context) {
+			// Everything permitted
+		}
+
+		@Override
+		public void checkExit(int status) {
+			InJvmProcess task = getCurrentTask();
+			if (task != null) {
+				task.terminate(status);
+				throw new TaskExitException(status);
+			}
+		}
+	}
+
+	/**
+	 * Output stream routing output to the output of the current thread's task (if any),
+	 * or the original stream otherwise.
+	 */
+	private static class TaskRoutingOutputStream extends OutputStream {
+
+		/**
+		 * Stream used for output of threads not belonging to a task
+		 */
+		private final OutputStream original;
+
+		private TaskRoutingOutputStream(OutputStream original) {
+			this.original = original;
+		}
+
+		/**
+		 * Determines the target stream for the current thread.
+		 * @return Target stream
+		 */
+		private OutputStream target() {
+			InJvmProcess task = getCurrentTask();
+			return (task != null ? task.output : original);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			target().write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			target().write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			target().flush();
+		}
+	}
+
+	/**
+	 * Installs the security manager intercepting System.exit() of tasks and the routing of
+	 * System.out and System.err to task outputs. Must be called before starting tasks.
+	 * Calling it repeatedly has no further effect.
+	 * @throws SecurityException if installing a security manager is not permitted
+	 * @throws UnsupportedOperationException if the JVM does not support security managers
+	 */
+	public static synchronized void installTaskIsolation() {
+		if (installed) {
+			return;
+		}
+		System.setSecurityManager(new TaskExitSecurityManager());
+		System.setOut(new PrintStream(new TaskRoutingOutputStream(System.out), true));
+		System.setErr(new PrintStream(new TaskRoutingOutputStream(System.err), true));
+		installed = true;
+	}
+
+	/**
+	 * Starts a task running the main method of a given class.
+	 * @param className Name of class to be launched
+	 * @param identifier Unique identifier for task
+	 * @param classpath Classpath to load launched class from
+	 * @param parameters Parameters for main method (may be null)
+	 * @param outputFile Output file for stdout and stderr of task
+	 * @return Process representation of task
+	 * @throws IOException if output file cannot be created
+	 */
+	public static InJvmProcess start(String className, String identifier, URL[] classpath, String[] parameters, File outputFile) throws IOException {
+		if (!installed) {
+			throw new IllegalStateException("Task isolation has not been installed.");
+		}
+		InJvmProcess task = new InJvmProcess(className, identifier, classpath, outputFile);
+		task.launch(parameters == null ? new String[0] : parameters.clone());
+		return task;
+	}
+
+	/**
+	 * Instantiates task.
+	 * @param className Name of class to be launched
+	 * @param identifier Unique identifier for task
+	 * @param classpath Classpath to load launched class from
+	 * @param outputFile Output file for stdout and stderr of task
+	 * @throws IOException if output file cannot be created
+	 */
+	private InJvmProcess(String className, String identifier, URL[] classpath, File outputFile) throws IOException {
+		this.className = className;
+		this.identifier = identifier;
+		this.output = new FileOutputStream(outputFile);
+		String simpleName = className.substring(className.lastIndexOf('.') + 1);
+		this.errorOutputNote = ("Error output of in-JVM task written to " + outputFile.getAbsolutePath() 
+				+ " (and " + new File(identifier + "_" + simpleName + "_Error").getAbsolutePath() + " if uncaught exception occurred)")
+				.getBytes();
+		this.threadGroup = new ThreadGroup("Task " + identifier) {
+
+			@Override
+			public void uncaughtException(Thread t, Throwable e) {
+				// System.exit() called by further threads of task is no error
+				if (!(e instanceof TaskExitException)) {
+					super.uncaughtException(t, e);
+				}
+			}
+		};
+		// Delegate to platform classes only, so launched classes are loaded afresh
+		this.classLoader = new URLClassLoader(classpath, ClassLoader.getSystemClassLoader().getParent());
+	}
+
+	/**
+	 * Starts the main thread of the task.
+	 * @param parameters Parameters for main method
+	 */
+	private void launch(final String[] parameters) {
+		runningTasks.put(threadGroup, this);
+		Thread main = new Thread(threadGroup, new Runnable() {
+
+			@Override
+			public void run() {
+				runMain(parameters);
+				awaitNonDaemonThreads();
+				terminate(0);
+			}
+		}, className + " (" + identifier + ")");
+		main.setContextClassLoader(classLoader);
+		main.start();
+	}
+
+	/**
+	 * Loads the launched class and runs its main method (as {@link WrapperExecutable}).
+	 * @param parameters Parameters for main method
+	 */
+	private void runMain(String[] parameters) {
+		try {
+			Class<?> classToBeRun = Class.forName(className, true, classLoader);
+			// class loaded, so launcher can proceed
+			signalReadiness();
+			classToBeRun.getMethod("main", String[].class).invoke(null, (Object) parameters);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof TaskExitException) {
+				// Terminated via System.exit()
+				return;
+			}
+			System.err.println("Exception in launched executable '" + className + "':");
+			e.getCause().printStackTrace();
+			saveMessageToErrorFile(e.getCause().getMessage());
+		} catch (TaskExitException e) {
+			// System.exit() called during class initialization
+		} catch (Exception | LinkageError e) {
+			e.printStackTrace();
+			saveMessageToErrorFile(e.getMessage());
+		}
+	}
+
+	/**
+	 * Waits until all non-daemon threads started by the task have finished
+	 * (as the JVM would before terminating), or the task has terminated otherwise.
+	 */
+	private void awaitNonDaemonThreads() {
+		while (isAlive()) {
+			Thread[] threads = new Thread[threadGroup.activeCount() + 1];
+			int count = threadGroup.enumerate(threads, true);
+			boolean running = false;
+			for (int i = 0; i < count; i++) {
+				if (threads[i] != Thread.currentThread() && !threads[i].isDaemon() && threads[i].isAlive()) {
+					running = true;
+					break;
+				}
+			}
+			if (!running) {
+				return;
+			}
+			try {
+				Thread.sleep(THREAD_CHECK_INTERVAL);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Terminates the task with the given exit code (unless already terminated). Remaining
+	 * threads of the task are interrupted, and the exit code is reported as by {@link WrapperExecutable}.
+	 * @param status Exit code
+	 */
+	private void terminate(int status) {
+		synchronized (this) {
+			if (exitCode != null) {
+				return;
+			}
+			// Written to task output directly, as possibly terminated by launcher
+			try {
+				output.write(("Exit code is " + status + System.getProperty("line.separator")).getBytes());
+			} catch (IOException e) {
+				// Output not available anymore
+			}
+			if (status != 0) {
+				saveMessageToErrorFile("Exit code: " + status);
+			}
+			exitCode = status;
+			notifyAll();
+		}
+		runningTasks.remove(threadGroup);
+		threadGroup.interrupt();
+		try {
+			output.close();
+		} catch (IOException e) {
+			// Nothing to be done
+		}
+		try {
+			classLoader.close();
+		} catch (IOException e) {
+			// Nothing to be done
+		}
+	}
+
+	/**
+	 * Signals readiness to the launcher by creating a marker file named after the task identifier.
+	 */
+	private void signalReadiness() {
+		try {
+			new File(identifier + WrapperExecutable.READY_MARKER_FILE_ENDING).createNewFile();
+		} catch (IOException e) {
+			// launcher will continue after timeout
+			System.err.println("Could not signal readiness to launcher. Error: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes a given message to an error file constructed from task identifier and class name.
+	 * @param message Message to be saved
+	 */
+	private void saveMessageToErrorFile(String message) {
+		if (message != null && !message.isEmpty()) {
+			String simpleName = className.substring(className.lastIndexOf('.') + 1);
+			try {
+				FileUtils.write(new File(identifier + "_" + simpleName + "_Error"), message, true);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Returns the task the current thread belongs to.
+	 * @return Task or null if current thread does not belong to any task
+	 */
+	private static InJvmProcess getCurrentTask() {
+		if (runningTasks.isEmpty()) {
+			return null;
+		}
+		for (ThreadGroup group = Thread.currentThread().getThreadGroup(); group != null; group = group.getParent()) {
+			InJvmProcess task = runningTasks.get(group);
+			if (task != null) {
+				return task;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public OutputStream getOutputStream() {
+		// Tasks do not receive input
+		return new OutputStream() {
+
+			@Override
+			public void write(int b) {
+				// Discarded
+			}
+		};
+	}
+
+	@Override
+	public InputStream getInputStream() {
+		// Output is written to output file
+		return new ByteArrayInputStream(new byte[0]);
+	}
+
+	@Override
+	public InputStream getErrorStream() {
+		// Output is written to files, so only refer to them
+		return new ByteArrayInputStream(errorOutputNote);
+	}
+
+	@Override
+	public synchronized int waitFor() throws InterruptedException {
+		while (exitCode == null) {
+			wait();
+		}
+		return exitCode;
+	}
+
+	@Override
+	public synchronized int exitValue() {
+		if (exitCode == null) {
+			throw new IllegalThreadStateException("Task " + identifier + " has not terminated yet.");
+		}
+		return exitCode;
+	}
+
+	@Override
+	public void destroy() {
+		terminate(DESTROYED_EXIT_CODE);
+	}
+
+	@Override
+	public synchronized boolean isAlive() {
+		return exitCode == null;
+	}
+
+	@Override
+	public String toString() {
+		return "InJvmProcess[identifier=" + identifier + ", class=" + className + ", exitValue=" + (exitCode == null ? "\"not exited\"" : exitCode) + "]";
+	}
+
+}
@@ -0,0 +1,207 @@
+package org.christopherfrantz.parallelLauncher.util.wrappers;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Shared service detecting the termination of wrapped processes and executing
+ * the associated completion handling (e.g. listener notification) on a small
+ * shared thread pool, instead of dedicating a waiting thread to each process.
+ * On Java 9 and higher termination is detected via Process.onExit() (accessed
+ * reflectively), on Java 8 a single thread polls all registered processes.
+ * The completion handling of an individual process is executed as one task,
+ * so its steps remain ordered.<BR>
+ * While processes are registered, a non-daemon thread keeps the JVM alive
+ * (as the dedicated waiting threads did previously).
+ *
+ * @author Christopher Frantz
+ *
+ */
+public final class ProcessCompletionService {
+
+	/**
+	 * Number of threads executing completion handling. The default of 1 serializes
+	 * listener notifications across processes, so listeners are never invoked concurrently.
+	 */
+	public static int numberOfCompletionThreads = 1;
+
+	/**
+	 * Interval (in ms) in which registered processes are checked for termination
+	 * if Process.onExit() is not available (Java 8).
+	 */
+	public static long pollingInterval = 100;
+
+	/**
+	 * Reflective reference to Process.onExit() - null if not available
+	 */
+	private static Method onExit = null;
+
+	static {
+		try {
+			onExit = Process.class.getMethod("onExit");
+		} catch (NoSuchMethodException e) {
+			// Running on Java 8 - use polling
+			onExit = null;
+		}
+	}
+
+	/**
+	 * Guards all mutable state of this service
+	 */
+	private static final Object lock = new Object();
+
+	/**
+	 * Number of registered processes whose completion handling has not finished
+	 */
+	private static int pendingProcesses = 0;
+
+	/**
+	 * Processes checked for termination by polling (Java 8 only)
+	 */
+	private static final ArrayList<PolledProcess> polledProcesses = new ArrayList<>();
+
+	/**
+	 * Thread keeping JVM alive while processes are pending (and polling processes if necessary)
+	 */
+	private static Thread keepAliveThread = null;
+
+	/**
+	 * Executor running completion handling (lazily created)
+	 */
+	private static ThreadPoolExecutor executor = null;
+
+	/**
+	 * Process monitored by polling, along with its completion handling.
+	 */
+	private static class PolledProcess {
+
+		final Process process;
+		final Runnable completion;
+
+		PolledProcess(Process process, Runnable completion) {
+			this.process = process;
+			this.completion = completion;
+		}
+	}
+
+	private ProcessCompletionService() {
+		// Static service
+	}
+
+	/**
+	 * Registers a process whose termination should trigger the given completion handling.
+	 * @param process Process to be monitored
+	 * @param completion Handling executed once process has terminated
+	 */
+	public static void register(Process process, final Runnable completion) {
+		final Runnable task = new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					completion.run();
+				} finally {
+					synchronized (lock) {
+						pendingProcesses--;
+						lock.notifyAll();
+					}
+				}
+			}
+
+		};
+		synchronized (lock) {
+			pendingProcesses++;
+			ensureKeepAliveThread();
+		}
+		if (onExit != null) {
+			try {
+				CompletableFuture<?> exit = (CompletableFuture<?>) onExit.invoke(process);
+				exit.whenCompleteAsync(new BiConsumer<Object, Throwable>() {
+
+					@Override
+					public void accept(Object terminated, Throwable error) {
+						task.run();
+					}
+
+				}, getExecutor());
+				return;
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				System.err.println("ProcessCompletionService: Process.onExit() failed, falling back to polling. Error: " + e.getMessage());
+			}
+		}
+		synchronized (lock) {
+			polledProcesses.add(new PolledProcess(process, task));
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Returns the executor running completion handling.
+	 * @return Executor
+	 */
+	private static Executor getExecutor() {
+		synchronized (lock) {
+			if (executor == null) {
+				int threads = Math.max(1, numberOfCompletionThreads);
+				executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+						new ThreadFactory() {
+
+							@Override
+							public Thread newThread(Runnable runnable) {
+								return new Thread(runnable, "ProcessWrapper completion");
+							}
+
+						});
+				// Let idle threads terminate, so they do not keep JVM alive
+				executor.allowCoreThreadTimeOut(true);
+			}
+			return executor;
+		}
+	}
+
+	/**
+	 * Starts keep-alive thread if not running. Must be called holding {@link #lock}.
+	 */
+	private static void ensureKeepAliveThread() {
+		if (keepAliveThread != null) {
+			return;
+		}
+		keepAliveThread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				synchronized (lock) {
+					while (pendingProcesses > 0) {
+						// Check polled processes for termination
+						Iterator<PolledProcess> it = polledProcesses.iterator();
+						while (it.hasNext()) {
+							PolledProcess polled = it.next();
+							if (!polled.process.isAlive()) {
+								it.remove();
+								getExecutor().execute(polled.completion);
+							}
+						}
+						try {
+							// Only wake up regularly if polling, else wait for pending processes to complete
+							lock.wait(polledProcesses.isEmpty() ? 0 : pollingInterval);
+						} catch (InterruptedException e) {
+							// Recheck
+						}
+					}
+					keepAliveThread = null;
+				}
+			}
+
+		}, "ProcessWrapper keep-alive");
+		keepAliveThread.start();
+	}
+
+}
@@ -1,5 +1,6 @@
 package org.christopherfrantz.parallelLauncher.util.wrappers;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -21,6 +22,37 @@ public class ProcessWrapper {
 
 	private boolean debug = (ParallelLauncher.debug || MetaLauncher.debug);
 	
+	/**
+	 * If switched on, stdout and stderr of wrapped processes are drained 
+	 * continuously while the process runs (instead of reading them after 
+	 * termination), so processes producing a lot of output never block 
+	 * on full pipes. Only the most recent {@link #outputBufferSize} bytes 
+	 * of each stream are retained.
+	 * (Recommended: true)
+	 */
+	public static boolean drainOutputStreamsContinuously = true;
+	
+	/**
+	 * Number of most recent bytes retained per drained stream
+	 */
+	public static int outputBufferSize = 64 * 1024;
+	
+	/**
+	 * Directory drained streams are additionally spooled to in full 
+	 * (one file per stream). If null, streams are not spooled.
+	 */
+	public static String spoolDirectory = null;
+	
+	/**
+	 * Drainer for stdout (null if not draining continuously)
+	 */
+	private StreamDrainer outputDrainer = null;
+	
+	/**
+	 * Drainer for stderr (null if not draining continuously)
+	 */
+	private StreamDrainer errorDrainer = null;
+	
 	/**
 	 * Wrapped process reference
 	 */
@@ -50,7 +82,7 @@ public class ProcessWrapper {
 	/**
 	 * Indicator if process has finished
 	 */
-	private boolean isFinished = false;
+	private volatile boolean isFinished = false;
 
 	/**
 	 * Indicates if wrapped process has finished its operation.
@@ -63,7 +95,7 @@ public class ProcessWrapper {
 	/**
 	 * Process exit code.
 	 */
-	private int exitCode;
+	private volatile int exitCode;
 
 	/**
 	 * Returns exit code the process return upon termination.
@@ -135,7 +167,15 @@ public class ProcessWrapper {
 	public ProcessWrapper(final String name, final Process process, final Class instantiator) {
 		this.process = process;
 		this.name = name;
-		new Thread(new Runnable() {
+		if(drainOutputStreamsContinuously){
+			String spoolPrefix = (spoolDirectory != null ? spoolDirectory + File.separator + name + "_" + System.nanoTime() : null);
+			outputDrainer = new StreamDrainer(process.getInputStream(), outputBufferSize, 
+					spoolPrefix != null ? new File(spoolPrefix + "_stdout") : null);
+			errorDrainer = new StreamDrainer(process.getErrorStream(), outputBufferSize, 
+					spoolPrefix != null ? new File(spoolPrefix + "_stderr") : null);
+		}
+		// Termination is detected and handled by shared service instead of dedicated waiting thread
+		ProcessCompletionService.register(process, new Runnable() {
 
 			@Override
 			public void run() {
@@ -149,6 +189,7 @@ public class ProcessWrapper {
 					//e.printStackTrace();
 				}
 				//System.out.println("Process " + name + " has finished. Will do all notification operations.");
+				finishDraining();
 				isFinished = true;
 				//deleting created batch file
 				if(scriptFileToBeDeleted != null){
@@ -179,8 +220,7 @@ public class ProcessWrapper {
 								+ name
 								+ "' standard output: "
 								+ System.getProperty("line.separator")
-								+ convertStreamToString(process
-										.getInputStream()));
+								+ getStandardOutput());
 					}
 					//print stderr output if exit code != 0
 					if(exitCode != 0){
@@ -192,17 +232,57 @@ public class ProcessWrapper {
 								+ name
 								+ "' error output: "
 								+ System.getProperty("line.separator")
-								+ convertStreamToString(process
-										.getErrorStream()));
+								+ getErrorOutput());
 					}
 				}
 				//notify all listeners regarding termination once all other activity is done
 				notifyListeners();
 			}
 
-		}).start();
+		});
 	}
 
+	/**
+	 * Reads remaining output of terminated process (if draining continuously).
+	 */
+	private void finishDraining(){
+		if(outputDrainer != null){
+			outputDrainer.finish();
+			errorDrainer.finish();
+		}
+	}
+	
+	/**
+	 * Returns stdout output of the wrapped process. If streams are drained 
+	 * continuously, only the most recent output is returned (and only output 
+	 * produced so far if the process is still running). Otherwise the stream 
+	 * is read until its end.
+	 * @return Stdout output
+	 */
+	public String getStandardOutput(){
+		if(outputDrainer != null){
+			if(!process.isAlive()){
+				outputDrainer.finish();
+			}
+			return outputDrainer.getContent();
+		}
+		return convertStreamToString(process.getInputStream());
+	}
+	
+	/**
+	 * Returns stderr output of the wrapped process. See {@link #getStandardOutput()}.
+	 * @return Stderr output
+	 */
+	public String getErrorOutput(){
+		if(errorDrainer != null){
+			if(!process.isAlive()){
+				errorDrainer.finish();
+			}
+			return errorDrainer.getContent();
+		}
+		return convertStreamToString(process.getErrorStream());
+	}
+	
 	/**
 	 * Converts InputStreams (e.g. from stdout and stderr) to 
 	 * Strings for the purpose of printing.
@@ -211,13 +291,14 @@ public class ProcessWrapper {
 	 */
 	private static String convertStreamToString(InputStream stream) {
 
-		StringBuilder outString = new StringBuilder();
-		int chr;
+		ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int count;
 		try {
-			while ((chr = stream.read()) != -1) {
-				outString.append(String.valueOf((char) chr));
+			while ((count = stream.read(buffer)) != -1) {
+				outBytes.write(buffer, 0, count);
 			}
-			return outString.toString();
+			return outBytes.toString();
 		} catch (IOException e) {
 			System.err.println(ParallelLauncher.getCurrentTimeString(true) 
 					+ ": MetaLauncher: Error converting InputStream to String. Error: " + e.getMessage());
@@ -0,0 +1,247 @@
+package org.christopherfrantz.parallelLauncher.util.wrappers;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+/**
+ * Continuously drains an output stream of a child process, so the child never
+ * blocks on a full pipe. Drained content is kept in a bounded ring buffer holding
+ * the most recent bytes (e.g. for error reporting) and can optionally be spooled
+ * to a file.<BR>
+ * All active drainers are served by a single shared thread that reads available
+ * bytes in bulk without blocking. Once the process has terminated, {@link #finish()}
+ * reads the remaining content.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class StreamDrainer {
+
+	/**
+	 * Interval (in ms) in which streams are checked for available content
+	 */
+	public static long pollingInterval = 20;
+
+	/**
+	 * Size of read buffer
+	 */
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Drainers served by the shared draining thread
+	 */
+	private static final ArrayList<StreamDrainer> activeDrainers = new ArrayList<>();
+
+	/**
+	 * Shared draining thread (null if no drainer active)
+	 */
+	private static Thread drainingThread = null;
+
+	/**
+	 * Drained stream
+	 */
+	private final InputStream stream;
+
+	/**
+	 * Ring buffer holding most recent content
+	 */
+	private final byte[] ring;
+
+	/**
+	 * Next write position in ring buffer
+	 */
+	private int position = 0;
+
+	/**
+	 * Indicates whether ring buffer has been filled completely at least once
+	 */
+	private boolean wrapped = false;
+
+	/**
+	 * Total number of drained bytes
+	 */
+	private long totalBytes = 0;
+
+	/**
+	 * Spool file stream (null if not spooling)
+	 */
+	private OutputStream spool = null;
+
+	/**
+	 * Indicates whether draining has finished
+	 */
+	private boolean finished = false;
+
+	/**
+	 * Starts draining the given stream.
+	 * @param stream Stream to be drained
+	 * @param capacity Number of most recent bytes to be retained
+	 * @param spoolFile File all drained content is appended to (null if not spooling)
+	 */
+	public StreamDrainer(InputStream stream, int capacity, File spoolFile) {
+		this.stream = stream;
+		this.ring = new byte[Math.max(1, capacity)];
+		if (spoolFile != null) {
+			try {
+				if (spoolFile.getAbsoluteFile().getParentFile() != null) {
+					spoolFile.getAbsoluteFile().getParentFile().mkdirs();
+				}
+				spool = new FileOutputStream(spoolFile, true);
+			} catch (IOException e) {
+				System.err.println("StreamDrainer: Could not open spool file " + spoolFile.getAbsolutePath() + ". Error: " + e.getMessage());
+			}
+		}
+		synchronized (activeDrainers) {
+			activeDrainers.add(this);
+			if (drainingThread == null) {
+				drainingThread = new Thread(new Runnable() {
+
+					@Override
+					public void run() {
+						drainActiveStreams();
+					}
+
+				}, "StreamDrainer");
+				drainingThread.setDaemon(true);
+				drainingThread.start();
+			}
+		}
+	}
+
+	/**
+	 * Loop of shared draining thread. Terminates once no drainer is active.
+	 */
+	private static void drainActiveStreams() {
+		byte[] buffer = new byte[READ_BUFFER_SIZE];
+		while (true) {
+			StreamDrainer[] drainers;
+			synchronized (activeDrainers) {
+				if (activeDrainers.isEmpty()) {
+					drainingThread = null;
+					return;
+				}
+				drainers = activeDrainers.toArray(new StreamDrainer[activeDrainers.size()]);
+			}
+			boolean read = false;
+			for (StreamDrainer drainer: drainers) {
+				read |= drainer.drainAvailable(buffer);
+			}
+			if (!read) {
+				try {
+					Thread.sleep(pollingInterval);
+				} catch (InterruptedException e) {
+					// Continue draining
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads all currently available bytes without blocking.
+	 * @param buffer Read buffer
+	 * @return true if any bytes have been read
+	 */
+	private synchronized boolean drainAvailable(byte[] buffer) {
+		if (finished) {
+			return false;
+		}
+		boolean read = false;
+		try {
+			int available;
+			while ((available = stream.available()) > 0) {
+				int count = stream.read(buffer, 0, Math.min(available, buffer.length));
+				if (count <= 0) {
+					break;
+				}
+				append(buffer, count);
+				read = true;
+			}
+		} catch (IOException e) {
+			// Stream closed
+			close();
+		}
+		return read;
+	}
+
+	/**
+	 * Appends drained bytes to ring buffer and spool file.
+	 * @param data Drained bytes
+	 * @param length Number of valid bytes in data
+	 */
+	private void append(byte[] data, int length) {
+		totalBytes += length;
+		if (spool != null) {
+			try {
+				spool.write(data, 0, length);
+			} catch (IOException e) {
+				System.err.println("StreamDrainer: Could not write to spool file. Error: " + e.getMessage());
+				spool = null;
+			}
+		}
+		if (length >= ring.length) {
+			System.arraycopy(data, length - ring.length, ring, 0, ring.length);
+			position = 0;
+			wrapped = true;
+			return;
+		}
+		int first = Math.min(length, ring.length - position);
+		System.arraycopy(data, 0, ring, position, first);
+		System.arraycopy(data, first, ring, 0, length - first);
+		if (position + length >= ring.length) {
+			wrapped = true;
+		}
+		position = (position + length) % ring.length;
+	}
+
+	/**
+	 * Reads remaining content of the stream and stops draining. Should be called
+	 * once the process has terminated. Repeated calls have no effect.
+	 */
+	public synchronized void finish() {
+		if (finished) {
+			return;
+		}
+		// Process has terminated, so all remaining output is available without blocking
+		drainAvailable(new byte[READ_BUFFER_SIZE]);
+		close();
+	}
+
+	/**
+	 * Stops draining and closes the spool file.
+	 */
+	private void close() {
+		finished = true;
+		synchronized (activeDrainers) {
+			activeDrainers.remove(this);
+		}
+		if (spool != null) {
+			try {
+				spool.close();
+			} catch (IOException e) {
+				// Nothing to do
+			}
+			spool = null;
+		}
+	}
+
+	/**
+	 * Returns the retained (most recent) content of the stream. Indicates
+	 * the number of omitted bytes if content exceeded the buffer capacity.
+	 * @return Retained content
+	 */
+	public synchronized String getContent() {
+		if (!wrapped) {
+			return new String(ring, 0, position);
+		}
+		byte[] content = new byte[ring.length];
+		System.arraycopy(ring, position, content, 0, ring.length - position);
+		System.arraycopy(ring, 0, content, ring.length - position, position);
+		return "[... " + (totalBytes - ring.length) + " bytes omitted ...]" + System.getProperty("line.separator")
+				+ new String(content);
+	}
+
+}
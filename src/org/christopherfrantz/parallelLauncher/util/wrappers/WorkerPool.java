@@ -0,0 +1,330 @@
+package org.christopherfrantz.parallelLauncher.util.wrappers;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Pool of pre-started {@link WrapperExecutable} worker processes for upcoming launches.
+ * Workers are started for a given class to be launched (which is loaded right away),
+ * idle until the launcher passes the actual task (identifier, redirection settings, parameters) via stdin,
+ * then run the class once and terminate - just as directly launched processes. Since JVM
+ * startup happens ahead of time, launched processes start without startup delay.<BR>
+ * Workers are started in launch order, and the pool is refilled in the background
+ * whenever a worker has been handed out. Output of workers is written to a worker output
+ * file that is renamed to the output file of the actual task upon dispatch.<BR>
+ * Note that idle workers carry the name of the class to be launched on their command line,
+ * so they are counted as running processes of that class by other launchers.
+ *
+ * @author Christopher Frantz
+ *
+ */
+public class WorkerPool {
+
+	/**
+	 * Ending of output files of idle workers
+	 */
+	public static final String WORKER_OUTPUT_FILE_ENDING = "_Worker_Output";
+
+	/**
+	 * Command (Java executable and JVM options) used to start workers
+	 */
+	private final List<String> javaCommand;
+
+	/**
+	 * Classpath of workers
+	 */
+	private final String classpath;
+
+	/**
+	 * Directory for worker output files
+	 */
+	private final File outputDirectory;
+
+	/**
+	 * Maximum number of idle workers
+	 */
+	private final int size;
+
+	/**
+	 * Names of classes of upcoming launches workers still need to be started for (in launch order)
+	 */
+	private final LinkedList<String> upcomingClassNames;
+
+	/**
+	 * Idle workers (in start order)
+	 */
+	private final LinkedList<Worker> idleWorkers = new LinkedList<>();
+
+	/**
+	 * Executor refilling the pool in the background
+	 */
+	private final ExecutorService refiller;
+
+	/**
+	 * Indicates whether the pool has been shut down
+	 */
+	private boolean shutDown = false;
+
+	/**
+	 * Pre-started worker process
+	 */
+	private static class Worker {
+
+		/**
+		 * Name of class the worker has been started for
+		 */
+		private final String className;
+
+		/**
+		 * Worker process
+		 */
+		private final Process process;
+
+		/**
+		 * Output file of worker
+		 */
+		private final File outputFile;
+
+		private Worker(String className, Process process, File outputFile) {
+			this.className = className;
+			this.process = process;
+			this.outputFile = outputFile;
+		}
+	}
+
+	/**
+	 * Instantiates the pool and starts the first workers in the background.
+	 * @param javaCommand Java executable, followed by eventual JVM options
+	 * @param classpath Classpath for workers (passed via environment)
+	 * @param outputDirectory Directory for output files (null for working directory)
+	 * @param size Maximum number of idle workers
+	 * @param upcomingClassNames Names of classes to be launched (in launch order)
+	 */
+	public WorkerPool(List<String> javaCommand, String classpath, File outputDirectory, int size, List<String> upcomingClassNames) {
+		this.javaCommand = new ArrayList<>(javaCommand);
+		this.classpath = classpath;
+		this.outputDirectory = outputDirectory;
+		this.size = size;
+		this.upcomingClassNames = new LinkedList<>(upcomingClassNames);
+		if (outputDirectory != null) {
+			outputDirectory.mkdirs();
+		}
+		this.refiller = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Worker pool refill");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		refill();
+	}
+
+	/**
+	 * Hands out a worker for the given task (starting a fresh worker if no idle worker
+	 * is available for the class) and refills the pool in the background.
+	 * @param className Name of class to be launched
+	 * @param identifier Unique identifier for launched process
+	 * @param outputFile Output file for launched process
+	 * @param redirectionType Type of redirection as specified by constants in {@link WrapperExecutable}
+	 * @param redirectionOutFilename Redirection outfile (null if redirection deactivated)
+	 * @param parameters Parameters for main method of launched class (may be null)
+	 * @return Process running the task
+	 * @throws IOException if no worker could be started or the task could not be passed on
+	 */
+	public Process dispatch(String className, String identifier, File outputFile, String redirectionType, String redirectionOutFilename, String[] parameters) throws IOException {
+		Worker worker;
+		synchronized (this) {
+			worker = takeIdleWorker(className);
+			if (worker == null) {
+				upcomingClassNames.removeFirstOccurrence(className);
+			}
+		}
+		if (worker == null) {
+			// Started for this very launch
+			worker = startWorker(className);
+		}
+		refill();
+		try {
+			passTask(worker, identifier, outputFile, redirectionType, redirectionOutFilename, parameters);
+		} catch (IOException e) {
+			// Worker has died while idling - retry with fresh one
+			discard(worker);
+			worker = startWorker(className);
+			passTask(worker, identifier, outputFile, redirectionType, redirectionOutFilename, parameters);
+		}
+		return worker.process;
+	}
+
+	/**
+	 * Discards all idle workers and stops refilling the pool.
+	 */
+	public void shutdown() {
+		List<Worker> discarded;
+		synchronized (this) {
+			shutDown = true;
+			upcomingClassNames.clear();
+			discarded = new ArrayList<>(idleWorkers);
+			idleWorkers.clear();
+		}
+		refiller.shutdownNow();
+		for (Worker worker: discarded) {
+			discard(worker);
+		}
+	}
+
+	/**
+	 * Returns the number of idle workers.
+	 * @return Number of idle workers
+	 */
+	public synchronized int getNumberOfIdleWorkers() {
+		return idleWorkers.size();
+	}
+
+	/**
+	 * Starts workers for upcoming launches in the background until the pool is full.
+	 */
+	private void refill() {
+		if (refiller.isShutdown()) {
+			return;
+		}
+		refiller.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				while (true) {
+					String className;
+					synchronized (WorkerPool.this) {
+						if (shutDown || idleWorkers.size() >= size || upcomingClassNames.isEmpty()) {
+							return;
+						}
+						className = upcomingClassNames.removeFirst();
+					}
+					// Started without lock on pool so dispatching is not blocked meanwhile
+					Worker worker;
+					try {
+						worker = startWorker(className);
+					} catch (IOException e) {
+						// Started on demand at dispatch instead
+						System.err.println("Could not pre-start worker for class '" + className + "': " + e.getMessage());
+						return;
+					}
+					synchronized (WorkerPool.this) {
+						if (!shutDown) {
+							idleWorkers.add(worker);
+							continue;
+						}
+					}
+					discard(worker);
+					return;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Removes and returns the first idle (and still running) worker for the given class.
+	 * Terminated workers are discarded. Requires lock on pool.
+	 * @param className Name of class to be launched
+	 * @return Worker or null if none available
+	 */
+	private Worker takeIdleWorker(String className) {
+		Iterator<Worker> it = idleWorkers.iterator();
+		while (it.hasNext()) {
+			Worker worker = it.next();
+			if (!worker.process.isAlive()) {
+				it.remove();
+				discard(worker);
+			} else if (worker.className.equals(className)) {
+				it.remove();
+				return worker;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Starts a worker for a given class. Does not require lock on pool.
+	 * @param className Name of class to be launched
+	 * @return Started worker
+	 * @throws IOException if process cannot be started
+	 */
+	private Worker startWorker(String className) throws IOException {
+		ArrayList<String> command = new ArrayList<>(javaCommand);
+		command.add(WrapperExecutable.class.getCanonicalName());
+		command.add(WrapperExecutable.WORKER_MODE);
+		command.add(className);
+		ProcessBuilder pb = new ProcessBuilder(command);
+		pb.environment().put("CLASSPATH", classpath);
+		File outputFile = new File(outputDirectory, System.nanoTime() + WORKER_OUTPUT_FILE_ENDING);
+		pb.redirectErrorStream(true);
+		pb.redirectOutput(outputFile);
+		return new Worker(className, pb.start(), outputFile);
+	}
+
+	/**
+	 * Passes a task to a worker. The worker's output file is renamed to the task's
+	 * output file, or, if renaming fails, the worker is asked to redirect its output.
+	 * If the task cannot be passed on, the renaming is reverted.
+	 * @param worker Worker
+	 * @param identifier Unique identifier for launched process
+	 * @param outputFile Output file for launched process
+	 * @param redirectionType Type of redirection as specified by constants in {@link WrapperExecutable}
+	 * @param redirectionOutFilename Redirection outfile (null if redirection deactivated)
+	 * @param parameters Parameters for main method of launched class (may be null)
+	 * @throws IOException if task cannot be passed on
+	 */
+	private static void passTask(Worker worker, String identifier, File outputFile, String redirectionType, String redirectionOutFilename, String[] parameters) throws IOException {
+		boolean moved = !outputFile.getAbsoluteFile().equals(worker.outputFile.getAbsoluteFile())
+				&& !outputFile.exists() && worker.outputFile.renameTo(outputFile);
+		boolean renamed = moved || outputFile.getAbsoluteFile().equals(worker.outputFile.getAbsoluteFile());
+		DataOutputStream out = new DataOutputStream(worker.process.getOutputStream());
+		try {
+			out.writeUTF(identifier);
+			out.writeUTF(renamed ? "null" : outputFile.getPath());
+			out.writeUTF(redirectionType);
+			out.writeUTF(String.valueOf(redirectionOutFilename));
+			out.writeInt(parameters == null ? 0 : parameters.length);
+			if (parameters != null) {
+				for (String parameter: parameters) {
+					out.writeUTF(parameter);
+				}
+			}
+		} catch (IOException e) {
+			if (moved && !outputFile.renameTo(worker.outputFile)) {
+				// Not to be mixed up with output of retried task
+				FileUtils.deleteQuietly(outputFile);
+			}
+			throw e;
+		} finally {
+			// Launched class receives end of stream on stdin, as directly launched processes
+			out.close();
+		}
+	}
+
+	/**
+	 * Terminates a worker and deletes its output file.
+	 * @param worker Worker
+	 */
+	private static void discard(Worker worker) {
+		try {
+			worker.process.getOutputStream().close();
+		} catch (IOException e) {
+			// Terminated anyway
+		}
+		worker.process.destroy();
+		FileUtils.deleteQuietly(worker.outputFile);
+	}
+
+}
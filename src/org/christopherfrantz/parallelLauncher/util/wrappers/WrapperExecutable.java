@@ -1,5 +1,7 @@
 package org.christopherfrantz.parallelLauncher.util.wrappers;
 
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -9,6 +11,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.security.Permission;
 import org.apache.commons.io.FileUtils;
 import org.christopherfrantz.parallelLauncher.util.MultiOutputStream;
+import org.christopherfrantz.parallelLauncher.util.jars.TemporaryFileLease;
 
 /**
  * Wraps an executable upon instantiation in order to control standard input and output streams,
@@ -37,6 +40,18 @@ public class WrapperExecutable {
 	 */
 	public static final String REDIRECT_NONE = "REDIRECT_NONE";
 	
+	/**
+	 * Ending of marker file (prefixed with process identifier) created once the 
+	 * class to be launched has been loaded, signalling readiness to the launcher.
+	 */
+	public static final String READY_MARKER_FILE_ENDING = ".ready";
+	
+	/**
+	 * Constant indicating that the executable is started as pre-started worker 
+	 * that receives its task via stdin (see {@link WorkerPool}).
+	 */
+	public static final String WORKER_MODE = "WORKER";
+	
 	/**
 	 * Expected number of parameters from invoking ParallelLauncher.
 	 * Will not change unless ParallelLauncher implementation is modified.
@@ -59,6 +74,12 @@ public class WrapperExecutable {
 	private static String classNameOfClassToBeLaunched = null;
 	
 	public static void main(String[] args){
+		// Keep temporary files of launcher in place while running
+		TemporaryFileLease.join(System.getProperty(TemporaryFileLease.LEASE_FILE_PROPERTY));
+		if(args.length == 2 && args[0].equals(WORKER_MODE)){
+			runAsWorker(args[1]);
+			return;
+		}
 		// expect at least three parameters, but there may be more that are passed on to the executable
 		if(args.length < numberOfExpectedParameters){
 			throw new RuntimeException("Attempted to run executable from ParallelLauncher failed: " +
@@ -83,15 +104,26 @@ public class WrapperExecutable {
 				paramCt++;
 			}
 		}
+		// expect fourth parameter to be executable class
+		run(args[3], parametersForMainMethod);
+	}
+	
+	/**
+	 * Runs the main method of a given class, capturing exit codes and exceptions.
+	 * @param className Name of class to be launched
+	 * @param parametersForMainMethod Parameters passed to main method
+	 */
+	private static void run(String className, final String[] parametersForMainMethod){
 		// register shutdown hook to handle exit code of class to be invoked
 		addExitCodeCapturingShutdownHook();
 		
 		// save name of class to be launched
-		classNameOfClassToBeLaunched = args[3];
+		classNameOfClassToBeLaunched = className;
 		
-		// expect fourth parameter to be executable class
 		try {
 			Class classToBeRun = Class.forName(classNameOfClassToBeLaunched);
+			// class loaded, so launcher can proceed
+			signalReadiness();
 			//System.out.println("Invoking class " + classToBeRun.getCanonicalName() + " with " + parametersForMainMethod.length + " parameters.");
 			// invoke passed executables main method
 			classToBeRun.getMethod("main", String[].class).invoke(null, (Object)parametersForMainMethod);
@@ -108,6 +140,60 @@ public class WrapperExecutable {
 		}
 	}
 	
+	/**
+	 * Runs as pre-started worker (see {@link WorkerPool}): Loads the class to be launched 
+	 * and waits for the launcher to pass the task (identifier, output target, 
+	 * redirection type and outfile, parameters for main method) via stdin, before 
+	 * running the class once just as when started directly.
+	 * @param className Name of class to be launched
+	 */
+	private static void runAsWorker(String className){
+		// Load class while idling (initialization is left to the actual run)
+		try {
+			Class.forName(className, false, WrapperExecutable.class.getClassLoader());
+		} catch (ClassNotFoundException | LinkageError e) {
+			// Reported when actually running the class
+		}
+		String outputTarget;
+		String redirectionType;
+		String[] parametersForMainMethod;
+		try {
+			DataInputStream in = new DataInputStream(System.in);
+			identifier = in.readUTF();
+			outputTarget = in.readUTF();
+			redirectionType = in.readUTF();
+			redirectionOutFilename = in.readUTF();
+			parametersForMainMethod = new String[in.readInt()];
+			for(int i = 0; i < parametersForMainMethod.length; i++){
+				parametersForMainMethod[i] = in.readUTF();
+			}
+		} catch (EOFException e) {
+			// Worker has been discarded by launcher
+			return;
+		} catch (IOException e) {
+			throw new RuntimeException("Worker for class '" + className + "' could not receive task from ParallelLauncher: " + e.getMessage(), e);
+		}
+		// Redirect output if launcher could not hand over the worker's output file
+		if(!outputTarget.equals("null")){
+			redirect(REDIRECT_BOTH, outputTarget);
+		}
+		// Perform redirection as when started directly
+		redirect(redirectionType, redirectionOutFilename);
+		run(className, parametersForMainMethod);
+	}
+	
+	/**
+	 * Signals readiness to the launcher by creating a marker file named after the process identifier.
+	 */
+	private static void signalReadiness(){
+		try {
+			new File(identifier + READY_MARKER_FILE_ENDING).createNewFile();
+		} catch (IOException e) {
+			// launcher will continue after timeout
+			System.err.println("Could not signal readiness to launcher. Error: " + e.getMessage());
+		}
+	}
+	
 	/**
 	 * Sets up redirection according to redirection type and routes output to specified file 
 	 * in addition to console output. Creates file if not already existing.